@@ -0,0 +1,71 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+// The state of a background analysis in its results dir, written by the analyze goal when it starts Infer and again
+// when Infer exits, for the join goal. It names the Infer process, with its start time so a recycled pid is not
+// mistaken for it, and the Infer executable the analysis ran, so the join reuses it rather than provisioning Infer.
+record AnalysisStatus(
+        State state, String inferExe, long inferPid, long inferStartMillis, Integer exitCode, String error) {
+
+    static final String FILE_NAME = "plugin-analysis-status.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    enum State {
+        RUNNING,
+        FINISHED,
+        FAILED
+    }
+
+    // Before Infer started there is no process to name yet
+    static AnalysisStatus starting(Path inferExe) {
+        return new AnalysisStatus(State.RUNNING, inferExe.toString(), 0L, 0L, null, null);
+    }
+
+    AnalysisStatus runningAs(ProcessHandle inferProcess) {
+        return new AnalysisStatus(State.RUNNING, inferExe, inferProcess.pid(), startMillisOf(inferProcess), null, null);
+    }
+
+    AnalysisStatus finished(int inferExitCode) {
+        return new AnalysisStatus(State.FINISHED, inferExe, inferPid, inferStartMillis, inferExitCode, null);
+    }
+
+    AnalysisStatus failed(Exception failure) {
+        return new AnalysisStatus(State.FAILED, inferExe, inferPid, inferStartMillis, null, String.valueOf(failure));
+    }
+
+    Optional<ProcessHandle> inferProcess() {
+        if (inferPid == 0L) {
+            return Optional.empty();
+        }
+
+        return ProcessHandle.of(inferPid)
+                .filter(ProcessHandle::isAlive)
+                .filter(processHandle -> startMillisOf(processHandle) == inferStartMillis);
+    }
+
+    private static long startMillisOf(ProcessHandle processHandle) {
+        return processHandle
+                .info()
+                .startInstant()
+                .map(start -> start.toEpochMilli())
+                .orElse(0L);
+    }
+
+    static AnalysisStatus read(Path statusFile) throws IOException {
+        return OBJECT_MAPPER.readValue(statusFile.toFile(), AnalysisStatus.class);
+    }
+
+    void write(Path statusFile) throws IOException {
+        Files.createDirectories(statusFile.getParent());
+        Path pendingStatusFile = statusFile.resolveSibling(statusFile.getFileName() + ".tmp");
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(pendingStatusFile.toFile(), this);
+        Files.move(pendingStatusFile, statusFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
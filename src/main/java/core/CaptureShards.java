@@ -0,0 +1,56 @@
+package core;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Splits the sources of a capture into shards that can be captured concurrently. A package is never split across
+// shards, so the classes of a package are compiled together as they are in a single capture. Packages are handed out
+// largest first to the shard with the fewest sources, which keeps the shards close in size.
+final class CaptureShards {
+
+    // Below this many sources per shard the startup of another javac outweighs what it captures
+    static final int MIN_SOURCES_PER_SHARD = 100;
+
+    private CaptureShards() {}
+
+    static int shardCountFor(List<Path> javaSourceFiles, int jobs) {
+        long packages = javaSourceFiles.stream().map(Path::getParent).distinct().count();
+        long sourceLimit = Math.max(1, javaSourceFiles.size() / MIN_SOURCES_PER_SHARD);
+        return (int) Math.max(1L, Math.min(jobs, Math.min(packages, sourceLimit)));
+    }
+
+    static List<List<Path>> of(List<Path> javaSourceFiles, int shardCount) {
+        Map<String, List<Path>> packages = new TreeMap<>();
+
+        for (Path javaSourceFile : javaSourceFiles) {
+            packages.computeIfAbsent(String.valueOf(javaSourceFile.getParent()), dir -> new ArrayList<>())
+                    .add(javaSourceFile);
+        }
+
+        List<List<Path>> packagesBySize = packages.values().stream()
+                .sorted(Comparator.comparingInt(List<Path>::size).reversed())
+                .toList();
+        List<List<Path>> shards = new ArrayList<>();
+
+        for (int i = 0; i < Math.min(shardCount, packagesBySize.size()); i++) {
+            shards.add(new ArrayList<>());
+        }
+
+        for (List<Path> packageSources : packagesBySize) {
+            shards.stream()
+                    .min(Comparator.comparingInt(List::size))
+                    .orElseThrow()
+                    .addAll(packageSources);
+        }
+
+        return shards.stream()
+                .map(shard -> shard.stream()
+                        .sorted(Comparator.comparing(Path::toString))
+                        .toList())
+                .toList();
+    }
+}
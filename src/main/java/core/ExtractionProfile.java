@@ -0,0 +1,56 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public enum ExtractionProfile {
+    FULL("full", List.of()),
+
+    // The clang plugin and the C/C++/Objective-C capture tooling make up most of the distribution but are never
+    // touched when analysing Java. Prefixes are relative to the Infer root dir inside the tarball.
+    JAVA_ONLY(
+            "java-only",
+            List.of(
+                    "lib/infer/facebook-clang-plugins/",
+                    "lib/infer/infer/lib/clang_wrappers/",
+                    "lib/infer/infer/lib/linter_rules/",
+                    "lib/infer/infer/lib/xcode_wrappers/"));
+
+    private final String id;
+    private final List<String> excludedPrefixes;
+
+    ExtractionProfile(String id, List<String> excludedPrefixes) {
+        this.id = id;
+        this.excludedPrefixes = excludedPrefixes;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public static Optional<ExtractionProfile> fromId(String id) {
+        return Arrays.stream(values())
+                .filter(profile -> profile.id.equals(id.toLowerCase(Locale.ROOT)))
+                .findFirst();
+    }
+
+    public static String supportedIds() {
+        return Arrays.stream(values()).map(ExtractionProfile::id).collect(Collectors.joining(", "));
+    }
+
+    // Entry paths start with the Infer root dir, e.g. infer-linux-x86_64-v1.2.0/bin/infer
+    boolean includes(String entryPath) {
+        String normalizedPath = entryPath.replace('\\', '/');
+        int rootEnd = normalizedPath.indexOf('/');
+        String pathInRoot = rootEnd < 0 ? "" : normalizedPath.substring(rootEnd + 1) + "/";
+
+        return excludedPrefixes.stream().noneMatch(pathInRoot::startsWith);
+    }
+
+    boolean covers(ExtractionProfile other) {
+        return other.excludedPrefixes.containsAll(excludedPrefixes);
+    }
+}
@@ -0,0 +1,104 @@
+package core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.file.PathUtils;
+
+// A detached checkout of one commit next to the build's own working tree, removed again on close. Git is run as a
+// command so the plugin works with whatever git setup the build machine has. Its output is drained while it runs and
+// it is watched like Infer, so a checkout of a large repository may take as long as it keeps working, while a git
+// waiting on nothing, e.g. a lock or a prompt, is killed after the stall timeout.
+final class GitWorktree implements AutoCloseable {
+
+    private static final String GIT_COMMAND = "git";
+    private static final Duration OUTPUT_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Path repositoryRoot;
+    private final Path dir;
+    private final Duration stallTimeout;
+
+    private GitWorktree(Path repositoryRoot, Path dir, Duration stallTimeout) {
+        this.repositoryRoot = repositoryRoot;
+        this.dir = dir;
+        this.stallTimeout = stallTimeout;
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    static Path repositoryRoot(Path workingDir, Duration stallTimeout) throws IOException {
+        return Path.of(git(workingDir, stallTimeout, "rev-parse", "--show-toplevel"));
+    }
+
+    static String resolveCommit(Path workingDir, String revision, Duration stallTimeout) throws IOException {
+        return git(workingDir, stallTimeout, "rev-parse", "--verify", revision + "^{commit}");
+    }
+
+    static GitWorktree checkout(Path repositoryRoot, String commit, Path dir, Duration stallTimeout)
+            throws IOException {
+        // Left behind when an earlier build was killed mid analysis
+        if (Files.exists(dir)) {
+            PathUtils.deleteDirectory(dir);
+        }
+        git(repositoryRoot, stallTimeout, "worktree", "prune");
+        git(repositoryRoot, stallTimeout, "worktree", "add", "--detach", dir.toString(), commit);
+
+        return new GitWorktree(repositoryRoot, dir, stallTimeout);
+    }
+
+    @Override
+    public void close() throws IOException {
+        git(repositoryRoot, stallTimeout, "worktree", "remove", "--force", dir.toString());
+    }
+
+    static String git(Path workingDir, Duration stallTimeout, String... args) throws IOException {
+        List<String> gitCommand = new ArrayList<>();
+        gitCommand.add(GIT_COMMAND);
+        gitCommand.addAll(List.of(args));
+
+        var processBuilder = new ProcessBuilder(gitCommand);
+        processBuilder.directory(workingDir.toFile());
+        processBuilder.redirectErrorStream(true);
+
+        Process process = processBuilder.start();
+        List<String> outputLines = Collections.synchronizedList(new ArrayList<>());
+        var outputPump = ProcessOutputPump.start(process.getInputStream(), outputLines::add);
+        var watchdog = new ProcessWatchdog(process, outputPump, stallTimeout, Duration.ZERO);
+
+        try {
+            if (watchdog.await() == ProcessWatchdog.Outcome.STALLED) {
+                throw new IOException("git wrote no output and used no CPU for " + stallTimeout + " and was killed: "
+                        + String.join(" ", gitCommand));
+            }
+
+            outputPump.awaitEnd(OUTPUT_DRAIN_TIMEOUT);
+        } catch (InterruptedException e) {
+            watchdog.killProcessTree();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted running: " + String.join(" ", gitCommand));
+        }
+
+        if (outputPump.failure() != null) {
+            throw outputPump.failure();
+        }
+
+        String output;
+
+        synchronized (outputLines) {
+            output = String.join("\n", outputLines).strip();
+        }
+
+        if (process.exitValue() != 0) {
+            throw new IOException("Failed to run: " + String.join(" ", gitCommand) + ": " + output);
+        }
+
+        return output;
+    }
+}
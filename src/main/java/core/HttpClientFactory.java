@@ -9,8 +9,9 @@ import javax.inject.Singleton;
 @Singleton
 public class HttpClientFactory {
 
+    // Short connect timeout so an unreachable mirror fails over to the next Infer source quickly
     private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(60))
+            .connectTimeout(Duration.ofSeconds(10))
             .followRedirects(HttpClient.Redirect.NORMAL)
             .version(HttpClient.Version.HTTP_1_1)
             .build();
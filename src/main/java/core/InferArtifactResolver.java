@@ -0,0 +1,52 @@
+package core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.codehaus.plexus.logging.Logger;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+
+// Resolves Infer tarballs deployed as Maven artifacts. The local repo is checked first, so an offline build with the
+// tarball already in ~/.m2 never touches the network.
+@Named
+@Singleton
+public class InferArtifactResolver {
+
+    private static final String TARBALL_EXTENSION = "tar.xz";
+
+    private final Logger logger;
+
+    private final RepositorySystem repositorySystem;
+
+    @Inject
+    public InferArtifactResolver(Logger logger, RepositorySystem repositorySystem) {
+        this.logger = logger;
+        this.repositorySystem = repositorySystem;
+    }
+
+    Path resolve(InferSource.MavenArtifact source, String classifier, String version, InferSources inferSources)
+            throws IOException {
+        if (inferSources.repositorySession() == null) {
+            throw new IOException("No Maven repository session to resolve " + source + " with");
+        }
+
+        var artifact =
+                new DefaultArtifact(source.groupId(), source.artifactId(), classifier, TARBALL_EXTENSION, version);
+        logger.debug("Resolving Infer tarball artifact: " + artifact);
+
+        try {
+            ArtifactResult artifactResult = repositorySystem.resolveArtifact(
+                    inferSources.repositorySession(),
+                    new ArtifactRequest(artifact, inferSources.remoteRepositories(), null));
+            return artifactResult.getArtifact().getFile().toPath();
+        } catch (ArtifactResolutionException e) {
+            throw new IOException("Could not resolve Infer tarball artifact " + artifact + ": " + e.getMessage(), e);
+        }
+    }
+}
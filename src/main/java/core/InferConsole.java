@@ -0,0 +1,89 @@
+package core;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.codehaus.plexus.logging.Logger;
+
+// Decides which lines of Infer's output reach the Maven console. Every line is written to the console log through a
+// large buffer. Progress and per-file status lines are collapsed into one summary per interval, error lines are logged
+// as they come, and everything from Infer's closing issue summary on is passed through. Verbose mode passes every
+// non-blank line through as the plugin used to.
+final class InferConsole implements Consumer<String>, Closeable {
+
+    static final String CONSOLE_LOG_FILE_NAME = "plugin-console.log";
+
+    private static final int CONSOLE_LOG_BUFFER_SIZE = 1024 * 1024;
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(30);
+    private static final Pattern ISSUE_SUMMARY_START = Pattern.compile("^\\s*(Found \\d+ issues?|No issues found)\\b");
+    private static final Pattern ERROR_LINE =
+            Pattern.compile("(?i)^\\s*(error|fatal|uncaught exception|internal error)\\b|:\\s*error:");
+
+    private final Logger logger;
+    private final boolean verbose;
+    private final BufferedWriter consoleLog;
+
+    private long lastProgressNanos = System.nanoTime();
+    private long skippedProgressLines;
+    private boolean inIssueSummary;
+
+    InferConsole(Logger logger, boolean verbose, Path consoleLogFile) throws IOException {
+        this.logger = logger;
+        this.verbose = verbose;
+        this.consoleLog = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(consoleLogFile), StandardCharsets.UTF_8),
+                CONSOLE_LOG_BUFFER_SIZE);
+    }
+
+    @Override
+    public void accept(String line) {
+        try {
+            consoleLog.write(line);
+            consoleLog.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String strippedLine = line.stripTrailing();
+
+        if (strippedLine.isBlank()) {
+            return;
+        }
+
+        if (verbose) {
+            logger.info(strippedLine);
+        } else if (inIssueSummary || ISSUE_SUMMARY_START.matcher(strippedLine).find()) {
+            inIssueSummary = true;
+            logger.info(strippedLine);
+        } else if (ERROR_LINE.matcher(strippedLine).find()) {
+            logger.error(strippedLine);
+        } else {
+            summariseProgress(strippedLine);
+        }
+    }
+
+    private void summariseProgress(String progressLine) {
+        long nowNanos = System.nanoTime();
+        skippedProgressLines++;
+
+        if (nowNanos - lastProgressNanos >= PROGRESS_INTERVAL.toNanos()) {
+            logger.info("Infer is running (" + skippedProgressLines + " status lines since the last update): "
+                    + progressLine);
+            skippedProgressLines = 0;
+            lastProgressNanos = nowNanos;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        consoleLog.close();
+    }
+}
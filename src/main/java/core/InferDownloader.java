@@ -0,0 +1,317 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.logging.Logger;
+
+@Named
+@Singleton
+public class InferDownloader {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final int SEGMENT_BUFFER_SIZE = 64 * 1024;
+    private static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+    private static final String CONTENT_LENGTH_HEADER = "Content-Length";
+    private static final String CONTENT_RANGE_HEADER = "Content-Range";
+    private static final String RANGE_HEADER = "Range";
+    private static final String BYTES_RANGE_UNIT = "bytes";
+
+    private final Logger logger;
+
+    private final HttpClientFactory httpClientFactory;
+
+    @Inject
+    public InferDownloader(Logger logger, HttpClientFactory httpClientFactory) {
+        this.logger = logger;
+        this.httpClientFactory = httpClientFactory;
+    }
+
+    public void download(URI downloadUri, Path target, int segments, long minSegmentSize)
+            throws IOException, InterruptedException, MojoExecutionException {
+        if (segments > 1) {
+            RangeSupport rangeSupport = probeRangeSupport(downloadUri);
+            int effectiveSegments = rangeSupport.segmentsFor(segments, minSegmentSize);
+
+            if (effectiveSegments > 1
+                    && downloadSegmented(
+                            rangeSupport.resolvedUri(), target, rangeSupport.contentLength(), effectiveSegments)) {
+                return;
+            }
+        }
+
+        downloadSingleStream(downloadUri, target);
+    }
+
+    private RangeSupport probeRangeSupport(URI downloadUri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(downloadUri)
+                .timeout(REQUEST_TIMEOUT)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<Void> response =
+                httpClientFactory.getHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
+
+        if (response.statusCode() != HTTP_OK) {
+            logger.debug("Range probe for " + downloadUri + " returned HTTP status " + response.statusCode()
+                    + ". Using a single download stream.");
+            return RangeSupport.NONE;
+        }
+
+        boolean acceptsByteRanges = response.headers().allValues(ACCEPT_RANGES_HEADER).stream()
+                .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains(BYTES_RANGE_UNIT));
+        long contentLength =
+                response.headers().firstValueAsLong(CONTENT_LENGTH_HEADER).orElse(-1L);
+
+        if (!acceptsByteRanges || contentLength <= 0) {
+            logger.debug(
+                    "Server does not advertise byte ranges for " + downloadUri + ". Using a single download stream.");
+            return RangeSupport.NONE;
+        }
+
+        // Range requests go straight to the final location so each segment does not re-follow redirects
+        URI resolvedUri = response.uri() != null ? response.uri() : downloadUri;
+        return new RangeSupport(resolvedUri, contentLength);
+    }
+
+    private boolean downloadSegmented(URI downloadUri, Path target, long contentLength, int segments)
+            throws IOException, InterruptedException {
+        logger.debug("Downloading " + contentLength + " bytes from " + downloadUri + " in " + segments + " segments");
+
+        long segmentSize = Math.ceilDiv(contentLength, segments);
+
+        try (FileChannel channel = FileChannel.open(
+                        target,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Preallocate so every segment can write straight into its own slot of the file
+            channel.write(ByteBuffer.allocate(1), contentLength - 1);
+
+            // Awaited as they complete, so a failed segment is noticed while an earlier one is still streaming
+            CompletionService<Boolean> completedSegments = new ExecutorCompletionService<>(executor);
+            List<Future<Boolean>> segmentDownloads = new ArrayList<>();
+            SegmentBodies segmentBodies = new SegmentBodies();
+
+            for (long start = 0; start < contentLength; start += segmentSize) {
+                long segmentStart = start;
+                long segmentEnd = Math.min(start + segmentSize, contentLength) - 1;
+                segmentDownloads.add(completedSegments.submit(() -> downloadSegment(
+                        downloadUri, channel, new ByteRange(segmentStart, segmentEnd, contentLength), segmentBodies)));
+            }
+
+            for (int i = 0; i < segmentDownloads.size(); i++) {
+                if (!awaitSegment(completedSegments, segmentDownloads, segmentBodies)) {
+                    logger.warn(
+                            "Server ignored a range request for " + downloadUri + ". Retrying with a single stream.");
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean downloadSegment(URI downloadUri, FileChannel channel, ByteRange range, SegmentBodies segmentBodies)
+            throws IOException, InterruptedException {
+        long start = range.start();
+        long end = range.end();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(downloadUri)
+                .timeout(REQUEST_TIMEOUT)
+                .header(RANGE_HEADER, BYTES_RANGE_UNIT + "=" + start + "-" + end)
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response =
+                httpClientFactory.getHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        try (InputStream body = segmentBodies.open(response.body())) {
+            if (response.statusCode() != HTTP_PARTIAL_CONTENT) {
+                return false;
+            }
+
+            // A proxy or CDN may answer with other bytes than asked for, which would land at this segment's offset
+            String contentRange = response.headers()
+                    .firstValue(CONTENT_RANGE_HEADER)
+                    .map(String::strip)
+                    .orElse(null);
+
+            if (!range.contentRange().equalsIgnoreCase(contentRange)) {
+                throw new IOException("Segment " + start + "-" + end + " of " + downloadUri + " was answered with "
+                        + CONTENT_RANGE_HEADER + " " + contentRange + " instead of " + range.contentRange());
+            }
+
+            long expectedBytes = end - start + 1;
+            long position = start;
+            byte[] buffer = new byte[SEGMENT_BUFFER_SIZE];
+            int read;
+
+            while ((read = body.read(buffer)) != -1) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+            }
+
+            if (position - start != expectedBytes) {
+                throw new IOException("Segment " + start + "-" + end + " of " + downloadUri + " ended after "
+                        + (position - start) + " of " + expectedBytes + " bytes");
+            }
+        }
+
+        return true;
+    }
+
+    private boolean awaitSegment(
+            CompletionService<Boolean> completedSegments,
+            List<Future<Boolean>> allSegmentDownloads,
+            SegmentBodies segmentBodies)
+            throws IOException, InterruptedException {
+        try {
+            boolean ranged = completedSegments.take().get();
+
+            if (!ranged) {
+                // The server sent the whole file instead, as it would for every other segment still streaming
+                abortSegments(allSegmentDownloads, segmentBodies);
+            }
+
+            return ranged;
+        } catch (ExecutionException e) {
+            abortSegments(allSegmentDownloads, segmentBodies);
+
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof InterruptedException interruptedException) {
+                throw interruptedException;
+            }
+            throw new IOException("Segmented download failed", e.getCause());
+        } catch (InterruptedException e) {
+            abortSegments(allSegmentDownloads, segmentBodies);
+            throw e;
+        }
+    }
+
+    // Interrupting a segment ends a send still waiting for the response, and closing its body ends a read blocked on
+    // the network, so the executor does not wait for the other segments to stream to the end
+    private void abortSegments(List<Future<Boolean>> segmentDownloads, SegmentBodies segmentBodies) {
+        segmentDownloads.forEach(download -> download.cancel(true));
+        segmentBodies.closeAll(logger);
+    }
+
+    public InputStream openStream(URI downloadUri) throws IOException, InterruptedException, MojoExecutionException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(downloadUri)
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response =
+                httpClientFactory.getHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        if (response.statusCode() != HTTP_OK) {
+            // The error body is not read, and closing it frees the connection
+            response.body().close();
+            logger.error("Failed to download Infer from " + downloadUri + ". HTTP status " + response.statusCode());
+            throw new MojoExecutionException(
+                    "Failed to download Infer from " + downloadUri + ". HTTP status " + response.statusCode());
+        }
+
+        return response.body();
+    }
+
+    private void downloadSingleStream(URI downloadUri, Path target)
+            throws IOException, InterruptedException, MojoExecutionException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(downloadUri)
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+
+        HttpResponse<Path> response =
+                httpClientFactory.getHttpClient().send(request, HttpResponse.BodyHandlers.ofFile(target));
+
+        if (response.statusCode() != HTTP_OK) {
+            logger.error("Failed to download Infer from " + downloadUri + ". HTTP status " + response.statusCode());
+            throw new MojoExecutionException(
+                    "Failed to download Infer from " + downloadUri + ". HTTP status " + response.statusCode());
+        }
+    }
+
+    // The response bodies of the segments being streamed. One opened after the download was aborted is closed at once.
+    private static final class SegmentBodies {
+
+        private final Set<InputStream> openBodies = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+
+        private InputStream open(InputStream body) throws IOException {
+            openBodies.add(body);
+
+            if (closed) {
+                body.close();
+            }
+
+            return body;
+        }
+
+        private void closeAll(Logger logger) {
+            closed = true;
+
+            for (InputStream body : openBodies) {
+                try {
+                    body.close();
+                } catch (IOException e) {
+                    logger.debug("Could not close an aborted download segment: " + e);
+                }
+            }
+        }
+    }
+
+    private record ByteRange(long start, long end, long total) {
+
+        private String contentRange() {
+            return BYTES_RANGE_UNIT + " " + start + "-" + end + "/" + total;
+        }
+    }
+
+    private record RangeSupport(URI resolvedUri, long contentLength) {
+
+        private static final RangeSupport NONE = new RangeSupport(null, -1L);
+
+        private int segmentsFor(int requestedSegments, long minSegmentSize) {
+            if (contentLength <= 0) {
+                return 1;
+            }
+
+            long segmentsBySize = contentLength / Math.max(1L, minSegmentSize);
+            return (int) Math.max(1L, Math.min(requestedSegments, segmentsBySize));
+        }
+    }
+}
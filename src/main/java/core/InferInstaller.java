@@ -1,21 +1,48 @@
 package core;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.net.URI;
 import java.net.URL;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
-import java.time.Duration;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -23,6 +50,9 @@ import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.file.PathUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.logging.Logger;
@@ -31,86 +61,197 @@ import org.codehaus.plexus.logging.Logger;
 @Singleton
 public class InferInstaller {
 
-    private static final String GITHUB_RELEASES_BASE = "https://github.com/facebook/infer/releases/download/";
-    private static final String INFER_VERSION = "v1.2.0";
+    private static final Pattern INFER_VERSION_PATTERN = Pattern.compile("v\\d+(\\.\\d+)*");
     private static final String GENERIC_INFER_INSTALLATION_ERROR = "Error occurred when attempting to install Infer";
     private static final int POSIX_EXECUTE_PERMISSIONS = 73;
+    private static final int REUSE_COMPARE_CHUNK_SIZE = 64 * 1024;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
     private static final Set<PosixFilePermission> EXECUTE_PERMISSIONS = EnumSet.of(
             PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.OTHERS_EXECUTE);
-    private static final String INFER_LINUX_PATH = "infer-linux-x86_64-" + INFER_VERSION;
-    private static final String INFER_MACOS_PATH = "infer-osx-arm64-" + INFER_VERSION;
+    private static final String INFER_LINUX_PLATFORM = "linux-x86_64";
+    private static final String INFER_MACOS_PLATFORM = "osx-arm64";
+    private static final String TARBALL_DIGEST_ALGORITHM = "SHA-256";
+    private static final int STREAMING_CHUNK_SIZE = 1024 * 1024;
+    private static final int STREAMING_CHUNKS_AHEAD = 16;
+    private static final String INSTALL_LOCK_FILE_NAME = ".infer-install.lock";
+    private static final String STAGING_DIR_PREFIX = ".infer-staging-";
+    private static final String CACHED_TARBALL_FILE_NAME = ".infer-tarball.tar.xz";
+    private static final int MANIFEST_SAMPLE_SIZE = 32;
     private final String operatingSystem = System.getProperty("os.name").toLowerCase(Locale.ROOT);
 
     private final Logger logger;
 
-    private final HttpClientFactory httpClientFactory;
+    private final InferDownloader inferDownloader;
+
+    private final InstallCache installCache;
+
+    private final InferArtifactResolver inferArtifactResolver;
+
+    private final ConcurrentMap<Path, CompletableFuture<Path>> inFlightInstalls = new ConcurrentHashMap<>();
 
     @Inject
-    public InferInstaller(Logger logger, HttpClientFactory httpClientFactory) {
+    public InferInstaller(
+            Logger logger,
+            InferDownloader inferDownloader,
+            InstallCache installCache,
+            InferArtifactResolver inferArtifactResolver) {
         this.logger = logger;
-        this.httpClientFactory = httpClientFactory;
+        this.inferDownloader = inferDownloader;
+        this.installCache = installCache;
+        this.inferArtifactResolver = inferArtifactResolver;
     }
 
-    public Path tryInstallInfer(Path installDir) throws MojoExecutionException, MojoFailureException {
-        Path inferExe = determineInferExe(installDir);
+    public Path tryInstallInfer(InstallParams installParams) throws MojoExecutionException, MojoFailureException {
+        Path installDir = installParams.installDir();
+        Path inferExe = determineInferExe(installDir, installParams.inferVersion());
 
-        if (Files.exists(inferExe)) {
+        if (Files.exists(inferExe)
+                && !installParams.verifyInstallation()
+                && isWarmInstallationUsable(installParams, inferExe)
+                && markInUseOutsideLock(installDir, inferExe)) {
             logger.info("Infer executable already exists in: " + inferExe + ". Using this for Infer analysis.");
             return inferExe;
         }
 
+        // Modules built in parallel share this singleton, so only the first caller per install does the work
+        Path installKey = inferExe.toAbsolutePath().normalize();
+        CompletableFuture<Path> install = new CompletableFuture<>();
+        CompletableFuture<Path> inFlightInstall = inFlightInstalls.putIfAbsent(installKey, install);
+
+        if (inFlightInstall != null) {
+            logger.info("Waiting for the Infer installation already in progress in: " + installDir);
+            return awaitInFlightInstall(inFlightInstall);
+        }
+
+        try {
+            Path installedInferExe = installInferUnderLock(installParams, inferExe);
+            install.complete(installedInferExe);
+            return installedInferExe;
+        } catch (MojoExecutionException | MojoFailureException | RuntimeException e) {
+            install.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightInstalls.remove(installKey, install);
+        }
+    }
+
+    private Path awaitInFlightInstall(CompletableFuture<Path> inFlightInstall)
+            throws MojoExecutionException, MojoFailureException {
+        try {
+            return inFlightInstall.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for the Infer installation in progress.", e);
+            throw new MojoExecutionException(GENERIC_INFER_INSTALLATION_ERROR, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MojoFailureException mojoFailureException) {
+                throw new MojoFailureException(
+                        "Failure occurred when attempting to install Infer", mojoFailureException);
+            }
+
+            throw new MojoExecutionException(GENERIC_INFER_INSTALLATION_ERROR, e.getCause());
+        }
+    }
+
+    private Path installInferUnderLock(InstallParams installParams, Path inferExe)
+            throws MojoExecutionException, MojoFailureException {
+        Path installDir = installParams.installDir();
         Path inferDownloadTmpDir = null;
+        Path stagingDir = null;
 
         try {
-            logger.info("Attempting to download Infer");
+            Files.createDirectories(installDir);
+
+            // Other Maven JVMs on the same machine may be installing into this dir too. Closing the channel releases
+            // the lock.
+            try (var lockChannel = FileChannel.open(
+                    installDir.resolve(INSTALL_LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                lockInstallDir(lockChannel, installDir);
+                if (Files.exists(inferExe)
+                        && (installParams.verifyInstallation()
+                                ? verifyAndRepairInstallation(installDir, inferExe)
+                                : isExistingInstallationUsable(installDir, inferExe))
+                        && extractEntriesMissingFromProfile(installParams, inferExe)) {
+                    logger.info("Infer executable already exists in: " + inferExe + ". Using this for Infer analysis.");
+                    markInUseAndEvict(installParams, inferExe);
+                    return inferExe;
+                }
 
-            String installPath = isLinuxOs() ? INFER_LINUX_PATH : INFER_MACOS_PATH;
-            URI inferDownloadUri = URI.create(GITHUB_RELEASES_BASE + INFER_VERSION + "/" + installPath + ".tar.xz");
-            URL inferDownloadUrl = inferDownloadUri.toURL();
+                removeStaleStagingDirs(installDir);
 
-            Path inferTarballFileName = Path.of(inferDownloadUrl.getPath()).getFileName();
-            inferDownloadTmpDir = Files.createTempDirectory("infer-download-");
-            Path inferTarballTmpDirFilePath = inferDownloadTmpDir.resolve(inferTarballFileName);
+                logger.info("Attempting to download Infer");
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(inferDownloadUri)
-                    .timeout(Duration.ofSeconds(60))
-                    .GET()
-                    .build();
+                ExtractionProfile extractionProfile = installParams.extractionProfile();
+                List<InstallManifest.Entry> extractedEntries = new ArrayList<>();
 
-            logger.debug("Downloading Infer from: " + request.uri());
+                if (!installParams.streamingInstall()) {
+                    inferDownloadTmpDir = Files.createTempDirectory("infer-download-");
+                }
 
-            HttpResponse<Path> response = httpClientFactory
-                    .getHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofFile(inferTarballTmpDirFilePath));
+                stagingDir = Files.createTempDirectory(installDir, STAGING_DIR_PREFIX);
 
-            if (response.statusCode() != 200) {
-                logger.error(
-                        "Failed to download Infer from " + inferDownloadUri + ". HTTP status " + response.statusCode());
-                throw new MojoExecutionException(
-                        "Failed to download Infer from " + inferDownloadUri + ". HTTP status " + response.statusCode());
-            }
+                Path inferRootName = inferRoot(installDir, inferExe).getFileName();
+                PreviousInstall previousInstall = findPreviousInstall(installDir, inferRootName);
 
-            logger.debug("Successfully downloaded to tmp dir: " + inferTarballTmpDirFilePath);
+                FetchedTarball fetchedTarball = extractFromSources(
+                        installParams,
+                        inferDownloadTmpDir,
+                        new Extraction(stagingDir, extractionProfile::includes, extractedEntries, previousInstall));
+                String tarballDigest = fetchedTarball.digest();
 
-            Files.createDirectories(installDir);
+                logger.debug("SHA-256 of the Infer tarball: " + tarballDigest);
+
+                if (previousInstall != null && previousInstall.reusedFiles > 0) {
+                    logger.info("Linked " + previousInstall.reusedFiles + " unchanged files ("
+                            + previousInstall.reusedBytes / BYTES_PER_MEGABYTE + " MB) from the Infer installation in: "
+                            + previousInstall.root);
+                }
 
-            untarInferTarball(inferTarballTmpDirFilePath, installDir);
+                if (!Files.exists(stagingDir.resolve(installDir.relativize(inferExe)))) {
+                    logger.error(
+                            "An error occurred when extracting the Infer tarball. The Infer executable was not found in: "
+                                    + inferExe);
+                    throw new MojoExecutionException(
+                            "Error occurred when extracting Infer tarball. Infer executable not found.");
+                }
 
-            if (!Files.exists(inferExe)) {
-                logger.error(
-                        "An error occurred when extracting the Infer tarball. The Infer executable was not found in: "
-                                + inferExe);
-                throw new MojoExecutionException(
-                        "Error occurred when extracting Infer tarball. Infer executable not found.");
+                Path stagedInferRoot = stagingDir.resolve(inferRootName);
+                new InstallManifest(
+                                tarballDigest,
+                                extractionProfile,
+                                extractedEntries.stream()
+                                        .filter(entry -> Path.of(entry.path()).startsWith(inferRootName))
+                                        .toList())
+                        .write(stagedInferRoot.resolve(InstallManifest.FILE_NAME));
+
+                // Deep verification repairs damaged files from this copy instead of downloading Infer again
+                if (installParams.verifyInstallation() && fetchedTarball.tarball() != null) {
+                    if (inferDownloadTmpDir != null && fetchedTarball.tarball().startsWith(inferDownloadTmpDir)) {
+                        Files.move(fetchedTarball.tarball(), stagedInferRoot.resolve(CACHED_TARBALL_FILE_NAME));
+                    } else {
+                        Files.copy(fetchedTarball.tarball(), stagedInferRoot.resolve(CACHED_TARBALL_FILE_NAME));
+                    }
+                }
+
+                promoteStagedInstall(stagingDir, installDir, inferRootName);
+                removeStagingDir(stagingDir);
+                stagingDir = null;
+
+                markInUseAndEvict(installParams, inferExe);
             }
 
             logger.info("Resolved Infer executable after successfully downloading and extracting: " + inferExe);
 
-            cleanupInferTarballTmpDir(inferDownloadTmpDir);
+            if (inferDownloadTmpDir != null) {
+                cleanupInferTarballTmpDir(inferDownloadTmpDir);
+            }
 
             return inferExe;
         } catch (IOException | InterruptedException | MojoFailureException | MojoExecutionException e) {
+            if (stagingDir != null) {
+                removeStagingDir(stagingDir);
+            }
+
             if (inferDownloadTmpDir != null) {
                 cleanupInferTarballTmpDir(
                         inferDownloadTmpDir); // ensure resources are cleaned up even if exception is thrown
@@ -134,15 +275,434 @@ public class InferInstaller {
         }
     }
 
-    private Path determineInferExe(Path installDir) throws MojoExecutionException {
-        if (isLinuxOs()) {
-            return installDir.resolve(INFER_LINUX_PATH).resolve("bin").resolve("infer");
-        } else if (isMacOs()) {
-            return installDir.resolve(INFER_MACOS_PATH).resolve("bin").resolve("infer");
+    private URI inferDownloadUri(InferSource.HttpMirror httpMirror, String inferVersion) {
+        return httpMirror.baseUri().resolve(inferVersion + "/" + inferRootName(inferVersion) + ".tar.xz");
+    }
+
+    private List<InferSource> usableSources(InstallParams installParams) throws MojoExecutionException {
+        InferSources inferSources = installParams.inferSources();
+
+        if (!inferSources.offline()) {
+            return inferSources.sources();
+        }
+
+        // Maven offline mode rules out the mirrors, local files and the local Maven repo still work
+        List<InferSource> offlineSources = inferSources.sources().stream()
+                .filter(source -> !(source instanceof InferSource.HttpMirror))
+                .toList();
+
+        if (offlineSources.isEmpty()) {
+            logger.error(
+                    "Maven is offline and every configured Infer source needs the network: " + inferSources.sources());
+            throw new MojoExecutionException(
+                    "No Infer source available offline. Configure a file:// or mvn: source in inferSources.");
+        }
+
+        return offlineSources;
+    }
+
+    private FetchedTarball extractFromSources(
+            InstallParams installParams, Path inferDownloadTmpDir, Extraction extraction)
+            throws IOException, InterruptedException, MojoExecutionException, MojoFailureException {
+        List<InferSource> sources = usableSources(installParams);
+
+        for (int i = 0; ; i++) {
+            InferSource source = sources.get(i);
+
+            try {
+                if (installParams.streamingInstall() && source instanceof InferSource.HttpMirror httpMirror) {
+                    String tarballDigest =
+                            streamInferTarball(inferDownloadUri(httpMirror, installParams.inferVersion()), extraction);
+                    return new FetchedTarball(tarballDigest, null);
+                }
+
+                Path inferTarball = fetchInferTarball(source, installParams, inferDownloadTmpDir);
+                String tarballDigest =
+                        untarInferTarball(inferTarball, installParams.xzDecompressionThreads(), extraction);
+                return new FetchedTarball(tarballDigest, inferTarball);
+            } catch (IOException | MojoExecutionException e) {
+                if (i == sources.size() - 1) {
+                    throw e;
+                }
+
+                logger.warn(
+                        "Could not install Infer from " + source + ". Trying the next source: " + sources.get(i + 1),
+                        e);
+
+                // The next source starts over in an empty staging dir
+                PathUtils.cleanDirectory(extraction.dir());
+                extraction.extractedEntries().clear();
+
+                if (extraction.previousInstall() != null) {
+                    extraction.previousInstall().reusedFiles = 0;
+                    extraction.previousInstall().reusedBytes = 0;
+                }
+            }
+        }
+    }
+
+    private Path fetchInferTarball(InstallParams installParams, Path inferDownloadTmpDir)
+            throws IOException, InterruptedException, MojoExecutionException {
+        List<InferSource> sources = usableSources(installParams);
+
+        for (int i = 0; ; i++) {
+            try {
+                return fetchInferTarball(sources.get(i), installParams, inferDownloadTmpDir);
+            } catch (IOException | MojoExecutionException e) {
+                if (i == sources.size() - 1) {
+                    throw e;
+                }
+
+                logger.warn(
+                        "Could not fetch Infer from " + sources.get(i) + ". Trying the next source: "
+                                + sources.get(i + 1),
+                        e);
+            }
+        }
+    }
+
+    private Path fetchInferTarball(InferSource source, InstallParams installParams, Path inferDownloadTmpDir)
+            throws IOException, InterruptedException, MojoExecutionException {
+        String inferVersion = installParams.inferVersion();
+
+        Path inferTarball =
+                switch (source) {
+                    case InferSource.LocalFile localFile -> {
+                        Path tarball = Files.isDirectory(localFile.path())
+                                ? localFile.path().resolve(inferRootName(inferVersion) + ".tar.xz")
+                                : localFile.path();
+
+                        if (!Files.isRegularFile(tarball)) {
+                            throw new IOException("No Infer tarball found at: " + tarball);
+                        }
+
+                        yield tarball;
+                    }
+                    case InferSource.MavenArtifact mavenArtifact ->
+                        // Maven versions drop the v prefix of the release tag
+                        inferArtifactResolver.resolve(
+                                mavenArtifact,
+                                inferPlatform(),
+                                inferVersion.substring(1),
+                                installParams.inferSources());
+                    case InferSource.HttpMirror httpMirror ->
+                        downloadInferTarball(
+                                inferDownloadUri(httpMirror, inferVersion), inferDownloadTmpDir, installParams);
+                };
+
+        if (!(source instanceof InferSource.HttpMirror)) {
+            logger.info("Using the Infer tarball from: " + inferTarball);
+        }
+
+        return inferTarball;
+    }
+
+    // Pairs with every tryInstallInfer that returned, once the goal no longer runs the executable it returned
+    public void releaseInfer(InstallParams installParams, Path inferExe) {
+        Path installDir = installParams.installDir();
+
+        try {
+            installCache.releaseInUse(inferRoot(installDir, inferExe));
+        } catch (IOException e) {
+            // The lock goes with the channel when the JVM exits at the latest
+            logger.debug("Could not release the Infer installation in use: " + e);
+        }
+    }
+
+    private boolean markInUseOutsideLock(Path installDir, Path inferExe) {
+        try {
+            return installCache.markInUse(inferRoot(installDir, inferExe), inferExe);
+        } catch (IOException e) {
+            // Retried under the install lock, where a failure is reported
+            logger.debug("Could not mark the Infer installation as in use: " + e);
+            return false;
+        }
+    }
+
+    private void markInUseAndEvict(InstallParams installParams, Path inferExe) throws IOException {
+        Path installDir = installParams.installDir();
+        Path inferRoot = inferRoot(installDir, inferExe);
+
+        if (!installCache.markInUse(inferRoot, inferExe)) {
+            throw new IOException("Infer installation was removed while in use: " + inferRoot);
+        }
+
+        if (installParams.installCacheMaxSizeMb() <= 0) {
+            return;
+        }
+
+        try {
+            installCache.evictLeastRecentlyUsed(installDir, inferRoot, installParams.installCacheMaxSizeMb());
+        } catch (IOException e) {
+            // The budget is best effort and is enforced again on the next install
+            logger.warn("Could not evict old Infer installations from: " + installDir, e);
+        }
+    }
+
+    private Path downloadInferTarball(URI inferDownloadUri, Path inferDownloadTmpDir, InstallParams installParams)
+            throws IOException, InterruptedException, MojoExecutionException {
+        logger.debug("Downloading Infer from: " + inferDownloadUri);
+
+        URL inferDownloadUrl = inferDownloadUri.toURL();
+
+        Path inferTarballFileName = Path.of(inferDownloadUrl.getPath()).getFileName();
+        Path inferTarballTmpDirFilePath = inferDownloadTmpDir.resolve(inferTarballFileName);
+
+        inferDownloader.download(
+                inferDownloadUri,
+                inferTarballTmpDirFilePath,
+                installParams.downloadSegments(),
+                installParams.minSegmentSize());
+
+        logger.debug("Successfully downloaded to tmp dir: " + inferTarballTmpDirFilePath);
+
+        return inferTarballTmpDirFilePath;
+    }
+
+    // The manifest is parsed once for both the profile and the intactness check
+    private boolean isWarmInstallationUsable(InstallParams installParams, Path inferExe) {
+        Path installDir = installParams.installDir();
+        InstallManifest manifest;
+
+        try {
+            manifest = readInstallManifest(installDir, inferExe);
+        } catch (IOException e) {
+            // Checked again under the install lock, which reports it and reinstalls Infer
+            return false;
+        }
+
+        return installedProfile(manifest).covers(installParams.extractionProfile())
+                && isExistingInstallationUsable(installDir, inferExe, manifest);
+    }
+
+    // Null when the install predates manifests
+    private InstallManifest readInstallManifest(Path installDir, Path inferExe) throws IOException {
+        Path manifestFile = inferRoot(installDir, inferExe).resolve(InstallManifest.FILE_NAME);
+        return Files.exists(manifestFile) ? InstallManifest.read(manifestFile) : null;
+    }
+
+    private ExtractionProfile installedProfile(InstallManifest manifest) {
+        // Installs without a manifest predate extraction profiles, so they hold every entry
+        return manifest != null ? manifest.profile() : ExtractionProfile.FULL;
+    }
+
+    private boolean extractEntriesMissingFromProfile(InstallParams installParams, Path inferExe)
+            throws IOException, InterruptedException, MojoExecutionException, MojoFailureException {
+        Path installDir = installParams.installDir();
+        ExtractionProfile requestedProfile = installParams.extractionProfile();
+        Path inferRoot = inferRoot(installDir, inferExe);
+        Path manifestFile = inferRoot.resolve(InstallManifest.FILE_NAME);
+
+        if (!Files.exists(manifestFile)) {
+            return true;
+        }
+
+        InstallManifest manifest = InstallManifest.read(manifestFile);
+        ExtractionProfile installedProfile = manifest.profile();
+
+        if (installedProfile.covers(requestedProfile)) {
+            return true;
+        }
+
+        logger.info("Infer installation in " + inferRoot + " was extracted with the " + installedProfile.id()
+                + " profile. Extracting the entries the " + requestedProfile.id() + " profile also needs.");
+
+        Path cachedTarball = inferRoot.resolve(CACHED_TARBALL_FILE_NAME);
+        Path inferDownloadTmpDir = null;
+
+        try {
+            Path inferTarball;
+
+            if (Files.exists(cachedTarball)) {
+                inferTarball = cachedTarball;
+            } else {
+                inferDownloadTmpDir = Files.createTempDirectory("infer-download-");
+                inferTarball = fetchInferTarball(installParams, inferDownloadTmpDir);
+            }
+
+            if (!manifest.tarballDigest().equals(sha256Of(inferTarball))) {
+                logger.warn("Infer tarball " + inferTarball + " does not match the one installed in " + inferRoot
+                        + ". Reinstalling Infer.");
+                return false;
+            }
+
+            List<InstallManifest.Entry> extractedEntries = new ArrayList<>(manifest.entries());
+            Predicate<String> entriesMissingFromProfile =
+                    entryPath -> requestedProfile.includes(entryPath) && !installedProfile.includes(entryPath);
+
+            untarInferTarball(
+                    inferTarball,
+                    installParams.xzDecompressionThreads(),
+                    new Extraction(installDir, entriesMissingFromProfile, extractedEntries, null));
+
+            // Rewritten last, so an interrupted extraction is picked up again by the next build
+            new InstallManifest(
+                            manifest.tarballDigest(),
+                            requestedProfile,
+                            extractedEntries.stream()
+                                    .filter(entry -> Path.of(entry.path()).startsWith(inferRoot.getFileName()))
+                                    .toList())
+                    .write(manifestFile);
+
+            return true;
+        } finally {
+            if (inferDownloadTmpDir != null) {
+                cleanupInferTarballTmpDir(inferDownloadTmpDir);
+            }
+        }
+    }
+
+    private boolean isExistingInstallationUsable(Path installDir, Path inferExe) {
+        try {
+            return isExistingInstallationUsable(installDir, inferExe, readInstallManifest(installDir, inferExe));
+        } catch (IOException e) {
+            Path manifestFile = inferRoot(installDir, inferExe).resolve(InstallManifest.FILE_NAME);
+            logger.warn("Could not read the Infer install manifest: " + manifestFile + ". Reinstalling Infer.", e);
+            return false;
+        }
+    }
+
+    private boolean isExistingInstallationUsable(Path installDir, Path inferExe, InstallManifest manifest) {
+        Path inferRoot = inferRoot(installDir, inferExe);
+
+        if (manifest == null) {
+            // Installed before manifests were written, so the executable is all there is to go on
+            logger.debug("No install manifest found in: " + inferRoot + ". Trusting the existing Infer executable.");
+            return true;
+        }
+
+        for (InstallManifest.Entry entry : manifest.sample(MANIFEST_SAMPLE_SIZE)) {
+            if (!entry.looksIntact(installDir)) {
+                logger.warn("Infer installation in " + inferRoot + " is damaged, " + entry.path()
+                        + " is missing or changed. Reinstalling Infer.");
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean verifyAndRepairInstallation(Path installDir, Path inferExe)
+            throws MojoExecutionException, MojoFailureException, InterruptedException {
+        Path inferRoot = inferRoot(installDir, inferExe);
+        Path manifestFile = inferRoot.resolve(InstallManifest.FILE_NAME);
+
+        if (!Files.exists(manifestFile)) {
+            logger.warn("No install manifest found in: " + inferRoot + ". Reinstalling Infer to verify it.");
+            return false;
+        }
+
+        try {
+            InstallManifest manifest = InstallManifest.read(manifestFile);
+            int verifierThreads = Runtime.getRuntime().availableProcessors();
+
+            logger.debug("Verifying " + manifest.entries().size() + " Infer files on " + verifierThreads + " threads");
+
+            List<InstallManifest.Entry> damagedEntries = manifest.findDamagedEntries(installDir, verifierThreads);
+
+            if (damagedEntries.isEmpty()) {
+                logger.debug("Verified Infer installation in: " + inferRoot);
+                return true;
+            }
+
+            logger.warn("Found " + damagedEntries.size() + " missing or corrupt files in the Infer installation in: "
+                    + inferRoot);
+
+            Path cachedTarball = inferRoot.resolve(CACHED_TARBALL_FILE_NAME);
+
+            if (!Files.exists(cachedTarball) || !manifest.tarballDigest().equals(sha256Of(cachedTarball))) {
+                logger.warn("No cached Infer tarball matching the install manifest in: " + inferRoot
+                        + ". Reinstalling Infer.");
+                return false;
+            }
+
+            Set<String> damagedPaths =
+                    damagedEntries.stream().map(InstallManifest.Entry::path).collect(Collectors.toSet());
+
+            logger.info(
+                    "Re-extracting " + damagedPaths.size() + " Infer files from the cached tarball: " + cachedTarball);
+
+            try (var fileInputStream = new FileInputStream(cachedTarball.toFile());
+                    var bufferedInputStream = new BufferedInputStream(fileInputStream);
+                    var xzCompressorInputStream = new XZCompressorInputStream(bufferedInputStream)) {
+                extractTarball(
+                        xzCompressorInputStream,
+                        cachedTarball.toString(),
+                        new Extraction(installDir, damagedPaths::contains, new ArrayList<>(), null));
+            }
+
+            return damagedEntries.stream().allMatch(entry -> entry.contentMatches(installDir));
+        } catch (IOException e) {
+            logger.warn("Could not verify the Infer installation in: " + inferRoot + ". Reinstalling Infer.", e);
+            return false;
+        }
+    }
+
+    private void lockInstallDir(FileChannel lockChannel, Path installDir) throws IOException {
+        if (lockChannel.tryLock() == null) {
+            logger.info("Waiting for another build to finish installing Infer in: " + installDir);
+            lockChannel.lock();
         }
+    }
 
-        logger.error("The Operating System you are using for running Infer is unsupported: " + operatingSystem);
-        throw new MojoExecutionException("Unsupported Operating System: " + operatingSystem);
+    private void removeStaleStagingDirs(Path installDir) throws IOException {
+        // Only a build that died mid-install leaves these behind, since the install lock is held while staging
+        try (DirectoryStream<Path> staleStagingDirs = Files.newDirectoryStream(installDir, STAGING_DIR_PREFIX + "*")) {
+            for (Path staleStagingDir : staleStagingDirs) {
+                logger.debug("Removing staging dir left behind by an interrupted Infer install: " + staleStagingDir);
+                removeStagingDir(staleStagingDir);
+            }
+        }
+    }
+
+    private void promoteStagedInstall(Path stagingDir, Path installDir, Path inferRoot) throws IOException {
+        Path installedRoot = installDir.resolve(inferRoot);
+
+        // A root without the executable is a leftover from an incomplete install, so swap it out with the new one
+        if (Files.exists(installedRoot, LinkOption.NOFOLLOW_LINKS)) {
+            logger.warn("Replacing incomplete Infer installation in: " + installedRoot);
+            Files.move(installedRoot, stagingDir.resolve(inferRoot + ".incomplete"), StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        Files.move(stagingDir.resolve(inferRoot), installedRoot, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Moved staged Infer installation into place: " + installedRoot);
+    }
+
+    private void removeStagingDir(Path stagingDir) {
+        try {
+            PathUtils.deleteDirectory(stagingDir);
+        } catch (IOException e) {
+            // Left for the next install to remove
+            logger.debug("Could not remove Infer staging dir " + stagingDir + ": " + e);
+        }
+    }
+
+    private Path determineInferExe(Path installDir, String inferVersion) throws MojoExecutionException {
+        if (!isLinuxOs() && !isMacOs()) {
+            logger.error("The Operating System you are using for running Infer is unsupported: " + operatingSystem);
+            throw new MojoExecutionException("Unsupported Operating System: " + operatingSystem);
+        }
+
+        // The version ends up in the download URL and the install path
+        if (!INFER_VERSION_PATTERN.matcher(inferVersion).matches()) {
+            logger.error("The Infer version is not a release tag such as v1.2.0: " + inferVersion);
+            throw new MojoExecutionException("Invalid Infer version: " + inferVersion);
+        }
+
+        return installDir.resolve(inferRootName(inferVersion)).resolve("bin").resolve("infer");
+    }
+
+    // The dir of the install that inferExe belongs to, directly under the install dir
+    private static Path inferRoot(Path installDir, Path inferExe) {
+        return installDir.resolve(installDir.relativize(inferExe).getName(0));
+    }
+
+    private String inferRootName(String inferVersion) {
+        return "infer-" + inferPlatform() + "-" + inferVersion;
+    }
+
+    private String inferPlatform() {
+        return isLinuxOs() ? INFER_LINUX_PLATFORM : INFER_MACOS_PLATFORM;
     }
 
     private boolean isLinuxOs() {
@@ -153,15 +713,107 @@ public class InferInstaller {
         return operatingSystem.contains("mac");
     }
 
-    private void untarInferTarball(Path inferTarballTmpDirFilePath, Path userHomeDownloadsPath)
+    private String streamInferTarball(URI inferDownloadUri, Extraction extraction)
+            throws IOException, InterruptedException, MojoExecutionException, MojoFailureException {
+        logger.debug("Streaming Infer tarball without a temporary download: " + inferDownloadUri);
+
+        // Network reads run ahead on their own thread while this thread decompresses and writes the entries
+        try (var responseBody = inferDownloader.openStream(inferDownloadUri);
+                var readAheadInputStream =
+                        new ReadAheadInputStream(responseBody, STREAMING_CHUNK_SIZE, STREAMING_CHUNKS_AHEAD)) {
+            return untarInferTarball(readAheadInputStream, inferDownloadUri.toString(), extraction);
+        }
+    }
+
+    private String untarInferTarball(Path inferTarballTmpDirFilePath, int xzThreads, Extraction extraction)
             throws MojoExecutionException, MojoFailureException, IOException {
-        logger.debug("Extracting " + inferTarballTmpDirFilePath + " to " + userHomeDownloadsPath);
+        int decoderThreads = xzThreads > 0 ? xzThreads : Runtime.getRuntime().availableProcessors();
+        int xzBlockCount = parallelXzBlocks(inferTarballTmpDirFilePath);
+
+        // Both paths report their decompression errors themselves
+        if (decoderThreads > 1 && xzBlockCount > 1) {
+            return untarInferTarballInParallel(inferTarballTmpDirFilePath, decoderThreads, xzBlockCount, extraction);
+        }
+
+        try (var fileInputStream = new FileInputStream(inferTarballTmpDirFilePath.toFile())) {
+            return untarInferTarball(fileInputStream, inferTarballTmpDirFilePath.toString(), extraction);
+        }
+    }
+
+    // One when the tarball is decoded sequentially, as a single block gains nothing from the pool and blocks too large
+    // to hold in memory are better streamed
+    private int parallelXzBlocks(Path inferTarballTmpDirFilePath) {
+        try {
+            ParallelXZInputStream.BlockIndex blockIndex = ParallelXZInputStream.readIndex(inferTarballTmpDirFilePath);
+
+            if (blockIndex.largestBlockSize() > ParallelXZInputStream.MAX_BLOCK_SIZE) {
+                logger.debug("XZ blocks of up to " + blockIndex.largestBlockSize() + " bytes are too large to decode"
+                        + " in parallel. Decompressing sequentially.");
+                return 1;
+            }
+
+            return blockIndex.blockCount();
+        } catch (IOException e) {
+            // Let the sequential path report the broken archive with its usual errors
+            logger.debug("Could not read the XZ block index of " + inferTarballTmpDirFilePath + ": " + e);
+            return 1;
+        }
+    }
+
+    private String untarInferTarballInParallel(
+            Path inferTarballTmpDirFilePath, int decoderThreads, int xzBlockCount, Extraction extraction)
+            throws MojoExecutionException, MojoFailureException, IOException {
+        logger.debug("Decompressing " + xzBlockCount + " XZ blocks on " + decoderThreads + " threads");
+
+        try (ExecutorService digestExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Blocks are not read in file order here, so hash the tarball alongside the extraction instead
+            Future<String> tarballDigest = digestExecutor.submit(() -> sha256Of(inferTarballTmpDirFilePath));
+
+            try (var parallelXZInputStream = new ParallelXZInputStream(inferTarballTmpDirFilePath, decoderThreads)) {
+                extractTarball(parallelXZInputStream, inferTarballTmpDirFilePath.toString(), extraction);
+            }
+
+            return tarballDigest.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing the Infer tarball");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to hash the Infer tarball", e.getCause());
+        } catch (IOException e) {
+            logger.error("An error occurred when untarring the Infer tarball.", e);
+            throw new MojoExecutionException("Error occurred when untarring Infer tarball", e);
+        }
+    }
+
+    private String untarInferTarball(InputStream compressedTarball, String tarballSource, Extraction extraction)
+            throws MojoExecutionException, MojoFailureException {
+        // Hash the compressed bytes as they are read so the digest costs no extra pass over the tarball
+        MessageDigest tarballDigest = newSha256Digest();
+
+        try (var digestInputStream = new DigestInputStream(compressedTarball, tarballDigest);
+                var bufferedInputStream = new BufferedInputStream(digestInputStream);
+                var xzCompressorInputStream = new XZCompressorInputStream(bufferedInputStream)) {
+            extractTarball(xzCompressorInputStream, tarballSource, extraction);
+
+            // The tar end-of-archive marker can precede the end of the compressed stream, so hash the rest too
+            digestInputStream.transferTo(OutputStream.nullOutputStream());
 
-        try (var fileInputStream = new FileInputStream(inferTarballTmpDirFilePath.toFile());
-                var bufferedInputStream = new BufferedInputStream(fileInputStream);
-                var xzCompressorInputStream = new XZCompressorInputStream(bufferedInputStream);
-                var tarArchiveInputStream = new TarArchiveInputStream(xzCompressorInputStream)) {
+            return HexFormat.of().formatHex(tarballDigest.digest());
+        } catch (IOException e) {
+            logger.error("An error occurred when untarring the Infer tarball.", e);
+            throw new MojoExecutionException("Error occurred when untarring Infer tarball", e);
+        }
+    }
 
+    private void extractTarball(InputStream decompressedTarball, String tarballSource, Extraction extraction)
+            throws MojoExecutionException, MojoFailureException {
+        Path userHomeDownloadsPath = extraction.dir();
+        logger.debug("Extracting " + tarballSource + " to " + userHomeDownloadsPath);
+
+        // Not closed here, the caller owns the decompressed stream and may still need to drain it
+        var tarArchiveInputStream = new TarArchiveInputStream(decompressedTarball);
+
+        try {
             TarArchiveEntry tarArchiveEntry;
 
             while ((tarArchiveEntry = tarArchiveInputStream.getNextEntry()) != null) {
@@ -175,6 +827,12 @@ public class InferInstaller {
                                     + tarArchiveEntry.getName());
                 }
 
+                // Skipped entries are never written, the tar stream passes over their bytes on the next read
+                String entryPath = userHomeDownloadsPath.relativize(target).toString();
+                if (!extraction.includeEntry().test(entryPath)) {
+                    continue;
+                }
+
                 if (tarArchiveEntry.isDirectory()) {
                     Files.createDirectories(target);
                     continue;
@@ -185,10 +843,25 @@ public class InferInstaller {
 
                 if (tarArchiveEntry.isSymbolicLink()) {
                     handleSymlink(tarArchiveEntry, target);
+                    extraction
+                            .extractedEntries()
+                            .add(InstallManifest.Entry.symlink(entryPath, tarArchiveEntry.getLinkName()));
                 } else if (tarArchiveEntry.isLink()) {
-                    handleHardLink(userHomeDownloadsPath, tarArchiveEntry, target);
+                    if (handleHardLink(userHomeDownloadsPath, tarArchiveEntry, target)) {
+                        extraction
+                                .extractedEntries()
+                                .add(InstallManifest.Entry.file(
+                                        entryPath, Files.size(target), InstallManifest.crc32Of(target)));
+                    }
                 } else {
-                    handleRegularFile(tarArchiveInputStream, target, tarArchiveEntry);
+                    extraction
+                            .extractedEntries()
+                            .add(handleRegularFile(
+                                    tarArchiveInputStream,
+                                    target,
+                                    tarArchiveEntry,
+                                    entryPath,
+                                    extraction.previousInstall()));
                 }
             }
         } catch (IOException | MojoFailureException | MojoExecutionException e) {
@@ -205,6 +878,24 @@ public class InferInstaller {
         }
     }
 
+    private static String sha256Of(Path file) throws IOException {
+        MessageDigest fileDigest = newSha256Digest();
+
+        try (var digestInputStream = new DigestInputStream(Files.newInputStream(file), fileDigest)) {
+            digestInputStream.transferTo(OutputStream.nullOutputStream());
+        }
+
+        return HexFormat.of().formatHex(fileDigest.digest());
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance(TARBALL_DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(TARBALL_DIGEST_ALGORITHM + " is required on every Java platform", e);
+        }
+    }
+
     private void handleSymlink(TarArchiveEntry tarArchiveEntry, Path target) throws MojoFailureException, IOException {
         Path linkTarget = Path.of(tarArchiveEntry.getLinkName());
 
@@ -219,35 +910,149 @@ public class InferInstaller {
         Files.createSymbolicLink(target, linkTarget);
     }
 
-    private void handleHardLink(Path userHomeDownloadsPath, TarArchiveEntry tarArchiveEntry, Path target)
+    private boolean handleHardLink(Path userHomeDownloadsPath, TarArchiveEntry tarArchiveEntry, Path target)
             throws IOException {
-        // Hard link: create as a copy of the link target if present
+        // Hard link: link to the link target if present
         Path linkTarget =
                 userHomeDownloadsPath.resolve(tarArchiveEntry.getLinkName()).normalize();
 
         if (Files.exists(linkTarget, LinkOption.NOFOLLOW_LINKS)) {
-            Files.copy(linkTarget, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
-        } else {
-            logger.warn("Hard link target does not exist yet: " + tarArchiveEntry.getLinkName());
+            linkOrCopy(linkTarget, target);
+            return true;
         }
+
+        logger.warn("Hard link target does not exist yet: " + tarArchiveEntry.getLinkName());
+        return false;
     }
 
-    private void handleRegularFile(
-            TarArchiveInputStream tarArchiveInputStream, Path target, TarArchiveEntry tarArchiveEntry)
+    private InstallManifest.Entry handleRegularFile(
+            TarArchiveInputStream tarArchiveInputStream,
+            Path target,
+            TarArchiveEntry tarArchiveEntry,
+            String entryPath,
+            PreviousInstall previousInstall)
             throws IOException {
-        Files.copy(tarArchiveInputStream, target, StandardCopyOption.REPLACE_EXISTING);
-
-        // Restore executable perms if mode has any exec bit
+        // Not closed, that would close the tar stream. The CRC is computed as the entry is copied for the manifest.
+        var checkedInputStream = new CheckedInputStream(tarArchiveInputStream, new CRC32());
         final int mode = tarArchiveEntry.getMode();
         final boolean isNonExecutableBit = (mode & POSIX_EXECUTE_PERMISSIONS) == 0;
+        InputStream entryContent = CloseShieldInputStream.wrap(checkedInputStream);
+
+        Path previousFile = previousInstall == null ? null : previousInstall.fileFor(entryPath);
+
+        if (previousFile != null && isReusable(previousFile, tarArchiveEntry.getSize(), !isNonExecutableBit)) {
+            entryContent = linkIfUnchanged(checkedInputStream, previousFile, target);
+
+            if (entryContent == null) {
+                previousInstall.reusedFiles++;
+                previousInstall.reusedBytes += tarArchiveEntry.getSize();
+                return InstallManifest.Entry.file(
+                        entryPath,
+                        tarArchiveEntry.getSize(),
+                        checkedInputStream.getChecksum().getValue());
+            }
+        }
+
+        long size;
+
+        try (var entryContentToCopy = entryContent) {
+            size = Files.copy(entryContentToCopy, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        InstallManifest.Entry manifestEntry = InstallManifest.Entry.file(
+                entryPath, size, checkedInputStream.getChecksum().getValue());
+
+        // Restore executable perms if mode has any exec bit
 
         if (isNonExecutableBit) {
-            return; // no executable perms to restore
+            return manifestEntry; // no executable perms to restore
         }
 
         final Set<PosixFilePermission> perms = Files.getPosixFilePermissions(target);
         perms.addAll(EXECUTE_PERMISSIONS);
         Files.setPosixFilePermissions(target, perms);
+        return manifestEntry;
+    }
+
+    private boolean isReusable(Path previousFile, long size, boolean executable) {
+        try {
+            PosixFileAttributes attributes =
+                    Files.readAttributes(previousFile, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+            // Linked files share their perms, so only link when the entry would get the same exec bits anyway
+            return attributes.isRegularFile()
+                    && attributes.size() == size
+                    && attributes.permissions().containsAll(EXECUTE_PERMISSIONS) == executable;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    // Compares the entry with the previous file as it is read and links the previous file in place when every byte
+    // matches, returning null. On the first difference nothing is linked and the returned stream replays the entry
+    // from its start: the matched prefix from the previous file, then the rest of the tar entry.
+    private InputStream linkIfUnchanged(InputStream entryContent, Path previousFile, Path target) throws IOException {
+        byte[] entryChunk = new byte[REUSE_COMPARE_CHUNK_SIZE];
+        byte[] previousChunk = new byte[REUSE_COMPARE_CHUNK_SIZE];
+        long matchedBytes = 0;
+
+        try (var previousInputStream = Files.newInputStream(previousFile)) {
+            while (true) {
+                int entryRead = entryContent.readNBytes(entryChunk, 0, entryChunk.length);
+                int previousRead = previousInputStream.readNBytes(previousChunk, 0, Math.max(entryRead, 1));
+
+                if (entryRead == 0 && previousRead == 0) {
+                    break;
+                }
+
+                if (entryRead != previousRead
+                        || !Arrays.equals(entryChunk, 0, entryRead, previousChunk, 0, previousRead)) {
+                    InputStream matchedPrefix = BoundedInputStream.builder()
+                            .setPath(previousFile)
+                            .setMaxCount(matchedBytes)
+                            .get();
+                    return new SequenceInputStream(Collections.enumeration(List.of(
+                            matchedPrefix,
+                            new ByteArrayInputStream(entryChunk, 0, entryRead),
+                            CloseShieldInputStream.wrap(entryContent))));
+                }
+
+                matchedBytes += entryRead;
+            }
+        }
+
+        linkOrCopy(previousFile, target);
+        return null;
+    }
+
+    private void linkOrCopy(Path existing, Path target) throws IOException {
+        Files.deleteIfExists(target);
+
+        try {
+            Files.createLink(target, existing);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // Filesystems without hard links, or a previous install on another filesystem, get a copy instead
+            logger.debug("Could not hard link " + target + " to " + existing + ", copying it instead: " + e);
+            Files.copy(existing, target, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    // The most recently used install of another version, whose unchanged files a new install links to
+    private PreviousInstall findPreviousInstall(Path installDir, Path inferRootName) {
+        String platformPrefix = "infer-" + inferPlatform() + "-";
+
+        try {
+            return installCache.installsByRecentUse(installDir).stream()
+                    .filter(inferRoot -> !inferRoot.getFileName().equals(inferRootName))
+                    .filter(inferRoot -> inferRoot.getFileName().toString().startsWith(platformPrefix))
+                    .filter(inferRoot -> Files.exists(inferRoot.resolve(InstallManifest.FILE_NAME)))
+                    .findFirst()
+                    .map(PreviousInstall::new)
+                    .orElse(null);
+        } catch (IOException e) {
+            logger.debug("Could not look for a previous Infer installation to reuse files from: " + e);
+            return null;
+        }
     }
 
     private void cleanupInferTarballTmpDir(Path tmpDir) throws MojoFailureException {
@@ -262,4 +1067,32 @@ public class InferInstaller {
             throw new MojoFailureException("Failed to cleanup tmp dir used to download Infer: " + tmpDir, e);
         }
     }
+
+    private record FetchedTarball(String digest, Path tarball) {}
+
+    // Where a tarball is extracted to, which of its entries to write and where to record the ones written
+    private record Extraction(
+            Path dir,
+            Predicate<String> includeEntry,
+            List<InstallManifest.Entry> extractedEntries,
+            PreviousInstall previousInstall) {}
+
+    private static final class PreviousInstall {
+
+        private final Path root;
+        private long reusedFiles;
+        private long reusedBytes;
+
+        private PreviousInstall(Path root) {
+            this.root = root;
+        }
+
+        // Entry paths start with the root dir of the version being installed, swapped here for the previous one
+        private Path fileFor(String entryPath) {
+            Path pathInTarball = Path.of(entryPath);
+            return pathInTarball.getNameCount() < 2
+                    ? null
+                    : root.resolve(pathInTarball.subpath(1, pathInTarball.getNameCount()));
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package core;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Works out how many analysis workers Infer can run inside the CPU quota and memory limit of the cgroup the build
+// runs in. The cgroup the build runs in is read from /proc/self/cgroup, as without a cgroup namespace, e.g. on a
+// cgroup v1 host or in a systemd slice, it is not the root of the mount. Every level from that cgroup up to the mount
+// point can set a limit, so the tightest one applies. The cgroup v2 files are read first, then the v1 cpu and memory
+// controllers. Without a limit the processor count and physical memory of the machine are used.
+final class InferJobs {
+
+    static final Path CGROUP_ROOT = Path.of("/sys/fs/cgroup");
+    static final Path PROC_SELF_CGROUP = Path.of("/proc/self/cgroup");
+
+    static final String V2_HIERARCHY = "";
+    static final String V1_CPU_CONTROLLER = "cpu";
+    static final String V1_MEMORY_CONTROLLER = "memory";
+
+    private static final String V2_CPU_MAX_FILE = "cpu.max";
+    private static final String V2_MEMORY_MAX_FILE = "memory.max";
+    private static final String V1_CPU_QUOTA_FILE = "cpu.cfs_quota_us";
+    private static final String V1_CPU_PERIOD_FILE = "cpu.cfs_period_us";
+    private static final String V1_MEMORY_LIMIT_FILE = "memory.limit_in_bytes";
+    private static final String V2_UNLIMITED = "max";
+    // cgroup v1 reports an unset memory limit as the largest page aligned long rather than a marker
+    private static final long V1_UNLIMITED_MEMORY_THRESHOLD = Long.MAX_VALUE / 2;
+
+    private InferJobs() {}
+
+    static ResourceLimits detectLimits(Path cgroupRoot, Path procSelfCgroup) throws IOException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        Integer quotaCpus;
+        Long memoryLimit;
+
+        try {
+            quotaCpus = cpuQuotaOf(cgroupRoot, procSelfCgroup);
+            memoryLimit = memoryLimitOf(cgroupRoot, procSelfCgroup);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Unrecognised cgroup limits under " + cgroupRoot, e);
+        }
+
+        return new ResourceLimits(
+                quotaCpus == null ? processors : Math.min(processors, quotaCpus),
+                memoryLimit == null ? physicalMemoryBytes() : memoryLimit,
+                quotaCpus != null,
+                memoryLimit != null);
+    }
+
+    // The dirs of the cgroup the build runs in and of each of its ancestors, innermost first. V2_HIERARCHY names the
+    // cgroup v2 hierarchy, mounted at the cgroup root, and a v1 controller the hierarchy mounted under its name. Levels
+    // that are not mounted, e.g. above a v1 container's own cgroup, are left out.
+    static List<Path> cgroupDirs(Path cgroupRoot, Path procSelfCgroup, String hierarchy) throws IOException {
+        Path mountPoint = hierarchy.equals(V2_HIERARCHY) ? cgroupRoot : cgroupRoot.resolve(hierarchy);
+        Path dir = mountPoint.resolve(cgroupPathOf(procSelfCgroup, hierarchy)).normalize();
+
+        // A cgroup outside this namespace shows as a path above its root
+        if (!dir.startsWith(mountPoint)) {
+            dir = mountPoint;
+        }
+
+        List<Path> dirs = new ArrayList<>();
+
+        for (; dir != null && dir.startsWith(mountPoint); dir = dir.getParent()) {
+            if (Files.isDirectory(dir)) {
+                dirs.add(dir);
+            }
+        }
+
+        return dirs;
+    }
+
+    // Each line is "hierarchy-id:controllers:path", with no controllers for the cgroup v2 hierarchy. Relative to the
+    // mount point, and empty when the process is not listed in the hierarchy.
+    private static String cgroupPathOf(Path procSelfCgroup, String hierarchy) throws IOException {
+        if (!Files.isReadable(procSelfCgroup)) {
+            return "";
+        }
+
+        for (String line : Files.readAllLines(procSelfCgroup, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(":", 3);
+
+            if (fields.length == 3 && matchesHierarchy(fields[1], hierarchy)) {
+                return fields[2].replaceFirst("^/+", "");
+            }
+        }
+
+        return "";
+    }
+
+    private static boolean matchesHierarchy(String controllers, String hierarchy) {
+        return hierarchy.equals(V2_HIERARCHY)
+                ? controllers.isEmpty()
+                : Arrays.asList(controllers.split(",")).contains(hierarchy);
+    }
+
+    // At least one worker, so a build over its memory budget still runs, as it did before the limits were read
+    static int jobsFor(ResourceLimits limits, long reservedBytes, long workerBytes) {
+        long workersInMemory = Math.max(0L, limits.memoryBytes() - reservedBytes) / workerBytes;
+        return (int) Math.max(1L, Math.min(limits.cpus(), workersInMemory));
+    }
+
+    private static Integer cpuQuotaOf(Path cgroupRoot, Path procSelfCgroup) throws IOException {
+        Integer quotaCpus = null;
+        boolean v2 = false;
+
+        for (Path dir : cgroupDirs(cgroupRoot, procSelfCgroup, V2_HIERARCHY)) {
+            String cpuMax = readLimit(dir.resolve(V2_CPU_MAX_FILE));
+
+            if (cpuMax != null) {
+                v2 = true;
+                String[] quotaAndPeriod = cpuMax.split("\\s+");
+
+                if (!V2_UNLIMITED.equals(quotaAndPeriod[0])) {
+                    quotaCpus = tighter(
+                            quotaCpus,
+                            cpusOf(Long.parseLong(quotaAndPeriod[0]), Long.parseLong(quotaAndPeriod[1])));
+                }
+            }
+        }
+
+        if (v2) {
+            return quotaCpus;
+        }
+
+        for (Path dir : cgroupDirs(cgroupRoot, procSelfCgroup, V1_CPU_CONTROLLER)) {
+            String quota = readLimit(dir.resolve(V1_CPU_QUOTA_FILE));
+            String period = readLimit(dir.resolve(V1_CPU_PERIOD_FILE));
+
+            if (quota != null && period != null && Long.parseLong(quota) > 0) {
+                quotaCpus = tighter(quotaCpus, cpusOf(Long.parseLong(quota), Long.parseLong(period)));
+            }
+        }
+
+        return quotaCpus;
+    }
+
+    // Rounded down, as a worker on a fraction of a CPU is throttled for the rest of each period
+    private static int cpusOf(long quotaMicros, long periodMicros) {
+        return (int) Math.max(1L, quotaMicros / periodMicros);
+    }
+
+    private static Long memoryLimitOf(Path cgroupRoot, Path procSelfCgroup) throws IOException {
+        Long memoryLimit = null;
+        boolean v2 = false;
+
+        for (Path dir : cgroupDirs(cgroupRoot, procSelfCgroup, V2_HIERARCHY)) {
+            String memoryMax = readLimit(dir.resolve(V2_MEMORY_MAX_FILE));
+
+            if (memoryMax != null) {
+                v2 = true;
+
+                if (!V2_UNLIMITED.equals(memoryMax)) {
+                    memoryLimit = tighter(memoryLimit, Long.parseLong(memoryMax));
+                }
+            }
+        }
+
+        if (v2) {
+            return memoryLimit;
+        }
+
+        for (Path dir : cgroupDirs(cgroupRoot, procSelfCgroup, V1_MEMORY_CONTROLLER)) {
+            String limit = readLimit(dir.resolve(V1_MEMORY_LIMIT_FILE));
+
+            if (limit != null && Long.parseLong(limit) < V1_UNLIMITED_MEMORY_THRESHOLD) {
+                memoryLimit = tighter(memoryLimit, Long.parseLong(limit));
+            }
+        }
+
+        return memoryLimit;
+    }
+
+    private static <T extends Comparable<T>> T tighter(T limit, T levelLimit) {
+        return limit == null || levelLimit.compareTo(limit) < 0 ? levelLimit : limit;
+    }
+
+    private static String readLimit(Path limitFile) throws IOException {
+        if (!Files.isReadable(limitFile)) {
+            return null;
+        }
+
+        return Files.readString(limitFile, StandardCharsets.UTF_8).strip();
+    }
+
+    private static long physicalMemoryBytes() {
+        return ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getTotalMemorySize();
+    }
+
+    record ResourceLimits(int cpus, long memoryBytes, boolean cpuQuota, boolean memoryLimit) {}
+}
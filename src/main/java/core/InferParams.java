@@ -1,7 +1,53 @@
 package core;
 
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import org.apache.maven.project.MavenProject;
 
 public record InferParams(
-        MavenProject project, boolean failOnIssue, boolean enableJavaCheckers, String resultsDir, Path installDir) {}
+        MavenProject project,
+        boolean failOnIssue,
+        boolean enableJavaCheckers,
+        String resultsDir,
+        Path installDir,
+        boolean incrementalAnalysis,
+        String baseRevision,
+        Path baseReportCacheDir,
+        List<String> sourceIncludes,
+        List<String> sourceExcludes,
+        Duration stallTimeout,
+        Duration analysisTimeout,
+        boolean verboseOutput,
+        int jobs,
+        long workerMemoryMegabytes,
+        int captureShards,
+        int independentShards,
+        List<ShardSafeChecker> shardSafeCheckers) {
+
+    public static final Duration DEFAULT_STALL_TIMEOUT = Duration.ofMinutes(15);
+    public static final long DEFAULT_WORKER_MEMORY_MEGABYTES = 1536L;
+
+    public InferParams(
+            MavenProject project, boolean failOnIssue, boolean enableJavaCheckers, String resultsDir, Path installDir) {
+        this(
+                project,
+                failOnIssue,
+                enableJavaCheckers,
+                resultsDir,
+                installDir,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                false,
+                0,
+                DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
+    }
+}
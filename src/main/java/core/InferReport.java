@@ -0,0 +1,153 @@
+package core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Infer's report.json is a JSON array of issues, each naming the source file it was found in relative to the project
+// root. A reactive run only reanalyses the files in its changed files index, so its report is merged with the issues
+// the previous report held for every file outside that index.
+final class InferReport {
+
+    static final String FILE_NAME = "report.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String FILE_FIELD = "file";
+    private static final String HASH_FIELD = "hash";
+
+    private InferReport() {}
+
+    // Returns the number of issues in the merged report. The indexed files are the changed files and every file
+    // depending on them, so an issue the reactive run no longer reports in any of them is gone.
+    static int merge(Path previousReport, Path report, Set<String> indexedFiles) throws IOException {
+        ArrayNode previousIssues = readIssues(previousReport);
+        ArrayNode mergedIssues = readIssues(report);
+        Set<String> mergedKeys = new HashSet<>();
+        mergedIssues.forEach(issue -> mergedKeys.add(keyOf(issue)));
+
+        for (JsonNode previousIssue : previousIssues) {
+            if (!indexedFiles.contains(previousIssue.path(FILE_FIELD).asText())
+                    && mergedKeys.add(keyOf(previousIssue))) {
+                mergedIssues.add(previousIssue);
+            }
+        }
+
+        Path pendingReport = report.resolveSibling(report.getFileName() + ".tmp");
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(pendingReport.toFile(), mergedIssues);
+        Files.move(pendingReport, report, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        return mergedIssues.size();
+    }
+
+    // Splits the report of an analysis spanning several modules into one report per module, by the module dir each
+    // issue's file is in. Returns the number of issues written for each module dir, in the order they were given.
+    static Map<Path, Integer> splitByModule(Path report, Path projectRoot, Map<Path, Path> moduleReports)
+            throws IOException {
+        Map<Path, ArrayNode> moduleIssues = new LinkedHashMap<>();
+        moduleReports.keySet().forEach(moduleDir -> moduleIssues.put(moduleDir, OBJECT_MAPPER.createArrayNode()));
+
+        // Longest first, so an issue in a nested module is not attributed to its parent
+        List<Path> moduleDirs = moduleReports.keySet().stream()
+                .sorted(Comparator.comparingInt(Path::getNameCount).reversed())
+                .toList();
+
+        for (JsonNode issue : readIssues(report)) {
+            Path issueFile =
+                    projectRoot.resolve(issue.path(FILE_FIELD).asText()).normalize();
+
+            moduleDirs.stream().filter(issueFile::startsWith).findFirst().ifPresent(moduleDir -> moduleIssues
+                    .get(moduleDir)
+                    .add(issue));
+        }
+
+        Map<Path, Integer> issueCounts = new LinkedHashMap<>();
+
+        for (Map.Entry<Path, ArrayNode> module : moduleIssues.entrySet()) {
+            Path moduleReport = moduleReports.get(module.getKey());
+            Path pendingReport = moduleReport.resolveSibling(moduleReport.getFileName() + ".tmp");
+            Files.createDirectories(moduleReport.getParent());
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(pendingReport.toFile(), module.getValue());
+            Files.move(
+                    pendingReport, moduleReport, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            issueCounts.put(module.getKey(), module.getValue().size());
+        }
+
+        return issueCounts;
+    }
+
+    // Streams the shard reports into one report, keeping the first of the issues with the same hash, so a report far
+    // larger than the heap can be merged. Returns the number of issues in the merged report.
+    static int mergeShards(List<Path> shardReports, Path report) throws IOException {
+        Set<String> mergedKeys = new HashSet<>();
+        Path pendingReport = report.resolveSibling(report.getFileName() + ".tmp");
+
+        try (JsonGenerator generator = OBJECT_MAPPER.createGenerator(pendingReport.toFile(), JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartArray();
+
+            for (Path shardReport : shardReports) {
+                if (!Files.exists(shardReport)) {
+                    continue;
+                }
+
+                try (JsonParser parser = OBJECT_MAPPER.createParser(shardReport.toFile())) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        throw new IOException("Infer report is not a list of issues: " + shardReport);
+                    }
+
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        JsonNode issue = OBJECT_MAPPER.readTree(parser);
+
+                        if (mergedKeys.add(keyOf(issue))) {
+                            generator.writeTree(issue);
+                        }
+                    }
+                }
+            }
+
+            generator.writeEndArray();
+        }
+
+        Files.move(pendingReport, report, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return mergedKeys.size();
+    }
+
+    static int issueCount(Path report) throws IOException {
+        if (!Files.exists(report)) {
+            throw new IOException("Infer report not found: " + report);
+        }
+
+        return readIssues(report).size();
+    }
+
+    private static ArrayNode readIssues(Path report) throws IOException {
+        if (!Files.exists(report)) {
+            return OBJECT_MAPPER.createArrayNode();
+        }
+
+        if (OBJECT_MAPPER.readTree(report.toFile()) instanceof ArrayNode issues) {
+            return issues;
+        }
+
+        throw new IOException("Infer report is not a list of issues: " + report);
+    }
+
+    private static String keyOf(JsonNode issue) {
+        JsonNode hash = issue.get(HASH_FIELD);
+        return hash != null ? hash.asText() : issue.toString();
+    }
+}
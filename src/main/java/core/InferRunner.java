@@ -1,21 +1,40 @@
 package core;
 
-import static java.util.concurrent.TimeUnit.MINUTES;
-
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import org.apache.commons.io.file.PathUtils;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -31,30 +50,76 @@ public class InferRunner {
     private static final String JAVAC_DEBUG_OPTION = "-g";
     private static final String JAVAC_DEST_DIRECTORY_OPTION = "-d";
     private static final String JAVAC_ARGFILE_PREFIX = "@";
+    private static final String JAVAC_SOURCEPATH_OPTION = "-sourcepath";
+    private static final String JAVAC_IMPLICIT_NONE_OPTION = "-implicit:none";
     private static final String INFER_FAIL_ON_ISSUE_OPTION = "--fail-on-issue";
     private static final String INFER_BUFFEROVERRUN_OPTION = "--bufferoverrun";
     private static final String INFER_COST_OPTION = "--cost";
     private static final String INFER_LOOP_HOISTING_OPTION = "--loop-hoisting";
     private static final String INFER_BIABDUCTION_OPTION = "--biabduction";
     private static final String INFER_RESULTS_DIR_OPTION = "--results-dir";
+    private static final String INFER_JOBS_OPTION = "--jobs";
     private static final String INFER_ARG_TERMINATOR = "--";
-    private static final long PROCESS_MAX_TIMEOUT = 1L;
+    private static final String INFER_REACTIVE_OPTION = "--reactive";
+    private static final String INFER_CHANGED_FILES_INDEX_OPTION = "--changed-files-index";
+    private static final String INFER_REPORTDIFF_COMMAND = "reportdiff";
+    private static final String INFER_CAPTURE_COMMAND = "capture";
+    private static final String INFER_ANALYZE_COMMAND = "analyze";
+    private static final String INFER_MERGE_CAPTURE_OPTION = "--merge-capture";
+    private static final String CAPTURE_SHARDS_DIR_NAME = "infer-capture-shards";
+    private static final String INDEPENDENT_SHARDS_DIR_NAME = "infer-independent-shards";
+    private static final String INFER_NO_DEFAULT_CHECKERS_OPTION = "--no-default-checkers";
+    private static final String INFER_REPORT_CURRENT_OPTION = "--report-current";
+    private static final String INFER_REPORT_PREVIOUS_OPTION = "--report-previous";
+    private static final String REPORTDIFF_RESULTS_DIR_NAME = "infer-reportdiff";
+    private static final String REPORTDIFF_DIFFERENTIAL_DIR_NAME = "differential";
+    private static final String REPORTDIFF_INTRODUCED_FILE_NAME = "introduced.json";
+    private static final String REPORTDIFF_FIXED_FILE_NAME = "fixed.json";
+    private static final String REPORTDIFF_PRESERVED_FILE_NAME = "preserved.json";
+    private static final String BASE_WORKTREE_DIR_NAME = "infer-base-worktree";
+    private static final String BASE_RESULTS_DIR_NAME = "infer-base-out";
+    private static final String CAPTURE_CLASSES_DIR_NAME = "infer-classes";
+    private static final String AGGREGATE_CLASSES_DIR_NAME = "infer-aggregate-classes";
+    private static final String AGGREGATE_SOURCES_ARGFILE_NAME = "infer-aggregate-sources.args";
+    private static final String MODULE_REPORT_FILE_NAME = "infer-aggregate-report.json";
+    private static final String CAPTURE_MARKER_FILE_NAME = "infer-capture.marker";
+    private static final String POM_PACKAGING = "pom";
+    private static final String BASE_CLASSES_DIR_NAME = "infer-base-classes";
+    private static final int BASE_REPORT_KEY_LENGTH = 16;
+    private static final String JAVA_SOURCES_ARGFILE_NAME = "java-sources.args";
+    private static final String BASE_SOURCES_ARGFILE_NAME = "infer-base-sources.args";
+    private static final String CHANGED_FILES_INDEX_FILE_NAME = "infer-changed-files.txt";
+    private static final String PREVIOUS_REPORT_FILE_NAME = "infer-previous-report.json";
+    private static final Duration OUTPUT_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration STATUS_SETTLE_TIMEOUT = Duration.ofSeconds(10);
+    private static final long STATUS_POLL_MILLIS = 200L;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
     public static final int NORMAL_TERMINATION_FLAG = 0;
     public static final int INFER_ISSUES_FOUND = 2;
 
     private final Logger logger;
 
-    private static final String JAVA_FILE_EXTENSION = ".java";
+    // Where the build's cgroup limits and OOM kill count are read from
+    private final Path cgroupRoot;
+    private final Path procSelfCgroup;
+
+    // Background analyses by results dir, kept for the join goal later in the same build
+    private final Map<Path, BackgroundAnalysis> backgroundAnalyses = new ConcurrentHashMap<>();
 
     @Inject
     public InferRunner(Logger logger) {
+        this(logger, InferJobs.CGROUP_ROOT, InferJobs.PROC_SELF_CGROUP);
+    }
+
+    InferRunner(Logger logger, Path cgroupRoot, Path procSelfCgroup) {
         this.logger = logger;
+        this.cgroupRoot = cgroupRoot;
+        this.procSelfCgroup = procSelfCgroup;
     }
 
     public void runInferOnProject(InferParams inferParams, Path inferExe)
             throws MojoExecutionException, MojoFailureException {
         final MavenProject project = inferParams.project();
-        final boolean failOnIssue = inferParams.failOnIssue();
         final boolean enableJavaCheckers = inferParams.enableJavaCheckers();
         final String resultsDir = inferParams.resultsDir();
 
@@ -62,53 +127,97 @@ public class InferRunner {
         Objects.requireNonNull(resultsDir, "Directory to store results required to proceed with Infer analysis");
 
         try {
-            List<String> compileSourceRoots = project.getCompileSourceRoots();
-            List<Path> javaSourceFiles = new ArrayList<>();
-
-            for (String compileSourceRoot : compileSourceRoots) {
-                Path rootPath = Path.of(compileSourceRoot);
-
-                if (Files.isDirectory(rootPath)) {
-                    try (Stream<Path> stream =
-                            Files.find(rootPath, Integer.MAX_VALUE, (path, attrs) -> isJavaFileType(path))) {
-                        javaSourceFiles.addAll(stream.toList());
-                    } catch (IOException e) {
-                        logger.error("Error occurred when trying to find Java sources in: " + rootPath);
-                        throw new MojoExecutionException("Failed to find Java sources in: " + rootPath, e);
-                    }
-                }
+            if (inferParams.independentShards() > 0
+                    && (inferParams.incrementalAnalysis() || inferParams.baseRevision() != null)) {
+                logger.error("The independent shard mode finds fewer issues than a full analysis, so it cannot be"
+                        + " compared against a previous or base revision report.");
+                throw new MojoExecutionException(
+                        "independentShards cannot be combined with incrementalAnalysis or baseRevision");
             }
 
+            List<Path> compileSourceRoots =
+                    project.getCompileSourceRoots().stream().map(Path::of).toList();
+            SourceFilter sourceFilter = SourceFilter.of(inferParams.sourceIncludes(), inferParams.sourceExcludes());
+            List<Path> javaSourceFiles =
+                    findJavaSources(compileSourceRoots, project.getBasedir().toPath(), sourceFilter);
+
             if (javaSourceFiles.isEmpty()) {
                 logger.warn("No Java sources found in " + javaSourceFiles + ". Skipping Infer analysis.");
                 throw new MojoFailureException("No Java sources found; skipping Infer analysis.");
             }
 
-            String compileClasspath = buildCompileClasspathFromProjectArtifacts(project);
+            List<String> compileClasspathElements = compileClasspathElementsOf(project);
+            String compileClasspath = String.join(File.pathSeparator, compileClasspathElements);
 
             Path resultsDirPath = Path.of(resultsDir);
             Files.createDirectories(resultsDirPath);
 
+            Path fingerprintFile = Path.of(project.getBuild().getDirectory()).resolve(RunFingerprint.FILE_NAME);
+            RunFingerprint previousFingerprint = readPreviousFingerprint(fingerprintFile);
+            RunFingerprint fingerprint = fingerprintRun(
+                    inferParams, inferExe, compileClasspathElements, javaSourceFiles, previousFingerprint);
+
+            Path reportFile = resultsDirPath.resolve(InferReport.FILE_NAME);
+
+            if (previousFingerprint != null
+                    && previousFingerprint.sameInputsAs(fingerprint)
+                    && Files.exists(reportFile)) {
+                logger.info("Sources, classpath and Infer settings are unchanged since the last analysis. Reusing"
+                        + " its results in: " + resultsDirPath);
+                concludeAnalysis(inferParams, inferExe, previousFingerprint.exitCode(), compileClasspath);
+                return;
+            }
+
+            List<String> changedSources = inferParams.incrementalAnalysis()
+                    ? incrementalChanges(previousFingerprint, fingerprint, reportFile)
+                    : null;
+
+            // Dropped up front, so a run that does not finish never leaves a fingerprint matching partial results
+            Files.deleteIfExists(fingerprintFile);
+
             // Prepare an @argfile for sources to avoid long command lines
-            Path argfileWithJavaSources = createJavacArgfile(project.getBuild().getDirectory(), javaSourceFiles);
+            Path argfileWithJavaSources =
+                    createJavacArgfile(project.getBuild().getDirectory(), JAVA_SOURCES_ARGFILE_NAME, javaSourceFiles);
 
             List<String> javacArgs =
-                    javacArgBuilder(compileClasspath, project.getBuild().getOutputDirectory(), argfileWithJavaSources);
+                    javacArgBuilder(compileClasspath, captureClassesDir(project).toString(), argfileWithJavaSources);
+            int jobs = inferJobs(inferParams);
             List<String> inferArgs = enableJavaCheckers
-                    ? inferArgBuilderWithJavaCheckers(inferExe.toString(), resultsDirPath.toString(), javacArgs)
-                    : inferArgBuilderNoJavaCheckers(inferExe.toString(), resultsDirPath.toString(), javacArgs);
+                    ? inferArgBuilderWithJavaCheckers(inferExe.toString(), jobs, resultsDirPath.toString(), javacArgs)
+                    : inferArgBuilderNoJavaCheckers(inferExe.toString(), jobs, resultsDirPath.toString(), javacArgs);
 
-            int exitCode = executeInferCommands(inferArgs, project.getBasedir().toPath());
+            List<List<Path>> captureShards =
+                    CaptureShards.of(javaSourceFiles, captureShardCount(inferParams, javaSourceFiles, jobs));
+            int exitCode;
 
-            // fail the build if Infer found issues (Infer returns 2 when issues found)
-            if (failOnIssue && exitCode == INFER_ISSUES_FOUND) {
-                logger.warn(
-                        "Infer analysis completed with issues found, causing the build to fail. Check Infer results for more info.");
-                throw new MojoFailureException(
-                        "Infer analysis completed with issues found. Results in: " + resultsDirPath);
+            if (inferParams.independentShards() > 0) {
+                exitCode = runIndependentShards(
+                        inferParams,
+                        inferExe,
+                        CaptureShards.of(javaSourceFiles, inferParams.independentShards()),
+                        compileClasspath,
+                        compileSourceRoots,
+                        Path.of(project.getBuild().getDirectory()),
+                        project.getBasedir().toPath(),
+                        jobs);
+            } else if (changedSources != null) {
+                exitCode = runReactiveAnalysis(inferArgs, inferParams, javaSourceFiles, changedSources, reportFile);
+            } else if (captureShards.size() > 1) {
+                exitCode = runShardedAnalysis(
+                        inferParams,
+                        inferExe,
+                        captureShards,
+                        compileClasspath,
+                        compileSourceRoots,
+                        Path.of(project.getBuild().getDirectory()),
+                        project.getBasedir().toPath(),
+                        jobs);
+            } else {
+                exitCode = executeInferCommands(inferArgs, project.getBasedir().toPath(), resultsDirPath, inferParams);
             }
+            fingerprint.withExitCode(exitCode).write(fingerprintFile);
 
-            logger.info("Infer analysis completed. Results in: " + resultsDirPath);
+            concludeAnalysis(inferParams, inferExe, exitCode, compileClasspath);
         } catch (IOException | MojoFailureException | MojoExecutionException e) {
             if (e instanceof MojoFailureException) {
                 if (e.getMessage().contains("Infer analysis completed with issues found.")) {
@@ -124,25 +233,873 @@ public class InferRunner {
         }
     }
 
-    private static boolean isJavaFileType(Path path) {
-        return path.getFileName().toString().endsWith(JAVA_FILE_EXTENSION);
+    // The capture half of runInferOnProject, for the capture goal. The compiled sources are left in the results dir
+    // for the analyze goal, and a marker naming the results dir records that the capture completed
+    public void captureProject(InferParams inferParams, Path inferExe)
+            throws MojoExecutionException, MojoFailureException {
+        final MavenProject project = inferParams.project();
+        final String resultsDir = inferParams.resultsDir();
+
+        Objects.requireNonNull(project, "Maven project information required to proceed with Infer capture");
+        Objects.requireNonNull(resultsDir, "Directory to store results required to proceed with Infer capture");
+
+        if (inferParams.incrementalAnalysis() || inferParams.independentShards() > 0) {
+            logger.warn("incrementalAnalysis and independentShards only apply to the infer-plugin goal. Capturing"
+                    + " every source for the analyze goal.");
+        }
+
+        try {
+            List<Path> compileSourceRoots =
+                    project.getCompileSourceRoots().stream().map(Path::of).toList();
+            SourceFilter sourceFilter = SourceFilter.of(inferParams.sourceIncludes(), inferParams.sourceExcludes());
+            List<Path> javaSourceFiles =
+                    findJavaSources(compileSourceRoots, project.getBasedir().toPath(), sourceFilter);
+
+            if (javaSourceFiles.isEmpty()) {
+                logger.warn("No Java sources found in " + compileSourceRoots + ". Skipping Infer capture.");
+                throw new MojoFailureException("No Java sources found; skipping Infer capture.");
+            }
+
+            String compileClasspath = String.join(File.pathSeparator, compileClasspathElementsOf(project));
+            Path resultsDirPath = Path.of(resultsDir);
+            Files.createDirectories(resultsDirPath);
+
+            // The capture replaces what the results of an earlier run were analysed from, so they are not reused
+            Path buildDir = Path.of(project.getBuild().getDirectory());
+            Path captureMarker = buildDir.resolve(CAPTURE_MARKER_FILE_NAME);
+            Files.deleteIfExists(captureMarker);
+            Files.deleteIfExists(buildDir.resolve(RunFingerprint.FILE_NAME));
+
+            List<List<Path>> captureShards = CaptureShards.of(
+                    javaSourceFiles, captureShardCount(inferParams, javaSourceFiles, inferJobs(inferParams)));
+
+            if (captureShards.size() > 1) {
+                runShardedCapture(
+                        inferParams,
+                        inferExe,
+                        captureShards,
+                        compileClasspath,
+                        compileSourceRoots,
+                        buildDir,
+                        project.getBasedir().toPath());
+            } else {
+                Path argfileWithJavaSources =
+                        createJavacArgfile(buildDir.toString(), JAVA_SOURCES_ARGFILE_NAME, javaSourceFiles);
+                List<String> captureArgs = Stream.concat(
+                                Stream.of(
+                                        inferExe.toString(),
+                                        INFER_CAPTURE_COMMAND,
+                                        INFER_RESULTS_DIR_OPTION,
+                                        resultsDirPath.toString(),
+                                        INFER_ARG_TERMINATOR),
+                                javacArgBuilder(
+                                        compileClasspath,
+                                        captureClassesDir(project).toString(),
+                                        argfileWithJavaSources)
+                                        .stream())
+                        .toList();
+
+                executeInferCommands(captureArgs, project.getBasedir().toPath(), resultsDirPath, inferParams);
+            }
+
+            Files.writeString(captureMarker, resultsDirPath.toAbsolutePath().toString());
+            logger.info("Captured " + javaSourceFiles.size() + " Java sources for Infer in: " + resultsDirPath
+                    + ". Run the analyze goal to analyse them.");
+        } catch (IOException | MojoFailureException | MojoExecutionException e) {
+            if (e instanceof MojoFailureException) {
+                logger.warn("A failure occurred when capturing the project for Infer.", e);
+                throw new MojoFailureException("Failure capturing project for Infer", e);
+            }
+
+            logger.error("An error occurred when capturing the project for Infer.", e);
+            throw new MojoExecutionException("Error capturing project for Infer", e);
+        }
+    }
+
+    // The analysis half of runInferOnProject, for the analyze goal. It runs on the capture the capture goal left in
+    // the results dir, so it can be repeated with other checkers without compiling the sources again
+    public void analyzeCapture(InferParams inferParams, Path inferExe)
+            throws MojoExecutionException, MojoFailureException {
+        final MavenProject project = inferParams.project();
+        final String resultsDir = inferParams.resultsDir();
+
+        Objects.requireNonNull(project, "Maven project information required to proceed with Infer analysis");
+        Objects.requireNonNull(resultsDir, "Directory to store results required to proceed with Infer analysis");
+
+        if (inferParams.incrementalAnalysis() || inferParams.independentShards() > 0) {
+            logger.warn("incrementalAnalysis and independentShards only apply to the infer-plugin goal. Analysing the"
+                    + " whole capture.");
+        }
+
+        try {
+            Path resultsDirPath = Path.of(resultsDir);
+            requireCapture(project, resultsDirPath);
+
+            int exitCode = executeInferCommands(
+                    inferAnalyzeArgs(inferParams, inferExe, inferJobs(inferParams)),
+                    project.getBasedir().toPath(),
+                    resultsDirPath,
+                    inferParams);
+
+            concludeAnalysis(
+                    inferParams,
+                    inferExe,
+                    exitCode,
+                    String.join(File.pathSeparator, compileClasspathElementsOf(project)));
+        } catch (IOException | MojoFailureException | MojoExecutionException e) {
+            if (e instanceof MojoFailureException) {
+                if (e.getMessage().contains("Infer analysis completed with issues found.")) {
+                    throw new MojoFailureException("Infer analysis completed with issues", e);
+                }
+
+                logger.warn("A failure occurred when analysing the Infer capture.", e);
+                throw new MojoFailureException("Failure analysing Infer capture", e);
+            }
+
+            logger.error("An error occurred when analysing the Infer capture.", e);
+            throw new MojoExecutionException("Error analysing Infer capture", e);
+        }
+    }
+
+    // Starts the analysis of the capture goal's capture and returns while Infer runs, so it overlaps with the phases up
+    // to the join goal. Infer is still torn down with the build if that fails before the join. onEnd runs once, when
+    // the analysis ends or when it could not be started.
+    public void startBackgroundAnalysis(InferParams inferParams, Path inferExe, Runnable onEnd)
+            throws MojoExecutionException {
+        final MavenProject project = inferParams.project();
+        final String resultsDir = inferParams.resultsDir();
+
+        Objects.requireNonNull(project, "Maven project information required to proceed with Infer analysis");
+        Objects.requireNonNull(resultsDir, "Directory to store results required to proceed with Infer analysis");
+
+        if (inferParams.incrementalAnalysis() || inferParams.independentShards() > 0) {
+            logger.warn("incrementalAnalysis and independentShards only apply to the infer-plugin goal. Analysing the"
+                    + " whole capture.");
+        }
+
+        boolean started = false;
+
+        try {
+            Path resultsDirPath = Path.of(resultsDir);
+            requireCapture(project, resultsDirPath);
+
+            BackgroundAnalysis runningAnalysis = backgroundAnalyses.get(resultsDirPath.toAbsolutePath());
+
+            if (runningAnalysis != null && !runningAnalysis.run().isDone()) {
+                logger.error("An Infer analysis of " + resultsDirPath + " is already running in the background.");
+                throw new MojoExecutionException("Background Infer analysis already running in: " + resultsDirPath);
+            }
+
+            List<String> analyzeArgs = inferAnalyzeArgs(inferParams, inferExe, inferJobs(inferParams));
+            Path workingDir = project.getBasedir().toPath();
+            Path statusFile = resultsDirPath.resolve(AnalysisStatus.FILE_NAME);
+            AtomicReference<AnalysisStatus> status = new AtomicReference<>(AnalysisStatus.starting(inferExe));
+            status.get().write(statusFile);
+
+            FutureTask<Integer> analysis = new FutureTask<>(() -> {
+                try {
+                    // Rewritten for every Infer process, as a retry with fewer jobs starts another
+                    int exitCode =
+                            executeInferCommands(analyzeArgs, workingDir, resultsDirPath, inferParams, inferProcess -> {
+                                try {
+                                    status.updateAndGet(current -> current.runningAs(inferProcess))
+                                            .write(statusFile);
+                                } catch (IOException e) {
+                                    logger.warn("Could not record the background Infer process in " + statusFile + ": "
+                                            + e);
+                                }
+                            });
+                    status.get().finished(exitCode).write(statusFile);
+                    return exitCode;
+                } catch (IOException | MojoExecutionException e) {
+                    status.get().failed(e).write(statusFile);
+                    throw e;
+                } finally {
+                    onEnd.run();
+                }
+            });
+            Thread analysisThread = new Thread(analysis, "infer-background-analysis");
+            analysisThread.setDaemon(true);
+            backgroundAnalyses.put(resultsDirPath.toAbsolutePath(), new BackgroundAnalysis(analysis, inferExe));
+            analysisThread.start();
+            started = true;
+
+            logger.info("Analysing the Infer capture in the background. The join goal waits for it and reports the"
+                    + " results in: " + resultsDirPath);
+        } catch (IOException e) {
+            logger.error("An error occurred when starting the background Infer analysis.", e);
+            throw new MojoExecutionException("Error starting background Infer analysis", e);
+        } finally {
+            if (!started) {
+                onEnd.run();
+            }
+        }
+    }
+
+    // Waits for the background analysis, and applies failOnIssue and baseRevision to it as the analyze goal does. One
+    // started by another build, e.g. in a long-lived Maven daemon, is followed through its status file. The Infer
+    // executable comes from the analysis, so nothing is provisioned while waiting.
+    public void joinBackgroundAnalysis(InferParams inferParams) throws MojoExecutionException, MojoFailureException {
+        final MavenProject project = inferParams.project();
+        final String resultsDir = inferParams.resultsDir();
+
+        Objects.requireNonNull(project, "Maven project information required to proceed with Infer analysis");
+        Objects.requireNonNull(resultsDir, "Directory to store results required to proceed with Infer analysis");
+
+        try {
+            Path resultsDirPath = Path.of(resultsDir);
+            BackgroundAnalysis analysis = backgroundAnalyses.remove(resultsDirPath.toAbsolutePath());
+            long startNanos = System.nanoTime();
+            int exitCode;
+            Path inferExe;
+
+            if (analysis == null) {
+                AnalysisStatus status = awaitRecordedAnalysis(resultsDirPath);
+                exitCode = status.exitCode();
+                inferExe = Path.of(status.inferExe());
+            } else {
+                exitCode = awaitBackgroundAnalysis(analysis.run());
+                inferExe = analysis.inferExe();
+            }
+
+            logger.info("Waited " + (System.nanoTime() - startNanos) / 1_000_000 + " ms for the background Infer"
+                    + " analysis to finish.");
+
+            Path reportFile = resultsDirPath.resolve(InferReport.FILE_NAME);
+            logger.info("Infer reported " + InferReport.issueCount(reportFile) + " issues in: " + reportFile);
+
+            concludeAnalysis(
+                    inferParams,
+                    inferExe,
+                    exitCode,
+                    String.join(File.pathSeparator, compileClasspathElementsOf(project)));
+        } catch (IOException | MojoFailureException | MojoExecutionException e) {
+            if (e instanceof MojoFailureException) {
+                if (e.getMessage().contains("Infer analysis completed with issues found.")) {
+                    throw new MojoFailureException("Infer analysis completed with issues", e);
+                }
+
+                logger.warn("A failure occurred when joining the background Infer analysis.", e);
+                throw new MojoFailureException("Failure joining background Infer analysis", e);
+            }
+
+            logger.error("An error occurred when joining the background Infer analysis.", e);
+            throw new MojoExecutionException("Error joining background Infer analysis", e);
+        }
+    }
+
+    private int awaitBackgroundAnalysis(Future<Integer> analysis) throws IOException, MojoExecutionException {
+        if (!analysis.isDone()) {
+            logger.info("Waiting for the background Infer analysis to finish.");
+        }
+
+        try {
+            return analysis.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof MojoExecutionException mojoExecutionException) {
+                throw mojoExecutionException;
+            }
+            throw new MojoExecutionException("Background Infer analysis failed", e.getCause());
+        } catch (InterruptedException e) {
+            // Interrupting the analysis kills its Infer processes
+            analysis.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Background Infer analysis was interrupted", e);
+        }
+    }
+
+    // Waits on the Infer process the status file names until the build running it records how it ended. That build
+    // writes the status right after Infer exits, so a status still running a little later means the build is gone.
+    private AnalysisStatus awaitRecordedAnalysis(Path resultsDirPath) throws IOException, MojoExecutionException {
+        Path statusFile = resultsDirPath.resolve(AnalysisStatus.FILE_NAME);
+
+        if (!Files.exists(statusFile)) {
+            logger.error("No background Infer analysis was started for " + resultsDirPath + ". Run the analyze goal"
+                    + " with backgroundAnalysis before the join goal.");
+            throw new MojoExecutionException("No background Infer analysis found in: " + resultsDirPath);
+        }
+
+        AnalysisStatus status = AnalysisStatus.read(statusFile);
+        long settleDeadlineNanos = System.nanoTime() + STATUS_SETTLE_TIMEOUT.toNanos();
+
+        try {
+            while (status.state() == AnalysisStatus.State.RUNNING) {
+                Optional<ProcessHandle> inferProcess = status.inferProcess();
+
+                if (inferProcess.isPresent()) {
+                    logger.info("Waiting for background Infer process " + status.inferPid() + " to finish.");
+                    inferProcess.get().onExit().get();
+                    settleDeadlineNanos = System.nanoTime() + STATUS_SETTLE_TIMEOUT.toNanos();
+                } else if (System.nanoTime() - settleDeadlineNanos > 0) {
+                    logger.error("The background Infer analysis in " + resultsDirPath + " ended without recording its"
+                            + " result. The build that started it may have stopped before it finished.");
+                    throw new MojoExecutionException("Background Infer analysis did not finish in: " + resultsDirPath);
+                } else {
+                    TimeUnit.MILLISECONDS.sleep(STATUS_POLL_MILLIS);
+                }
+
+                status = AnalysisStatus.read(statusFile);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Waiting for the background Infer analysis was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Waiting for the background Infer analysis failed", e.getCause());
+        }
+
+        if (status.state() == AnalysisStatus.State.FAILED) {
+            throw new MojoExecutionException("Background Infer analysis failed: " + status.error());
+        }
+
+        return status;
+    }
+
+    private void requireCapture(MavenProject project, Path resultsDirPath) throws IOException, MojoExecutionException {
+        Path captureMarker = Path.of(project.getBuild().getDirectory()).resolve(CAPTURE_MARKER_FILE_NAME);
+
+        if (!Files.exists(captureMarker)
+                || !Files.readString(captureMarker)
+                        .equals(resultsDirPath.toAbsolutePath().toString())) {
+            logger.error("No Infer capture found in " + resultsDirPath + ". Run the capture goal with the same"
+                    + " resultsDir before the analyze goal.");
+            throw new MojoExecutionException("No Infer capture found in: " + resultsDirPath);
+        }
+    }
+
+    public void runInferOnReactor(InferParams inferParams, List<MavenProject> reactorProjects, Path inferExe)
+            throws MojoExecutionException, MojoFailureException {
+        final MavenProject aggregatorProject = inferParams.project();
+        final String resultsDir = inferParams.resultsDir();
+
+        Objects.requireNonNull(aggregatorProject, "Maven project information required to proceed with Infer analysis");
+        Objects.requireNonNull(resultsDir, "Directory to store results required to proceed with Infer analysis");
+
+        if (inferParams.incrementalAnalysis() || inferParams.baseRevision() != null) {
+            logger.warn("incrementalAnalysis and baseRevision only apply to the per module goal. Analysing the whole"
+                    + " reactor from scratch.");
+        }
+
+        try {
+            SourceFilter sourceFilter = SourceFilter.of(inferParams.sourceIncludes(), inferParams.sourceExcludes());
+            Set<String> reactorOutputDirs = new HashSet<>();
+            reactorProjects.forEach(reactorProject ->
+                    reactorOutputDirs.add(reactorProject.getBuild().getOutputDirectory()));
+
+            Map<Path, Path> moduleReports = new LinkedHashMap<>();
+            Map<Path, String> moduleIds = new HashMap<>();
+            List<Path> javaSourceFiles = new ArrayList<>();
+            Set<String> compileClasspathElements = new LinkedHashSet<>();
+            List<Path> compileSourceRoots = new ArrayList<>();
+
+            for (MavenProject reactorProject : reactorProjects) {
+                if (POM_PACKAGING.equals(reactorProject.getPackaging())) {
+                    continue;
+                }
+
+                Path moduleDir =
+                        reactorProject.getBasedir().toPath().toAbsolutePath().normalize();
+                List<Path> moduleSourceRoots = reactorProject.getCompileSourceRoots().stream()
+                        .map(Path::of)
+                        .toList();
+                List<Path> moduleSources = findJavaSources(moduleSourceRoots, moduleDir, sourceFilter);
+
+                if (moduleSources.isEmpty()) {
+                    continue;
+                }
+
+                javaSourceFiles.addAll(moduleSources);
+                compileSourceRoots.addAll(moduleSourceRoots);
+                moduleReports.put(
+                        moduleDir,
+                        Path.of(reactorProject.getBuild().getDirectory()).resolve(MODULE_REPORT_FILE_NAME));
+                moduleIds.put(moduleDir, reactorProject.getArtifactId());
+
+                // Other modules are compiled from their sources in the same run, so their classes are left out
+                for (String classpathElement : compileClasspathElementsOf(reactorProject)) {
+                    if (!reactorOutputDirs.contains(classpathElement)) {
+                        compileClasspathElements.add(classpathElement);
+                    }
+                }
+            }
+
+            if (javaSourceFiles.isEmpty()) {
+                logger.warn("No Java sources found in any module of the reactor. Skipping Infer analysis.");
+                throw new MojoFailureException("No Java sources found; skipping Infer analysis.");
+            }
+
+            logger.info("Analysing " + javaSourceFiles.size() + " Java sources of " + moduleReports.size()
+                    + " modules in one Infer run.");
+
+            Path resultsDirPath = Path.of(resultsDir);
+            Files.createDirectories(resultsDirPath);
+
+            String buildDir = aggregatorProject.getBuild().getDirectory();
+            String compileClasspath = String.join(File.pathSeparator, compileClasspathElements);
+            Path argfileWithJavaSources = createJavacArgfile(buildDir, AGGREGATE_SOURCES_ARGFILE_NAME, javaSourceFiles);
+            List<String> javacArgs = javacArgBuilder(
+                    compileClasspath,
+                    Path.of(buildDir).resolve(AGGREGATE_CLASSES_DIR_NAME).toString(),
+                    argfileWithJavaSources);
+            int jobs = inferJobs(inferParams);
+            List<String> inferArgs = inferParams.enableJavaCheckers()
+                    ? inferArgBuilderWithJavaCheckers(inferExe.toString(), jobs, resultsDirPath.toString(), javacArgs)
+                    : inferArgBuilderNoJavaCheckers(inferExe.toString(), jobs, resultsDirPath.toString(), javacArgs);
+
+            Path projectRoot =
+                    aggregatorProject.getBasedir().toPath().toAbsolutePath().normalize();
+            List<List<Path>> captureShards =
+                    CaptureShards.of(javaSourceFiles, captureShardCount(inferParams, javaSourceFiles, jobs));
+
+            if (inferParams.independentShards() > 0) {
+                runIndependentShards(
+                        inferParams,
+                        inferExe,
+                        CaptureShards.of(javaSourceFiles, inferParams.independentShards()),
+                        compileClasspath,
+                        compileSourceRoots,
+                        Path.of(buildDir),
+                        projectRoot,
+                        jobs);
+            } else if (captureShards.size() > 1) {
+                runShardedAnalysis(
+                        inferParams,
+                        inferExe,
+                        captureShards,
+                        compileClasspath,
+                        compileSourceRoots,
+                        Path.of(buildDir),
+                        projectRoot,
+                        jobs);
+            } else {
+                executeInferCommands(inferArgs, projectRoot, resultsDirPath, inferParams);
+            }
+
+            reportModuleVerdicts(
+                    InferReport.splitByModule(
+                            resultsDirPath.resolve(InferReport.FILE_NAME), projectRoot, moduleReports),
+                    moduleIds,
+                    moduleReports,
+                    inferParams.failOnIssue(),
+                    resultsDirPath);
+        } catch (IOException | MojoFailureException | MojoExecutionException e) {
+            if (e instanceof MojoFailureException) {
+                if (e.getMessage().contains("Infer analysis completed with issues found.")) {
+                    throw new MojoFailureException("Infer analysis completed with issues", e);
+                }
+
+                logger.warn("A failure occurred when running Infer on the reactor.", e);
+                throw new MojoFailureException("Failure running Infer on reactor", e);
+            }
+
+            logger.error("An error occurred when running Infer on the reactor.", e);
+            throw new MojoExecutionException("Error running Infer on reactor", e);
+        }
+    }
+
+    private void reportModuleVerdicts(
+            Map<Path, Integer> moduleIssueCounts,
+            Map<Path, String> moduleIds,
+            Map<Path, Path> moduleReports,
+            boolean failOnIssue,
+            Path resultsDirPath)
+            throws MojoFailureException {
+        int modulesWithIssues = 0;
+        int issues = 0;
+
+        for (Map.Entry<Path, Integer> moduleIssueCount : moduleIssueCounts.entrySet()) {
+            int moduleIssues = moduleIssueCount.getValue();
+
+            if (moduleIssues > 0) {
+                modulesWithIssues++;
+                issues += moduleIssues;
+                logger.warn("Infer found " + moduleIssues + " issues in " + moduleIds.get(moduleIssueCount.getKey())
+                        + ". Details in: " + moduleReports.get(moduleIssueCount.getKey()));
+            }
+        }
+
+        if (failOnIssue && issues > 0) {
+            logger.warn(
+                    "Infer analysis completed with issues found, causing the build to fail. Check Infer results for more info.");
+            throw new MojoFailureException("Infer analysis completed with issues found. " + issues + " issues in "
+                    + modulesWithIssues + " of " + moduleIssueCounts.size() + " modules. Results in: "
+                    + resultsDirPath);
+        }
+
+        logger.info("Infer analysis completed. Results in: " + resultsDirPath);
+    }
+
+    private void concludeAnalysis(InferParams inferParams, Path inferExe, int exitCode, String compileClasspath)
+            throws IOException, MojoExecutionException, MojoFailureException {
+        Path resultsDirPath = Path.of(inferParams.resultsDir());
+
+        if (inferParams.baseRevision() == null) {
+            reportVerdict(exitCode, inferParams.failOnIssue(), resultsDirPath);
+            return;
+        }
+
+        reportIntroducedIssues(inferParams, inferExe, compileClasspath, resultsDirPath.resolve(InferReport.FILE_NAME));
+    }
+
+    private void reportIntroducedIssues(
+            InferParams inferParams, Path inferExe, String compileClasspath, Path reportFile)
+            throws IOException, MojoExecutionException, MojoFailureException {
+        MavenProject project = inferParams.project();
+        Path basedir = project.getBasedir().toPath().toAbsolutePath();
+        Path repositoryRoot = GitWorktree.repositoryRoot(basedir, inferParams.stallTimeout());
+        String baseCommit = GitWorktree.resolveCommit(basedir, inferParams.baseRevision(), inferParams.stallTimeout());
+        Path baseReport = baseRevisionReport(inferParams, inferExe, compileClasspath, repositoryRoot, baseCommit);
+
+        Path reportDiffResultsDir = Path.of(project.getBuild().getDirectory()).resolve(REPORTDIFF_RESULTS_DIR_NAME);
+        executeInferCommands(
+                List.of(
+                        inferExe.toString(),
+                        INFER_REPORTDIFF_COMMAND,
+                        INFER_REPORT_CURRENT_OPTION,
+                        reportFile.toString(),
+                        INFER_REPORT_PREVIOUS_OPTION,
+                        baseReport.toString(),
+                        INFER_RESULTS_DIR_OPTION,
+                        reportDiffResultsDir.toString()),
+                basedir,
+                reportDiffResultsDir,
+                inferParams);
+
+        Path differentialDir = reportDiffResultsDir.resolve(REPORTDIFF_DIFFERENTIAL_DIR_NAME);
+        int introducedIssues = InferReport.issueCount(differentialDir.resolve(REPORTDIFF_INTRODUCED_FILE_NAME));
+        int fixedIssues = InferReport.issueCount(differentialDir.resolve(REPORTDIFF_FIXED_FILE_NAME));
+        int preservedIssues = InferReport.issueCount(differentialDir.resolve(REPORTDIFF_PRESERVED_FILE_NAME));
+
+        logger.info("Compared with " + inferParams.baseRevision() + " (" + baseCommit + "), Infer found "
+                + introducedIssues + " introduced, " + fixedIssues + " fixed and " + preservedIssues
+                + " preserved issues. Results in: " + differentialDir);
+
+        if (inferParams.failOnIssue() && introducedIssues > 0) {
+            logger.warn("Infer analysis found issues introduced since " + inferParams.baseRevision()
+                    + ", causing the build to fail. Check Infer results for more info.");
+            throw new MojoFailureException("Infer analysis completed with issues found. " + introducedIssues
+                    + " introduced since " + inferParams.baseRevision() + ". Results in: " + differentialDir);
+        }
+    }
+
+    // Only the report is kept per base commit, as reportdiff needs nothing else from the base analysis
+    private Path baseRevisionReport(
+            InferParams inferParams, Path inferExe, String compileClasspath, Path repositoryRoot, String baseCommit)
+            throws IOException, MojoExecutionException {
+        MavenProject project = inferParams.project();
+        Path basedir = project.getBasedir().toPath().toAbsolutePath();
+        Path moduleDir = repositoryRoot.relativize(basedir);
+
+        // The base is compiled against the head classpath and filtered like the head, so both are part of the key
+        List<String> cacheKeySettings = new ArrayList<>(List.of(
+                "module=" + moduleDir,
+                "infer-exe=" + inferExe.toAbsolutePath(),
+                "java-checkers=" + inferParams.enableJavaCheckers(),
+                "source-includes=" + inferParams.sourceIncludes(),
+                "source-excludes=" + inferParams.sourceExcludes()));
+        String outputDir = project.getBuild().getOutputDirectory();
+
+        for (String classpathElement : compileClasspath.split(File.pathSeparator)) {
+            if (!classpathElement.isEmpty()) {
+                // The module's own classes are compiled from the head sources, not what the base is built against
+                String stamp = classpathElement.equals(outputDir) ? "output-dir" : stampOf(Path.of(classpathElement));
+                cacheKeySettings.add("classpath=" + classpathElement + "\t" + stamp);
+            }
+        }
+
+        String cacheKey = RunFingerprint.settingsDigestOf(cacheKeySettings);
+        Path cachedReport = inferParams
+                .baseReportCacheDir()
+                .resolve(baseCommit + "-" + cacheKey.substring(0, BASE_REPORT_KEY_LENGTH) + ".json");
+
+        if (Files.exists(cachedReport)) {
+            logger.info("Reusing the Infer report of " + inferParams.baseRevision() + " from: " + cachedReport);
+            return cachedReport;
+        }
+
+        logger.info("Analysing " + inferParams.baseRevision() + " (" + baseCommit + ") with Infer to compare against.");
+
+        // Unique, as concurrent builds against the same base share the cache dir
+        Files.createDirectories(cachedReport.getParent());
+        Path pendingReport = Files.createTempFile(cachedReport.getParent(), baseCommit + "-", ".json.tmp");
+
+        try {
+            analyseBaseRevision(
+                    inferParams, inferExe, compileClasspath, repositoryRoot, baseCommit, moduleDir, pendingReport);
+            Files.move(
+                    pendingReport, cachedReport, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(pendingReport);
+        }
+
+        return cachedReport;
+    }
+
+    private void analyseBaseRevision(
+            InferParams inferParams,
+            Path inferExe,
+            String compileClasspath,
+            Path repositoryRoot,
+            String baseCommit,
+            Path moduleDir,
+            Path pendingReport)
+            throws IOException, MojoExecutionException {
+        MavenProject project = inferParams.project();
+        Path buildDir = Path.of(project.getBuild().getDirectory()).toAbsolutePath();
+
+        try (GitWorktree worktree = GitWorktree.checkout(
+                repositoryRoot, baseCommit, buildDir.resolve(BASE_WORKTREE_DIR_NAME), inferParams.stallTimeout())) {
+            List<Path> baseSourceRoots = new ArrayList<>();
+
+            for (String compileSourceRoot : project.getCompileSourceRoots()) {
+                Path rootPath = Path.of(compileSourceRoot).toAbsolutePath();
+
+                // Generated sources are not in git, so the base reuses the ones generated for this build
+                baseSourceRoots.add(
+                        rootPath.startsWith(repositoryRoot) && !rootPath.startsWith(buildDir)
+                                ? worktree.dir().resolve(repositoryRoot.relativize(rootPath))
+                                : rootPath);
+            }
+
+            List<Path> baseSourceFiles = findJavaSources(
+                    baseSourceRoots,
+                    worktree.dir().resolve(moduleDir),
+                    SourceFilter.of(inferParams.sourceIncludes(), inferParams.sourceExcludes()));
+
+            if (baseSourceFiles.isEmpty()) {
+                // The module is new, so every issue in it is introduced
+                Files.writeString(pendingReport, "[]");
+            } else {
+                Path baseResultsDir = buildDir.resolve(BASE_RESULTS_DIR_NAME);
+                Path argfile = createJavacArgfile(buildDir.toString(), BASE_SOURCES_ARGFILE_NAME, baseSourceFiles);
+                List<String> javacArgs = javacArgBuilder(
+                        compileClasspath,
+                        buildDir.resolve(BASE_CLASSES_DIR_NAME).toString(),
+                        argfile);
+                int jobs = inferJobs(inferParams);
+                List<String> inferArgs = inferParams.enableJavaCheckers()
+                        ? inferArgBuilderWithJavaCheckers(
+                                inferExe.toString(), jobs, baseResultsDir.toString(), javacArgs)
+                        : inferArgBuilderNoJavaCheckers(
+                                inferExe.toString(), jobs, baseResultsDir.toString(), javacArgs);
+
+                executeInferCommands(inferArgs, worktree.dir().resolve(moduleDir), baseResultsDir, inferParams);
+                Files.copy(
+                        baseResultsDir.resolve(InferReport.FILE_NAME),
+                        pendingReport,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private void reportVerdict(int exitCode, boolean failOnIssue, Path resultsDirPath) throws MojoFailureException {
+        // fail the build if Infer found issues (Infer returns 2 when issues found)
+        if (failOnIssue && exitCode == INFER_ISSUES_FOUND) {
+            logger.warn(
+                    "Infer analysis completed with issues found, causing the build to fail. Check Infer results for more info.");
+            throw new MojoFailureException("Infer analysis completed with issues found. Results in: " + resultsDirPath);
+        }
+
+        logger.info("Infer analysis completed. Results in: " + resultsDirPath);
+    }
+
+    // Null when a full analysis is needed
+    private List<String> incrementalChanges(
+            RunFingerprint previousFingerprint, RunFingerprint fingerprint, Path reportFile) {
+        if (previousFingerprint == null || !Files.exists(reportFile)) {
+            logger.info("No previous Infer analysis to build on. Running a full Infer analysis.");
+            return null;
+        }
+
+        List<String> changedSources =
+                fingerprint.changedSourcesSince(previousFingerprint).orElse(null);
+
+        if (changedSources == null) {
+            logger.info("The classpath, Infer version or settings changed or a source was removed since the last"
+                    + " analysis. Running a full Infer analysis.");
+        }
+
+        return changedSources;
+    }
+
+    // Infer keeps the previous capture in reactive mode and only reanalyses what the indexed files affect, so every
+    // source is still compiled for the capture while the index names just the changed ones. Which procedures of
+    // unchanged files the run reanalysed is not recorded in a stable form in infer-out, so every source depending on
+    // a changed one is indexed as well and all issues in the indexed files come from this run.
+    private int runReactiveAnalysis(
+            List<String> inferArgs,
+            InferParams inferParams,
+            List<Path> javaSourceFiles,
+            List<String> changedSources,
+            Path reportFile)
+            throws IOException, MojoExecutionException {
+        MavenProject project = inferParams.project();
+        Path basedir = project.getBasedir().toPath();
+        Path buildDir = Path.of(project.getBuild().getDirectory());
+        List<Path> changedSourcePaths = changedSources.stream().map(Path::of).toList();
+        Set<Path> dependentSources = SourceDependents.of(javaSourceFiles, changedSourcePaths);
+        Set<String> changedFiles = new LinkedHashSet<>();
+
+        for (Path indexedSource :
+                Stream.concat(changedSourcePaths.stream(), dependentSources.stream()).toList()) {
+            Path changedSourcePath = indexedSource.toAbsolutePath();
+            changedFiles.add(
+                    changedSourcePath.startsWith(basedir.toAbsolutePath())
+                            ? basedir.toAbsolutePath()
+                                    .relativize(changedSourcePath)
+                                    .toString()
+                            : changedSourcePath.toString());
+        }
+
+        Path changedFilesIndex = buildDir.resolve(CHANGED_FILES_INDEX_FILE_NAME);
+        Files.write(changedFilesIndex, changedFiles);
+
+        Path previousReport = buildDir.resolve(PREVIOUS_REPORT_FILE_NAME);
+        Files.copy(reportFile, previousReport, StandardCopyOption.REPLACE_EXISTING);
+
+        logger.info("Reanalysing " + changedSources.size() + " changed Java sources and " + dependentSources.size()
+                + " sources depending on them with Infer's reactive mode.");
+
+        List<String> reactiveArgs = new ArrayList<>(inferArgs);
+        reactiveArgs.addAll(
+                1, List.of(INFER_REACTIVE_OPTION, INFER_CHANGED_FILES_INDEX_OPTION, changedFilesIndex.toString()));
+
+        int exitCode = executeInferCommands(reactiveArgs, basedir, reportFile.getParent(), inferParams);
+        int issueCount = InferReport.merge(previousReport, reportFile, changedFiles);
+        Files.delete(previousReport);
+
+        logger.debug(
+                "Reactive Infer run exited with " + exitCode + ". The merged report holds " + issueCount + " issues.");
+
+        // The reactive exit code only covers the reanalysed procedures, the merged report covers the whole module
+        return issueCount > 0 ? INFER_ISSUES_FOUND : NORMAL_TERMINATION_FLAG;
+    }
+
+    private RunFingerprint readPreviousFingerprint(Path fingerprintFile) {
+        if (!Files.exists(fingerprintFile)) {
+            return null;
+        }
+
+        try {
+            return RunFingerprint.read(fingerprintFile);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable Infer run fingerprint " + fingerprintFile + ": " + e);
+            return null;
+        }
+    }
+
+    // failOnIssue is left out: Infer always runs with --fail-on-issue and the flag is applied to the stored exit code
+    private RunFingerprint fingerprintRun(
+            InferParams inferParams,
+            Path inferExe,
+            List<String> compileClasspathElements,
+            List<Path> javaSourceFiles,
+            RunFingerprint previousFingerprint)
+            throws IOException {
+        long startNanos = System.nanoTime();
+        String outputDir = inferParams.project().getBuild().getOutputDirectory();
+        List<String> settings = new ArrayList<>();
+        settings.add("infer-exe=" + inferExe.toAbsolutePath());
+        settings.add("java-checkers=" + inferParams.enableJavaCheckers());
+        settings.add("results-dir=" + Path.of(inferParams.resultsDir()).toAbsolutePath());
+        settings.add("javac-debug=" + logger.isDebugEnabled());
+        settings.add("output-dir=" + outputDir);
+        settings.add("independent-shards=" + inferParams.independentShards());
+        settings.add("shard-safe-checkers=" + inferParams.shardSafeCheckers());
+
+        for (String classpathElement : compileClasspathElements) {
+            // The output dir only holds classes compiled from the sources hashed below
+            String stamp = classpathElement.equals(outputDir) ? "output-dir" : stampOf(Path.of(classpathElement));
+            settings.add("classpath=" + classpathElement + "\t" + stamp);
+        }
+
+        List<RunFingerprint.SourceHash> sourceHashes = RunFingerprint.hashSources(
+                javaSourceFiles, previousFingerprint, Runtime.getRuntime().availableProcessors());
+
+        logger.debug("Fingerprinted " + sourceHashes.size() + " Java sources and " + compileClasspathElements.size()
+                + " classpath elements in " + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+
+        return new RunFingerprint(RunFingerprint.settingsDigestOf(settings), sourceHashes, NORMAL_TERMINATION_FLAG);
     }
 
-    private String buildCompileClasspathFromProjectArtifacts(MavenProject project) throws MojoExecutionException {
+    // Jars in the local repository are stamped by stat alone, sibling module output dirs by the stats of their files
+    private static String stampOf(Path classpathElement) throws IOException {
+        if (Files.isRegularFile(classpathElement)) {
+            BasicFileAttributes attributes = Files.readAttributes(classpathElement, BasicFileAttributes.class);
+            return attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        }
+
+        if (!Files.isDirectory(classpathElement)) {
+            return "missing";
+        }
+
+        long[] stamp = {0L, 0L, 0L};
+
+        Files.walkFileTree(classpathElement, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                stamp[0]++;
+                stamp[1] += attributes.size();
+                stamp[2] = Math.max(stamp[2], attributes.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return stamp[0] + ":" + stamp[1] + ":" + stamp[2];
+    }
+
+    private List<Path> findJavaSources(List<Path> sourceRoots, Path projectDir, SourceFilter sourceFilter)
+            throws MojoExecutionException {
+        List<JavaSourceWalker.PendingRoot> pendingRoots = new ArrayList<>();
+        List<Path> javaSourceFiles = new ArrayList<>();
+
+        try (var javaSourceWalker = new JavaSourceWalker(
+                projectDir.toAbsolutePath(), sourceFilter, Runtime.getRuntime().availableProcessors())) {
+            // Every root is queued before any is joined, so their subtrees are walked together
+            for (Path rootPath : sourceRoots) {
+                if (Files.isDirectory(rootPath)) {
+                    try {
+                        pendingRoots.add(javaSourceWalker.walk(rootPath));
+                    } catch (IOException e) {
+                        throw javaSourcesNotFound(rootPath, e);
+                    }
+                }
+            }
+
+            for (JavaSourceWalker.PendingRoot pendingRoot : pendingRoots) {
+                try {
+                    javaSourceFiles.addAll(pendingRoot.join());
+                } catch (IOException e) {
+                    throw javaSourcesNotFound(pendingRoot.root(), e);
+                }
+            }
+        }
+
+        return javaSourceFiles;
+    }
+
+    private MojoExecutionException javaSourcesNotFound(Path rootPath, IOException e) {
+        logger.error("Error occurred when trying to find Java sources in: " + rootPath);
+        return new MojoExecutionException("Failed to find Java sources in: " + rootPath, e);
+    }
+
+    private List<String> compileClasspathElementsOf(MavenProject project) throws MojoExecutionException {
         try {
-            List<String> compileClasspathElements = project.getCompileClasspathElements();
-            return String.join(File.pathSeparator, compileClasspathElements);
+            return project.getCompileClasspathElements();
         } catch (DependencyResolutionRequiredException e) {
             logger.error("An error occurred when compiling the classpath and the classpath could not be resolved");
             throw new MojoExecutionException("Compile classpath could not be resolved", e);
         }
     }
 
-    private Path createJavacArgfile(String buildDir, List<Path> javaSourceFiles) throws IOException {
+    private Path createJavacArgfile(String buildDir, String argfileName, List<Path> javaSourceFiles)
+            throws IOException {
         Path buildDirPath = Path.of(buildDir);
         Files.createDirectories(buildDirPath);
 
-        Path argfileWithJavaSources = buildDirPath.resolve("java-sources" + ".args");
+        Path argfileWithJavaSources = buildDirPath.resolve(argfileName);
 
         try (var bufferedWriter = Files.newBufferedWriter(argfileWithJavaSources)) {
             for (Path sourceFile : javaSourceFiles) {
@@ -154,7 +1111,12 @@ public class InferRunner {
         return argfileWithJavaSources;
     }
 
-    private List<String> javacArgBuilder(String compileClasspath, String buildOutputDir, Path argfile)
+    // Reused between runs, and kept out of the results dir because Infer empties that at the start of a full run
+    private static Path captureClassesDir(MavenProject project) {
+        return Path.of(project.getBuild().getDirectory()).resolve(CAPTURE_CLASSES_DIR_NAME);
+    }
+
+    private List<String> javacArgBuilder(String compileClasspath, String classOutputDir, Path argfile)
             throws IOException {
         List<String> javacArgs = new ArrayList<>();
         javacArgs.add(JAVAC_COMMAND);
@@ -168,8 +1130,8 @@ public class InferRunner {
             javacArgs.add(JAVAC_DEBUG_OPTION);
         }
 
-        // Direct the class output to target/classes so types resolve consistently
-        Path classesDir = Path.of(buildOutputDir);
+        // Class output goes to a scratch dir, so the compiler plugin's output and stale-source state are untouched
+        Path classesDir = Path.of(classOutputDir);
         Files.createDirectories(classesDir);
         javacArgs.add(JAVAC_DEST_DIRECTORY_OPTION);
         javacArgs.add(classesDir.toString());
@@ -180,8 +1142,249 @@ public class InferRunner {
         return javacArgs;
     }
 
+    private int captureShardCount(InferParams inferParams, List<Path> javaSourceFiles, int jobs) {
+        return inferParams.captureShards() > 0
+                ? inferParams.captureShards()
+                : CaptureShards.shardCountFor(javaSourceFiles, jobs);
+    }
+
+    private int runShardedAnalysis(
+            InferParams inferParams,
+            Path inferExe,
+            List<List<Path>> captureShards,
+            String compileClasspath,
+            List<Path> compileSourceRoots,
+            Path buildDir,
+            Path workingDir,
+            int jobs)
+            throws IOException, MojoExecutionException {
+        runShardedCapture(
+                inferParams, inferExe, captureShards, compileClasspath, compileSourceRoots, buildDir, workingDir);
+
+        Path resultsDirPath = Path.of(inferParams.resultsDir());
+        return executeInferCommands(
+                inferAnalyzeArgs(inferParams, inferExe, jobs), workingDir, resultsDirPath, inferParams);
+    }
+
+    // Captures the shards concurrently, each into its own results dir, and merges their captures into the results dir,
+    // so the analysis that follows sees the same whole program an unsharded capture gives it
+    private void runShardedCapture(
+            InferParams inferParams,
+            Path inferExe,
+            List<List<Path>> captureShards,
+            String compileClasspath,
+            List<Path> compileSourceRoots,
+            Path buildDir,
+            Path workingDir)
+            throws IOException, MojoExecutionException {
+        Path resultsDirPath = Path.of(inferParams.resultsDir());
+        Path shardsDir = freshShardsDir(buildDir.resolve(CAPTURE_SHARDS_DIR_NAME));
+        String sourcepath = sourcepathOf(compileSourceRoots);
+        List<Path> shardResultsDirs = new ArrayList<>();
+        List<Callable<Integer>> shardCaptures = new ArrayList<>();
+
+        for (int shard = 0; shard < captureShards.size(); shard++) {
+            String shardName = "shard-" + shard;
+            Path shardResultsDir = shardsDir.resolve(shardName + "-out");
+            List<String> javacArgs =
+                    shardJavacArgs(shardsDir, shardName, captureShards.get(shard), compileClasspath, sourcepath);
+
+            List<String> captureArgs = Stream.concat(
+                            Stream.of(
+                                    inferExe.toString(),
+                                    INFER_CAPTURE_COMMAND,
+                                    INFER_RESULTS_DIR_OPTION,
+                                    shardResultsDir.toString(),
+                                    INFER_ARG_TERMINATOR),
+                            javacArgs.stream())
+                    .toList();
+
+            shardResultsDirs.add(shardResultsDir);
+            shardCaptures.add(() -> executeInferCommands(captureArgs, workingDir, shardResultsDir, inferParams));
+        }
+
+        logger.info("Capturing " + captureShards.stream().mapToInt(List::size).sum() + " Java sources in "
+                + captureShards.size() + " concurrent shards.");
+        runShards(shardCaptures, shardCaptures.size());
+
+        List<String> mergeArgs = new ArrayList<>(List.of(
+                inferExe.toString(), INFER_CAPTURE_COMMAND, INFER_RESULTS_DIR_OPTION, resultsDirPath.toString()));
+
+        for (Path shardResultsDir : shardResultsDirs) {
+            mergeArgs.add(INFER_MERGE_CAPTURE_OPTION);
+            mergeArgs.add(shardResultsDir.toString());
+        }
+
+        executeInferCommands(mergeArgs, workingDir, resultsDirPath, inferParams);
+    }
+
+    private List<String> inferAnalyzeArgs(InferParams inferParams, Path inferExe, int jobs) {
+        List<String> analyzeArgs = new ArrayList<>(List.of(inferExe.toString(), INFER_ANALYZE_COMMAND));
+
+        if (inferParams.enableJavaCheckers()) {
+            analyzeArgs.addAll(List.of(
+                    INFER_BUFFEROVERRUN_OPTION,
+                    INFER_COST_OPTION,
+                    INFER_LOOP_HOISTING_OPTION,
+                    INFER_BIABDUCTION_OPTION));
+        }
+
+        analyzeArgs.addAll(List.of(
+                INFER_FAIL_ON_ISSUE_OPTION,
+                INFER_JOBS_OPTION,
+                String.valueOf(jobs),
+                INFER_RESULTS_DIR_OPTION,
+                Path.of(inferParams.resultsDir()).toString()));
+
+        return analyzeArgs;
+    }
+
+    // Analyses each shard in a separate Infer run with only shard-safe checkers, and merges their reports. Nothing is
+    // shared between the runs, so issues that need facts from another shard are not found.
+    private int runIndependentShards(
+            InferParams inferParams,
+            Path inferExe,
+            List<List<Path>> independentShards,
+            String compileClasspath,
+            List<Path> compileSourceRoots,
+            Path buildDir,
+            Path workingDir,
+            int jobs)
+            throws IOException, MojoExecutionException {
+        Path resultsDirPath = Path.of(inferParams.resultsDir());
+        Path shardsDir = freshShardsDir(buildDir.resolve(INDEPENDENT_SHARDS_DIR_NAME));
+        String sourcepath = sourcepathOf(compileSourceRoots);
+        int concurrentShards = Math.min(independentShards.size(), jobs);
+        int shardJobs = Math.max(1, jobs / concurrentShards);
+        List<String> checkerOptions = inferParams.shardSafeCheckers().stream()
+                .map(ShardSafeChecker::option)
+                .toList();
+        List<Path> shardReports = new ArrayList<>();
+        List<Callable<Integer>> shardAnalyses = new ArrayList<>();
+
+        for (int shard = 0; shard < independentShards.size(); shard++) {
+            String shardName = "shard-" + shard;
+            Path shardResultsDir = shardsDir.resolve(shardName + "-out");
+            List<String> analysisArgs = new ArrayList<>(List.of(inferExe.toString(), INFER_NO_DEFAULT_CHECKERS_OPTION));
+            analysisArgs.addAll(checkerOptions);
+            analysisArgs.addAll(List.of(
+                    INFER_JOBS_OPTION,
+                    String.valueOf(shardJobs),
+                    INFER_RESULTS_DIR_OPTION,
+                    shardResultsDir.toString(),
+                    INFER_ARG_TERMINATOR));
+            analysisArgs.addAll(
+                    shardJavacArgs(shardsDir, shardName, independentShards.get(shard), compileClasspath, sourcepath));
+
+            shardReports.add(shardResultsDir.resolve(InferReport.FILE_NAME));
+            shardAnalyses.add(() -> executeInferCommands(analysisArgs, workingDir, shardResultsDir, inferParams));
+        }
+
+        logger.info("Independent shard mode: analysing " + independentShards.size() + " shards separately, "
+                + concurrentShards + " at a time, with only the shard-safe checkers "
+                + inferParams.shardSafeCheckers().stream()
+                        .map(ShardSafeChecker::id)
+                        .collect(Collectors.joining(", "))
+                + ". Issues that need facts from another shard are not reported.");
+        runShards(shardAnalyses, concurrentShards);
+
+        int issues = InferReport.mergeShards(shardReports, resultsDirPath.resolve(InferReport.FILE_NAME));
+        logger.info("Merged " + issues + " distinct issues from " + shardReports.size() + " shard reports.");
+
+        return issues > 0 ? INFER_ISSUES_FOUND : NORMAL_TERMINATION_FLAG;
+    }
+
+    private static Path freshShardsDir(Path shardsDir) throws IOException {
+        if (Files.exists(shardsDir)) {
+            PathUtils.deleteDirectory(shardsDir);
+        }
+
+        return Files.createDirectories(shardsDir);
+    }
+
+    private static String sourcepathOf(List<Path> compileSourceRoots) {
+        return compileSourceRoots.stream()
+                .filter(Files::isDirectory)
+                .map(Path::toString)
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    // Types from other shards are resolved from their sources, without compiling or capturing them a second time
+    private List<String> shardJavacArgs(
+            Path shardsDir, String shardName, List<Path> shardSources, String compileClasspath, String sourcepath)
+            throws IOException {
+        Path argfile = createJavacArgfile(shardsDir.toString(), shardName + ".args", shardSources);
+        List<String> javacArgs = new ArrayList<>(javacArgBuilder(
+                compileClasspath, shardsDir.resolve(shardName + "-classes").toString(), argfile));
+        javacArgs.addAll(
+                javacArgs.size() - 1, List.of(JAVAC_SOURCEPATH_OPTION, sourcepath, JAVAC_IMPLICIT_NONE_OPTION));
+
+        return javacArgs;
+    }
+
+    private void runShards(List<Callable<Integer>> shardRuns, int threads) throws IOException, MojoExecutionException {
+        try (ExecutorService shardPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "infer-shard");
+            thread.setDaemon(true);
+            return thread;
+        })) {
+            List<Future<Integer>> runs = new ArrayList<>();
+            shardRuns.forEach(shardRun -> runs.add(shardPool.submit(shardRun)));
+
+            for (Future<Integer> run : runs) {
+                try {
+                    run.get();
+                } catch (ExecutionException e) {
+                    // Interrupting the other shards kills their Infer processes, and cancels those not started yet
+                    runs.forEach(pendingRun -> pendingRun.cancel(true));
+
+                    if (e.getCause() instanceof IOException ioException) {
+                        throw ioException;
+                    }
+                    if (e.getCause() instanceof MojoExecutionException mojoExecutionException) {
+                        throw mojoExecutionException;
+                    }
+                    throw new MojoExecutionException("Infer shard failed", e.getCause());
+                } catch (InterruptedException e) {
+                    runs.forEach(pendingRun -> pendingRun.cancel(true));
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException("Infer shards were interrupted", e);
+                }
+            }
+        }
+    }
+
+    private int inferJobs(InferParams inferParams) {
+        if (inferParams.jobs() > 0) {
+            logger.info("Running Infer with " + inferParams.jobs() + " jobs as configured by inferJobs.");
+            return inferParams.jobs();
+        }
+
+        InferJobs.ResourceLimits limits;
+
+        try {
+            limits = InferJobs.detectLimits(cgroupRoot, procSelfCgroup);
+        } catch (IOException e) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            logger.warn("Could not read the cgroup limits of this build, running Infer with " + processors
+                    + " jobs, one per processor: " + e);
+            return processors;
+        }
+
+        // This JVM shares the memory limit, so its own heap is kept out of what the workers may use
+        long reservedBytes = Runtime.getRuntime().maxMemory();
+        int jobs = InferJobs.jobsFor(limits, reservedBytes, inferParams.workerMemoryMegabytes() * BYTES_PER_MEGABYTE);
+
+        logger.info("Running Infer with " + jobs + " jobs for " + limits.cpus() + " CPUs"
+                + (limits.cpuQuota() ? " (cgroup quota)" : "") + " and " + limits.memoryBytes() / BYTES_PER_MEGABYTE
+                + " MB of memory" + (limits.memoryLimit() ? " (cgroup limit)" : "") + ", less "
+                + reservedBytes / BYTES_PER_MEGABYTE + " MB for Maven, at " + inferParams.workerMemoryMegabytes()
+                + " MB per worker. Set inferJobs to override.");
+        return jobs;
+    }
+
     private List<String> inferArgBuilderWithJavaCheckers(
-            String inferExeOption, String resultsDirPathValue, List<String> javacArgs) {
+            String inferExeOption, int jobs, String resultsDirPathValue, List<String> javacArgs) {
         return Stream.concat(
                         Stream.of(
                                 inferExeOption,
@@ -190,6 +1393,8 @@ public class InferRunner {
                                 INFER_LOOP_HOISTING_OPTION,
                                 INFER_BIABDUCTION_OPTION,
                                 INFER_FAIL_ON_ISSUE_OPTION,
+                                INFER_JOBS_OPTION,
+                                String.valueOf(jobs),
                                 INFER_RESULTS_DIR_OPTION,
                                 resultsDirPathValue,
                                 INFER_ARG_TERMINATOR),
@@ -198,11 +1403,13 @@ public class InferRunner {
     }
 
     private List<String> inferArgBuilderNoJavaCheckers(
-            String inferExeOption, String resultsDirPathValue, List<String> javacArgs) {
+            String inferExeOption, int jobs, String resultsDirPathValue, List<String> javacArgs) {
         return Stream.concat(
                         Stream.of(
                                 inferExeOption,
                                 INFER_FAIL_ON_ISSUE_OPTION,
+                                INFER_JOBS_OPTION,
+                                String.valueOf(jobs),
                                 INFER_RESULTS_DIR_OPTION,
                                 resultsDirPathValue,
                                 INFER_ARG_TERMINATOR),
@@ -210,54 +1417,170 @@ public class InferRunner {
                 .toList();
     }
 
-    private int executeInferCommands(List<String> inferCommands, Path workingDir)
+    private int executeInferCommands(
+            List<String> inferCommands, Path workingDir, Path commandResultsDir, InferParams inferParams)
+            throws IOException, MojoExecutionException {
+        return executeInferCommands(inferCommands, workingDir, commandResultsDir, inferParams, inferProcess -> {});
+    }
+
+    private int executeInferCommands(
+            List<String> inferCommands,
+            Path workingDir,
+            Path commandResultsDir,
+            InferParams inferParams,
+            Consumer<ProcessHandle> onInferStart)
             throws IOException, MojoExecutionException {
-        logger.debug("Running: " + String.join(" ", inferCommands));
+        // Written beside the results dir and moved into it at the end, as Infer empties the results dir when it starts
+        Path consoleLog = commandResultsDir.resolve(InferConsole.CONSOLE_LOG_FILE_NAME);
+        Path pendingConsoleLog =
+                commandResultsDir.resolveSibling(commandResultsDir.getFileName() + "-" + consoleLog.getFileName());
+        Files.createDirectories(pendingConsoleLog.getParent());
+        long memoryCeilingBytes = memoryCeilingBytes();
+
+        try (var console = new InferConsole(logger, inferParams.verboseOutput(), pendingConsoleLog)) {
+            List<String> commands = inferCommands;
+            List<ProcessTreeMonitor.ResourceUsage> attempts = new ArrayList<>();
 
+            while (true) {
+                logger.debug("Running: " + String.join(" ", commands));
+                InferRun inferRun = runInferCommands(
+                        commands, workingDir, inferParams, console, consoleLog, memoryCeilingBytes, onInferStart);
+                int exitCode = inferRun.exitCode();
+
+                Files.createDirectories(commandResultsDir);
+                attempts.add(inferRun.usage());
+                ProcessTreeMonitor.writeUsage(attempts, commandResultsDir.resolve(ProcessTreeMonitor.USAGE_FILE_NAME));
+                logger.debug("Infer used " + inferRun.usage().summary());
+
+                if (exitCode == NORMAL_TERMINATION_FLAG || exitCode == INFER_ISSUES_FOUND) {
+                    return exitCode;
+                }
+
+                int jobs = jobsOf(commands);
+
+                // Retried once, and only when fewer workers can make a difference
+                if (commands == inferCommands && jobs > 1 && inferRun.usage().hitMemoryCeiling()) {
+                    logger.warn("Infer exited with code " + exitCode + " after using "
+                            + inferRun.usage().summary() + ", at the memory limit. Retrying once with " + jobs / 2
+                            + " jobs.");
+                    commands = withJobs(commands, jobs / 2);
+                    continue;
+                }
+
+                logger.error(
+                        "An error occurred during Infer due to unexpected exit code returned by the process running Infer. See stacktrace for more info.");
+
+                if (!inferParams.verboseOutput()) {
+                    logger.error(lastOutput(inferRun.tail(), consoleLog));
+                }
+
+                throw new MojoExecutionException("Infer analysis errored with unexpected exit code " + exitCode + ": "
+                        + String.join(" ", commands));
+            }
+        } finally {
+            keepConsoleLog(pendingConsoleLog, consoleLog);
+        }
+    }
+
+    private InferRun runInferCommands(
+            List<String> inferCommands,
+            Path workingDir,
+            InferParams inferParams,
+            InferConsole console,
+            Path consoleLog,
+            long memoryCeilingBytes,
+            Consumer<ProcessHandle> onInferStart)
+            throws IOException, MojoExecutionException {
         var processBuilder = new ProcessBuilder(inferCommands);
         processBuilder.directory(workingDir.toFile());
         processBuilder.redirectErrorStream(true);
 
+        long startOomKills = ProcessTreeMonitor.oomKills(cgroupRoot, procSelfCgroup, logger);
         Process process = processBuilder.start();
-        logProcessOutput(process);
+        onInferStart.accept(process.toHandle());
+        var outputPump = ProcessOutputPump.start(process.getInputStream(), console);
+        var watchdog =
+                new ProcessWatchdog(process, outputPump, inferParams.stallTimeout(), inferParams.analysisTimeout());
 
-        try {
-            boolean finished = process.waitFor(PROCESS_MAX_TIMEOUT, MINUTES);
+        try (var processTree = ProcessTree.guard(process);
+                var monitor = ProcessTreeMonitor.start(
+                        process, memoryCeilingBytes, startOomKills, cgroupRoot, procSelfCgroup, logger)) {
+            ProcessWatchdog.Outcome outcome = watchdog.await();
+
+            // Torn down by this plugin as the JVM shuts down, so running Infer again would only be torn down in turn
+            if (processTree.tornDown()) {
+                throw new MojoExecutionException(
+                        "Infer analysis was cancelled as the build shut down: " + inferCommands.getFirst());
+            }
 
-            if (!finished) {
-                process.destroyForcibly();
+            if (outcome == ProcessWatchdog.Outcome.TIMED_OUT) {
                 logger.error(
                         "An error occurred during Infer due to timeout running command. See stacktrace for more info.");
                 throw new MojoExecutionException(
                         "Infer analysis errored with timeout running command: " + inferCommands.getFirst());
             }
 
+            if (outcome == ProcessWatchdog.Outcome.STALLED) {
+                logger.error("Infer wrote no output and used no CPU for " + inferParams.stallTimeout()
+                        + " and was killed. " + lastOutput(outputPump.tail(), consoleLog));
+                throw new MojoExecutionException("Infer analysis stalled running command: " + inferCommands.getFirst());
+            }
+
+            if (!outputPump.awaitEnd(OUTPUT_DRAIN_TIMEOUT)) {
+                logger.warn("Infer exited but a process it started still holds its output open. Not waiting for it.");
+            }
+
+            if (outputPump.failure() != null) {
+                throw outputPump.failure();
+            }
+
+            return new InferRun(process.exitValue(), outputPump.tail(), monitor.usage());
         } catch (InterruptedException e) {
+            watchdog.killProcessTree();
             Thread.currentThread().interrupt();
             logger.error(
                     "An error occurred during Infer due to an interruption in the thread running command. See stacktrace for more info.");
             throw new MojoExecutionException(
                     "Infer analysis errored with interrupted running command: " + inferCommands.getFirst(), e);
         }
+    }
 
-        int exitCode = process.exitValue();
-
-        if (exitCode != NORMAL_TERMINATION_FLAG && exitCode != INFER_ISSUES_FOUND) {
-            logger.error(
-                    "An error occurred during Infer due to unexpected exit code returned by the process running Infer. See stacktrace for more info.");
-            throw new MojoExecutionException("Infer analysis errored with unexpected exit code " + exitCode + ": "
-                    + String.join(" ", inferCommands));
+    // Zero when unknown, which turns the memory warnings and retry off
+    private long memoryCeilingBytes() {
+        try {
+            return InferJobs.detectLimits(cgroupRoot, procSelfCgroup).memoryBytes();
+        } catch (IOException e) {
+            logger.debug("Could not read the memory limit of this build: " + e);
+            return 0L;
         }
+    }
+
+    private static int jobsOf(List<String> inferCommands) {
+        int jobsOptionIndex = inferCommands.indexOf(INFER_JOBS_OPTION);
+        return jobsOptionIndex < 0 ? 0 : Integer.parseInt(inferCommands.get(jobsOptionIndex + 1));
+    }
+
+    private static List<String> withJobs(List<String> inferCommands, int jobs) {
+        List<String> commands = new ArrayList<>(inferCommands);
+        commands.set(commands.indexOf(INFER_JOBS_OPTION) + 1, String.valueOf(jobs));
+        return commands;
+    }
 
-        return exitCode;
+    private static String lastOutput(List<String> tail, Path consoleLog) {
+        return "The last lines Infer wrote, all of its output is in " + consoleLog + ":" + System.lineSeparator()
+                + String.join(System.lineSeparator(), tail);
     }
 
-    private void logProcessOutput(Process process) throws IOException {
-        try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            reader.lines()
-                    .map(String::stripTrailing)
-                    .filter(line -> !line.isBlank())
-                    .forEach(logger::info);
+    private void keepConsoleLog(Path pendingConsoleLog, Path consoleLog) {
+        try {
+            Files.createDirectories(consoleLog.getParent());
+            Files.move(pendingConsoleLog, consoleLog, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not move the Infer console log to " + consoleLog + ": " + e);
         }
     }
+
+    private record InferRun(int exitCode, List<String> tail, ProcessTreeMonitor.ResourceUsage usage) {}
+
+    private record BackgroundAnalysis(Future<Integer> run, Path inferExe) {}
 }
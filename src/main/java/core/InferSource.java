@@ -0,0 +1,67 @@
+package core;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+
+// Somewhere the Infer tarball for a version and platform can be fetched from. Sources are configured as strings in
+// the order they should be tried.
+public sealed interface InferSource {
+
+    InferSource GITHUB_RELEASES = new HttpMirror(URI.create("https://github.com/facebook/infer/releases/download/"));
+
+    String SUPPORTED_FORMATS = "file:///path/to/dir-or-tarball, mvn:<groupId>:<artifactId> or an http(s):// mirror URL";
+
+    static Optional<InferSource> parse(String source) {
+        String trimmedSource = source.trim();
+        String lowerCaseSource = trimmedSource.toLowerCase(Locale.ROOT);
+
+        try {
+            if (lowerCaseSource.startsWith("file:")) {
+                return Optional.of(new LocalFile(Path.of(URI.create(trimmedSource))));
+            }
+            if (lowerCaseSource.startsWith("mvn:")) {
+                String[] coordinates = trimmedSource.substring("mvn:".length()).split(":");
+                return coordinates.length == 2 && !coordinates[0].isBlank() && !coordinates[1].isBlank()
+                        ? Optional.of(new MavenArtifact(coordinates[0], coordinates[1]))
+                        : Optional.empty();
+            }
+            if (lowerCaseSource.startsWith("http://") || lowerCaseSource.startsWith("https://")) {
+                // Mirrors keep the GitHub releases layout under their base URL
+                return Optional.of(
+                        new HttpMirror(URI.create(trimmedSource.endsWith("/") ? trimmedSource : trimmedSource + "/")));
+            }
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        return Optional.empty();
+    }
+
+    // A tarball, or a dir holding the tarball under its release file name, e.g. infer-linux-x86_64-v1.2.0.tar.xz
+    record LocalFile(Path path) implements InferSource {
+
+        @Override
+        public String toString() {
+            return path.toUri().toString();
+        }
+    }
+
+    // Resolved through the Maven repository system as <groupId>:<artifactId>:tar.xz:<os-arch>:<version without v>
+    record MavenArtifact(String groupId, String artifactId) implements InferSource {
+
+        @Override
+        public String toString() {
+            return "mvn:" + groupId + ":" + artifactId;
+        }
+    }
+
+    record HttpMirror(URI baseUri) implements InferSource {
+
+        @Override
+        public String toString() {
+            return baseUri.toString();
+        }
+    }
+}
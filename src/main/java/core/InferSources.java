@@ -0,0 +1,16 @@
+package core;
+
+import java.util.List;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+
+public record InferSources(
+        List<InferSource> sources,
+        boolean offline,
+        RepositorySystemSession repositorySession,
+        List<RemoteRepository> remoteRepositories) {
+
+    public static InferSources githubReleases() {
+        return new InferSources(List.of(InferSource.GITHUB_RELEASES), false, null, List.of());
+    }
+}
@@ -0,0 +1,348 @@
+package core;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.commons.io.file.PathUtils;
+import org.codehaus.plexus.logging.Logger;
+
+// Tracks when each Infer install under an install dir was last used and evicts the least recently used ones once the
+// dir grows past its budget. A goal holds a shared lock on the install it uses until it releases it at the end of its
+// execution, and eviction only removes installs it can lock exclusively, so an install in use by a concurrent build is
+// never deleted. Releasing per goal rather than on JVM exit keeps a long-lived Maven daemon from pinning every version
+// it ever used.
+@Named
+@Singleton
+public class InstallCache {
+
+    static final String LAST_USED_FILE_NAME = ".last-used";
+    static final String IN_USE_LOCK_FILE_NAME = ".in-use.lock";
+
+    private static final Pattern INFER_ROOT_NAME = Pattern.compile("infer-[^/\\\\]+-v[^/\\\\]+");
+    private static final String EVICTION_DIR_PREFIX = ".infer-staging-evicted-";
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    private final Logger logger;
+
+    private final Map<Path, InUse> inUseLocks = new ConcurrentHashMap<>();
+
+    @Inject
+    public InstallCache(Logger logger) {
+        this.logger = logger;
+    }
+
+    // Returns false when the install was evicted between finding it and locking it
+    synchronized boolean markInUse(Path inferRoot, Path inferExe) throws IOException {
+        Path inUseKey = inferRoot.toAbsolutePath().normalize();
+        InUse inUse = inUseLocks.get(inUseKey);
+
+        // File locks are held per JVM, so goals running at once, e.g. in a parallel build, share one and count holders
+        if (inUse == null) {
+            FileLock inUseLock = lockInUse(inferRoot);
+
+            if (inUseLock == null) {
+                return false;
+            }
+
+            inUse = new InUse(inUseLock);
+            inUseLocks.put(inUseKey, inUse);
+        }
+
+        // Eviction renames the root away while holding the exclusive lock, so re-check now the shared one is held
+        if (!Files.exists(inferExe)) {
+            if (inUse.holders == 0) {
+                inUseLocks.remove(inUseKey);
+                inUse.lock.channel().close();
+            }
+
+            return false;
+        }
+
+        inUse.holders++;
+        touchLastUsed(inferRoot);
+        return true;
+    }
+
+    // Once every goal that marked the install in use released it, it may be evicted again
+    synchronized void releaseInUse(Path inferRoot) throws IOException {
+        Path inUseKey = inferRoot.toAbsolutePath().normalize();
+        InUse inUse = inUseLocks.get(inUseKey);
+
+        if (inUse == null) {
+            return;
+        }
+
+        if (--inUse.holders <= 0) {
+            inUseLocks.remove(inUseKey);
+            inUse.lock.channel().close();
+        }
+    }
+
+    private FileLock lockInUse(Path inferRoot) throws IOException {
+        FileChannel inUseChannel;
+
+        try {
+            inUseChannel = FileChannel.open(
+                    inferRoot.resolve(IN_USE_LOCK_FILE_NAME),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        try {
+            FileLock inUseLock;
+
+            try {
+                inUseLock = inUseChannel.tryLock(0L, Long.MAX_VALUE, true);
+            } catch (OverlappingFileLockException e) {
+                // Another cache in this JVM, e.g. of another plugin version, holds the lock file
+                inUseLock = null;
+            }
+
+            if (inUseLock == null) {
+                // Another build is evicting this install right now
+                inUseChannel.close();
+            }
+
+            return inUseLock;
+        } catch (IOException | RuntimeException e) {
+            inUseChannel.close();
+            throw e;
+        }
+    }
+
+    private void touchLastUsed(Path inferRoot) throws IOException {
+        Path lastUsedFile = inferRoot.resolve(LAST_USED_FILE_NAME);
+
+        if (!Files.exists(lastUsedFile)) {
+            Files.createFile(lastUsedFile);
+        }
+
+        Files.setLastModifiedTime(lastUsedFile, FileTime.from(Instant.now()));
+    }
+
+    // Callers hold the install dir lock, so no install can be promoted into place while this runs
+    void evictLeastRecentlyUsed(Path installDir, Path currentInferRoot, long budgetMegabytes) throws IOException {
+        long budgetBytes = budgetMegabytes * BYTES_PER_MEGABYTE;
+        List<CachedInstall> cachedInstalls = findCachedInstalls(installDir);
+        DiskUsage diskUsage =
+                DiskUsage.of(cachedInstalls.stream().map(CachedInstall::root).toList());
+        long totalBytes = diskUsage.totalBytes();
+
+        if (totalBytes <= budgetBytes) {
+            return;
+        }
+
+        logger.debug("Infer installs in " + installDir + " use " + totalBytes / BYTES_PER_MEGABYTE + " MB of the "
+                + budgetMegabytes + " MB budget. Evicting the least recently used.");
+
+        List<CachedInstall> evictionCandidates = cachedInstalls.stream()
+                .filter(cachedInstall -> !cachedInstall.root().equals(currentInferRoot))
+                .sorted(Comparator.comparing(CachedInstall::lastUsed))
+                .toList();
+
+        for (CachedInstall candidate : evictionCandidates) {
+            if (totalBytes <= budgetBytes) {
+                break;
+            }
+
+            // Only what no remaining install links to is freed, so an upgrade sharing most files frees little
+            if (evict(installDir, candidate, diskUsage.exclusiveBytes(candidate.root()))) {
+                diskUsage.remove(candidate.root());
+                totalBytes = diskUsage.totalBytes();
+            }
+        }
+
+        if (totalBytes > budgetBytes) {
+            logger.warn("Infer installs in " + installDir + " still use " + totalBytes / BYTES_PER_MEGABYTE
+                    + " MB, over the " + budgetMegabytes + " MB budget. The remaining installs are in use.");
+        }
+    }
+
+    // Most recently used first
+    List<Path> installsByRecentUse(Path installDir) throws IOException {
+        Map<Path, FileTime> lastUsedByRoot = new HashMap<>();
+
+        for (Path inferRoot : findInferRoots(installDir)) {
+            lastUsedByRoot.put(inferRoot, lastUsed(inferRoot));
+        }
+
+        return lastUsedByRoot.keySet().stream()
+                .sorted(Comparator.comparing(lastUsedByRoot::get).reversed())
+                .toList();
+    }
+
+    private List<CachedInstall> findCachedInstalls(Path installDir) throws IOException {
+        List<CachedInstall> cachedInstalls = new ArrayList<>();
+
+        for (Path inferRoot : findInferRoots(installDir)) {
+            cachedInstalls.add(new CachedInstall(inferRoot, lastUsed(inferRoot)));
+        }
+
+        return cachedInstalls;
+    }
+
+    private List<Path> findInferRoots(Path installDir) throws IOException {
+        List<Path> inferRoots = new ArrayList<>();
+
+        try (DirectoryStream<Path> installDirEntries = Files.newDirectoryStream(
+                installDir,
+                entry -> Files.isDirectory(entry)
+                        && INFER_ROOT_NAME
+                                .matcher(entry.getFileName().toString())
+                                .matches())) {
+            installDirEntries.forEach(inferRoots::add);
+        }
+
+        return inferRoots;
+    }
+
+    private FileTime lastUsed(Path inferRoot) throws IOException {
+        Path lastUsedFile = inferRoot.resolve(LAST_USED_FILE_NAME);
+        return Files.getLastModifiedTime(Files.exists(lastUsedFile) ? lastUsedFile : inferRoot);
+    }
+
+    private boolean evict(Path installDir, CachedInstall cachedInstall, long freedBytes) throws IOException {
+        Path evictionDir = moveAwayUnlessInUse(installDir, cachedInstall.root(), freedBytes);
+
+        if (evictionDir == null) {
+            return false;
+        }
+
+        try {
+            PathUtils.deleteDirectory(evictionDir);
+        } catch (IOException e) {
+            // Left for the next install to remove with the other stale staging dirs
+            logger.debug("Could not remove evicted Infer installation " + evictionDir + ": " + e);
+        }
+
+        return true;
+    }
+
+    // Synchronized with markInUse and releaseInUse: file locks are held per JVM, so locking the lock file here while a
+    // goal locks it would fail that goal, and closing either channel would drop the other one's lock. Returns null when
+    // the install is in use.
+    private synchronized Path moveAwayUnlessInUse(Path installDir, Path inferRoot, long freedBytes)
+            throws IOException {
+        if (inUseLocks.containsKey(inferRoot.toAbsolutePath().normalize())) {
+            logger.debug("Not evicting Infer installation used by this build: " + inferRoot);
+            return null;
+        }
+
+        try (var inUseChannel = FileChannel.open(
+                inferRoot.resolve(IN_USE_LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock evictionLock;
+
+            try {
+                evictionLock = inUseChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                evictionLock = null;
+            }
+
+            if (evictionLock == null) {
+                logger.debug("Not evicting Infer installation in use by another build: " + inferRoot);
+                return null;
+            }
+
+            logger.info("Evicting least recently used Infer installation: " + inferRoot + " ("
+                    + freedBytes / BYTES_PER_MEGABYTE + " MB)");
+
+            // Renamed away while still locked, so a build that locks it next sees the install is gone
+            Path evictionDir = Files.createTempDirectory(installDir, EVICTION_DIR_PREFIX);
+            Files.move(inferRoot, evictionDir.resolve(inferRoot.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+            evictionLock.release();
+            return evictionDir;
+        }
+    }
+
+    private record CachedInstall(Path root, FileTime lastUsed) {}
+
+    private static final class InUse {
+
+        private final FileLock lock;
+        private int holders;
+
+        private InUse(FileLock lock) {
+            this.lock = lock;
+        }
+    }
+
+    // Upgrades hard link the files they share with the previous install, so every file is counted once by its inode,
+    // however many installs link to it, and belongs to an install alone only while no other one links to it
+    private static final class DiskUsage {
+
+        private final Map<Object, Long> sizeByFile = new HashMap<>();
+        private final Map<Object, Set<Path>> rootsByFile = new HashMap<>();
+
+        static DiskUsage of(List<Path> inferRoots) throws IOException {
+            DiskUsage diskUsage = new DiskUsage();
+
+            for (Path inferRoot : inferRoots) {
+                Files.walkFileTree(inferRoot, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        // Without inode keys on this file system, every path counts as its own file
+                        Object fileKey = attributes.fileKey() != null ? attributes.fileKey() : file;
+                        diskUsage.sizeByFile.put(fileKey, attributes.size());
+                        diskUsage
+                                .rootsByFile
+                                .computeIfAbsent(fileKey, key -> new HashSet<>())
+                                .add(inferRoot);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+
+            return diskUsage;
+        }
+
+        long totalBytes() {
+            return sizeByFile.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        long exclusiveBytes(Path inferRoot) {
+            return rootsByFile.entrySet().stream()
+                    .filter(rootsOfFile -> rootsOfFile.getValue().equals(Set.of(inferRoot)))
+                    .mapToLong(rootsOfFile -> sizeByFile.get(rootsOfFile.getKey()))
+                    .sum();
+        }
+
+        void remove(Path inferRoot) {
+            rootsByFile.values().forEach(roots -> roots.remove(inferRoot));
+            rootsByFile.entrySet().removeIf(rootsOfFile -> {
+                if (rootsOfFile.getValue().isEmpty()) {
+                    sizeByFile.remove(rootsOfFile.getKey());
+                    return true;
+                }
+
+                return false;
+            });
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package core;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+// Lists every file and symlink extracted from the Infer tarball with its size and CRC-32, plus the SHA-256 of the
+// tarball itself and the extraction profile that chose the entries. Warm builds stat a sample of the entries, deep
+// verification checks the content of all of them.
+final class InstallManifest {
+
+    static final String FILE_NAME = ".infer-manifest";
+
+    private static final String HEADER = "# infer-maven-plugin install manifest v1";
+    private static final String TARBALL_DIGEST_KEY = "tarball-sha256";
+    private static final String PROFILE_KEY = "profile";
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String FILE_TYPE = "F";
+    private static final String SYMLINK_TYPE = "S";
+
+    private final String tarballDigest;
+    private final ExtractionProfile profile;
+    private final List<Entry> entries;
+
+    InstallManifest(String tarballDigest, ExtractionProfile profile, List<Entry> entries) {
+        this.tarballDigest = tarballDigest;
+        this.profile = profile;
+        this.entries = List.copyOf(entries);
+    }
+
+    String tarballDigest() {
+        return tarballDigest;
+    }
+
+    ExtractionProfile profile() {
+        return profile;
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    static InstallManifest read(Path manifestFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                throw new IOException("Unrecognised Infer install manifest: " + manifestFile);
+            }
+
+            String[] digestLine = splitLine(reader.readLine(), 2, manifestFile);
+            if (!TARBALL_DIGEST_KEY.equals(digestLine[0])) {
+                throw new IOException("Infer install manifest is missing the tarball digest: " + manifestFile);
+            }
+
+            String[] profileLine = splitLine(reader.readLine(), 2, manifestFile);
+            if (!PROFILE_KEY.equals(profileLine[0])) {
+                throw new IOException("Infer install manifest is missing the extraction profile: " + manifestFile);
+            }
+
+            ExtractionProfile profile = ExtractionProfile.fromId(profileLine[1])
+                    .orElseThrow(() -> new IOException("Unknown extraction profile " + profileLine[1]
+                            + " in Infer install manifest: " + manifestFile));
+            List<Entry> entries = new ArrayList<>();
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                entries.add(parseEntry(line, manifestFile));
+            }
+
+            return new InstallManifest(digestLine[1], profile, entries);
+        }
+    }
+
+    private static Entry parseEntry(String line, Path manifestFile) throws IOException {
+        try {
+            if (line.startsWith(FILE_TYPE + FIELD_SEPARATOR)) {
+                String[] fields = splitLine(line, 4, manifestFile);
+                return Entry.file(fields[3], Long.parseLong(fields[1]), Long.parseLong(fields[2], 16));
+            }
+            if (line.startsWith(SYMLINK_TYPE + FIELD_SEPARATOR)) {
+                String[] fields = splitLine(line, 3, manifestFile);
+                return Entry.symlink(fields[2], fields[1]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed Infer install manifest entry in " + manifestFile + ": " + line, e);
+        }
+
+        throw new IOException("Malformed Infer install manifest entry in " + manifestFile + ": " + line);
+    }
+
+    private static String[] splitLine(String line, int fieldCount, Path manifestFile) throws IOException {
+        String[] fields = line == null ? new String[0] : line.split(FIELD_SEPARATOR, fieldCount);
+
+        if (fields.length != fieldCount) {
+            throw new IOException("Malformed Infer install manifest line in " + manifestFile + ": " + line);
+        }
+
+        return fields;
+    }
+
+    void write(Path manifestFile) throws IOException {
+        // Written aside and renamed, so a manifest being updated in place is never seen half written
+        Path pendingManifestFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(pendingManifestFile, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write(TARBALL_DIGEST_KEY + FIELD_SEPARATOR + tarballDigest);
+            writer.newLine();
+            writer.write(PROFILE_KEY + FIELD_SEPARATOR + profile.id());
+            writer.newLine();
+
+            for (Entry entry : entries) {
+                writer.write(entry.toManifestLine());
+                writer.newLine();
+            }
+        }
+
+        Files.move(
+                pendingManifestFile, manifestFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    List<Entry> sample(int count) {
+        if (entries.size() <= count) {
+            return entries;
+        }
+
+        List<Entry> shuffled = new ArrayList<>(entries);
+        Collections.shuffle(shuffled);
+        return shuffled.subList(0, count);
+    }
+
+    List<Entry> findDamagedEntries(Path installDir, int threads) throws IOException, InterruptedException {
+        List<Future<Boolean>> checks = new ArrayList<>(entries.size());
+
+        try (ExecutorService verifierPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "infer-install-verifier");
+            thread.setDaemon(true);
+            return thread;
+        })) {
+            for (Entry entry : entries) {
+                checks.add(verifierPool.submit(() -> entry.contentMatches(installDir)));
+            }
+
+            List<Entry> damagedEntries = new ArrayList<>();
+
+            for (int i = 0; i < entries.size(); i++) {
+                if (!awaitCheck(checks.get(i), checks)) {
+                    damagedEntries.add(entries.get(i));
+                }
+            }
+
+            return damagedEntries;
+        }
+    }
+
+    private static boolean awaitCheck(Future<Boolean> check, List<Future<Boolean>> allChecks)
+            throws IOException, InterruptedException {
+        try {
+            return check.get();
+        } catch (ExecutionException e) {
+            allChecks.forEach(pendingCheck -> pendingCheck.cancel(true));
+
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to verify the Infer installation", e.getCause());
+        } catch (InterruptedException e) {
+            allChecks.forEach(pendingCheck -> pendingCheck.cancel(true));
+            throw e;
+        }
+    }
+
+    static long crc32Of(Path file) throws IOException {
+        try (var checkedInputStream = new CheckedInputStream(Files.newInputStream(file), new CRC32())) {
+            checkedInputStream.transferTo(OutputStream.nullOutputStream());
+            return checkedInputStream.getChecksum().getValue();
+        }
+    }
+
+    record Entry(String path, boolean symlink, long size, long crc, String linkTarget) {
+
+        static Entry file(String path, long size, long crc) {
+            return new Entry(path, false, size, crc, null);
+        }
+
+        static Entry symlink(String path, String linkTarget) {
+            return new Entry(path, true, 0, 0, linkTarget);
+        }
+
+        // A single stat, cheap enough to run on every build
+        boolean looksIntact(Path installDir) {
+            Path installed = installDir.resolve(path);
+
+            try {
+                BasicFileAttributes attributes =
+                        Files.readAttributes(installed, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+                if (symlink) {
+                    return attributes.isSymbolicLink();
+                }
+
+                return attributes.isRegularFile() && attributes.size() == size;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        boolean contentMatches(Path installDir) {
+            if (!looksIntact(installDir)) {
+                return false;
+            }
+
+            Path installed = installDir.resolve(path);
+
+            try {
+                if (symlink) {
+                    return Files.readSymbolicLink(installed).toString().equals(linkTarget);
+                }
+
+                return crc32Of(installed) == crc;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private String toManifestLine() {
+            if (symlink) {
+                return SYMLINK_TYPE + FIELD_SEPARATOR + linkTarget + FIELD_SEPARATOR + path;
+            }
+
+            return FILE_TYPE
+                    + FIELD_SEPARATOR
+                    + size
+                    + FIELD_SEPARATOR
+                    + Long.toHexString(crc)
+                    + FIELD_SEPARATOR
+                    + path;
+        }
+    }
+}
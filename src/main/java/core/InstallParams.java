@@ -0,0 +1,15 @@
+package core;
+
+import java.nio.file.Path;
+
+public record InstallParams(
+        Path installDir,
+        String inferVersion,
+        int downloadSegments,
+        long minSegmentSize,
+        boolean streamingInstall,
+        int xzDecompressionThreads,
+        boolean verifyInstallation,
+        ExtractionProfile extractionProfile,
+        long installCacheMaxSizeMb,
+        InferSources inferSources) {}
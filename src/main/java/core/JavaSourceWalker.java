@@ -0,0 +1,162 @@
+package core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+// Finds the Java sources under the compile source roots. The top of each root is listed on the calling thread and every
+// dir below it becomes a fork-join task, so the roots and their deep generated-source trees are walked in parallel.
+// Like Files.find, symlinked dirs are not followed.
+final class JavaSourceWalker implements AutoCloseable {
+
+    private static final String JAVA_FILE_EXTENSION = ".java";
+
+    private final Path projectDir;
+    private final SourceFilter sourceFilter;
+    private final ForkJoinPool walkerPool;
+
+    JavaSourceWalker(Path projectDir, SourceFilter sourceFilter, int parallelism) {
+        this.projectDir = projectDir;
+        this.sourceFilter = sourceFilter;
+        this.walkerPool = new ForkJoinPool(
+                parallelism,
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("infer-source-walker-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                null,
+                false);
+    }
+
+    PendingRoot walk(Path root) throws IOException {
+        List<Path> javaSources = new ArrayList<>();
+        List<ForkJoinTask<List<Path>>> subtrees = new ArrayList<>();
+
+        for (Path subdir : listDir(root, root, javaSources)) {
+            subtrees.add(walkerPool.submit(new DirWalk(root, subdir)));
+        }
+
+        return new PendingRoot(root, javaSources, subtrees);
+    }
+
+    // Adds the accepted sources in dir and returns the subdirs still to walk
+    private List<Path> listDir(Path root, Path dir, List<Path> javaSources) throws IOException {
+        List<Path> subdirs = new ArrayList<>();
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    if (sourceFilter.isEmpty()
+                            || !sourceFilter.excludesDir(relativeToProject(entry), root.relativize(entry))) {
+                        subdirs.add(entry);
+                    }
+                } else if (isJavaSource(root, entry)) {
+                    javaSources.add(entry);
+                }
+            }
+        }
+
+        return subdirs;
+    }
+
+    private boolean isJavaSource(Path root, Path file) {
+        if (!file.getFileName().toString().endsWith(JAVA_FILE_EXTENSION)) {
+            return false;
+        }
+
+        return sourceFilter.isEmpty() || sourceFilter.accepts(relativeToProject(file), root.relativize(file));
+    }
+
+    private Path relativeToProject(Path path) {
+        Path absolutePath = path.toAbsolutePath();
+        return absolutePath.startsWith(projectDir) ? projectDir.relativize(absolutePath) : absolutePath;
+    }
+
+    @Override
+    public void close() {
+        walkerPool.shutdownNow();
+    }
+
+    // Fork-join tasks are Serializable only by inheritance, and this one never leaves the walker's pool
+    @SuppressWarnings("serial")
+    private final class DirWalk extends RecursiveTask<List<Path>> {
+
+        private final Path root;
+        private final Path dir;
+
+        private DirWalk(Path root, Path dir) {
+            this.root = root;
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> javaSources = new ArrayList<>();
+            List<DirWalk> subtrees = new ArrayList<>();
+
+            try {
+                for (Path subdir : listDir(root, dir, javaSources)) {
+                    DirWalk subtree = new DirWalk(root, subdir);
+                    subtree.fork();
+                    subtrees.add(subtree);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            for (DirWalk subtree : subtrees) {
+                javaSources.addAll(subtree.join());
+            }
+
+            return javaSources;
+        }
+    }
+
+    record PendingRoot(Path root, List<Path> javaSources, List<ForkJoinTask<List<Path>>> subtrees) {
+
+        // Sorted, so the argfile and the run fingerprint do not depend on which walker finished first
+        List<Path> join() throws IOException {
+            List<Path> allJavaSources = new ArrayList<>(javaSources);
+
+            try {
+                for (ForkJoinTask<List<Path>> subtree : subtrees) {
+                    allJavaSources.addAll(subtree.get());
+                }
+            } catch (ExecutionException e) {
+                subtrees.forEach(subtree -> subtree.cancel(true));
+
+                // Fork-join may rethrow a copy of the worker's exception, so look down the whole cause chain
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof UncheckedIOException uncheckedIOException) {
+                        throw uncheckedIOException.getCause();
+                    }
+                }
+                throw new IOException("Failed to walk " + root, e.getCause());
+            } catch (CancellationException e) {
+                throw new IOException("Walking " + root + " was cancelled", e);
+            } catch (InterruptedException e) {
+                subtrees.forEach(subtree -> subtree.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while walking " + root);
+            }
+
+            allJavaSources.sort(Comparator.comparing(Path::toString));
+            return allJavaSources;
+        }
+    }
+}
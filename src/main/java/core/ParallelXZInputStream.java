@@ -0,0 +1,224 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+
+// Decodes the blocks of a multi-block .xz file on a bounded pool and hands them out in file order. Each pool thread
+// borrows its own seekable decoder, and the decoded blocks held in memory are bounded by count and by total size, so
+// many threads on a tarball of large blocks cannot exhaust the heap.
+class ParallelXZInputStream extends InputStream {
+
+    // Larger blocks are left to the sequential decoder, which streams them instead of holding each in an array
+    static final long MAX_BLOCK_SIZE = 64L * 1024 * 1024;
+    static final long MAX_BYTES_AHEAD = 256L * 1024 * 1024;
+
+    private static final long DECODER_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final int blockCount;
+    private final long[] blockSizes;
+    private final long maxBytesAhead;
+    private final ExecutorService decoderPool;
+    private final BlockingQueue<SeekableXZInputStream> decoders;
+    private final List<SeekableXZInputStream> allDecoders = new ArrayList<>();
+    private final Deque<Future<byte[]>> decodedBlocks = new ArrayDeque<>();
+    private final int maxBlocksAhead;
+
+    private int nextBlockToSubmit;
+    // Decoded sizes of the blocks submitted and not read to the end yet, the current one included
+    private long bytesAhead;
+    private byte[] currentBlock = new byte[0];
+    private int currentBlockPosition;
+
+    ParallelXZInputStream(Path xzFile, int threads) throws IOException {
+        this(xzFile, threads, MAX_BYTES_AHEAD);
+    }
+
+    ParallelXZInputStream(Path xzFile, int threads, long maxBytesAhead) throws IOException {
+        this.maxBytesAhead = maxBytesAhead;
+        this.decoders = new ArrayBlockingQueue<>(threads);
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                SeekableXZInputStream decoder = openDecoder(xzFile);
+                allDecoders.add(decoder);
+                decoders.add(decoder);
+            }
+        } catch (IOException e) {
+            closeDecoders();
+            throw e;
+        }
+
+        SeekableXZInputStream indexDecoder = allDecoders.getFirst();
+        this.blockCount = indexDecoder.getBlockCount();
+        // Read up front, as looking a block up in the index is not safe while the decoder is in use on another thread
+        this.blockSizes = new long[blockCount];
+
+        for (int i = 0; i < blockCount; i++) {
+            blockSizes[i] = indexDecoder.getBlockSize(i);
+
+            if (blockSizes[i] > MAX_BLOCK_SIZE) {
+                closeDecoders();
+                throw new IOException("XZ block " + i + " is too large to decode in memory: " + blockSizes[i]);
+            }
+        }
+
+        this.maxBlocksAhead = threads * 2;
+        this.decoderPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "infer-xz-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        submitBlocks();
+    }
+
+    static BlockIndex readIndex(Path xzFile) throws IOException {
+        try (var decoder = openDecoder(xzFile)) {
+            long largestBlockSize = 0L;
+
+            for (int i = 0; i < decoder.getBlockCount(); i++) {
+                largestBlockSize = Math.max(largestBlockSize, decoder.getBlockSize(i));
+            }
+
+            return new BlockIndex(decoder.getBlockCount(), largestBlockSize);
+        }
+    }
+
+    private static SeekableXZInputStream openDecoder(Path xzFile) throws IOException {
+        var seekableFileInputStream = new SeekableFileInputStream(xzFile.toFile());
+
+        try {
+            return new SeekableXZInputStream(seekableFileInputStream);
+        } catch (IOException e) {
+            seekableFileInputStream.close();
+            throw e;
+        }
+    }
+
+    private void submitBlocks() {
+        // One block is always let through, so a budget below the block size still makes progress
+        while (nextBlockToSubmit < blockCount
+                && decodedBlocks.size() < maxBlocksAhead
+                && (bytesAhead == 0 || bytesAhead + blockSizes[nextBlockToSubmit] <= maxBytesAhead)) {
+            int blockNumber = nextBlockToSubmit++;
+            bytesAhead += blockSizes[blockNumber];
+            decodedBlocks.add(decoderPool.submit(() -> decodeBlock(blockNumber)));
+        }
+    }
+
+    private byte[] decodeBlock(int blockNumber) throws IOException, InterruptedException {
+        SeekableXZInputStream decoder = decoders.take();
+
+        try {
+            long blockSize = blockSizes[blockNumber];
+            decoder.seekToBlock(blockNumber);
+            byte[] block = decoder.readNBytes((int) blockSize);
+
+            if (block.length != blockSize) {
+                throw new IOException(
+                        "XZ block " + blockNumber + " ended after " + block.length + " of " + blockSize + " bytes");
+            }
+
+            return block;
+        } finally {
+            decoders.put(decoder);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        while (currentBlockPosition == currentBlock.length) {
+            // The block read to the end no longer counts against the budget, which may let the next one through
+            bytesAhead -= currentBlock.length;
+            currentBlock = new byte[0];
+            currentBlockPosition = 0;
+            submitBlocks();
+
+            if (decodedBlocks.isEmpty()) {
+                return -1;
+            }
+
+            currentBlock = awaitNextBlock();
+            submitBlocks();
+        }
+
+        int read = Math.min(length, currentBlock.length - currentBlockPosition);
+        System.arraycopy(currentBlock, currentBlockPosition, buffer, offset, read);
+        currentBlockPosition += read;
+        return read;
+    }
+
+    private byte[] awaitNextBlock() throws IOException {
+        try {
+            return decodedBlocks.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a decoded XZ block");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to decode XZ block", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        decodedBlocks.forEach(decodedBlock -> decodedBlock.cancel(true));
+        decodedBlocks.clear();
+        decoderPool.shutdownNow();
+
+        try {
+            // Block decoding is not interruptible, so let in-flight blocks finish before closing their files
+            decoderPool.awaitTermination(DECODER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeDecoders();
+        }
+    }
+
+    record BlockIndex(int blockCount, long largestBlockSize) {}
+
+    private void closeDecoders() throws IOException {
+        IOException closeFailure = null;
+
+        for (SeekableXZInputStream decoder : allDecoders) {
+            try {
+                decoder.close();
+            } catch (IOException e) {
+                closeFailure = e;
+            }
+        }
+
+        if (closeFailure != null) {
+            throw closeFailure;
+        }
+    }
+}
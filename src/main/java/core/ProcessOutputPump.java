@@ -0,0 +1,80 @@
+package core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Drains the merged output of a process on a virtual thread, so neither a chatty process filling its pipe nor a
+// silent one ever blocks the build thread. Every line goes to the sink, and the last non-blank ones are kept in a
+// bounded ring buffer for error reports.
+final class ProcessOutputPump {
+
+    static final int TAIL_LINES = 100;
+
+    private final Deque<String> tail = new ArrayDeque<>(TAIL_LINES);
+    private final Thread pumpThread;
+
+    private volatile long lastOutputNanos = System.nanoTime();
+    private volatile IOException failure;
+
+    private ProcessOutputPump(InputStream output, Consumer<String> lineSink) {
+        this.pumpThread = Thread.ofVirtual().name("infer-output-pump").start(() -> pump(output, lineSink));
+    }
+
+    static ProcessOutputPump start(InputStream output, Consumer<String> lineSink) {
+        return new ProcessOutputPump(output, lineSink);
+    }
+
+    private void pump(InputStream output, Consumer<String> lineSink) {
+        try (var reader = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lastOutputNanos = System.nanoTime();
+                lineSink.accept(line);
+                String strippedLine = line.stripTrailing();
+
+                if (!strippedLine.isBlank()) {
+                    remember(strippedLine);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (UncheckedIOException e) {
+            failure = e.getCause();
+        }
+    }
+
+    private synchronized void remember(String line) {
+        if (tail.size() == TAIL_LINES) {
+            tail.removeFirst();
+        }
+
+        tail.addLast(line);
+    }
+
+    long lastOutputNanos() {
+        return lastOutputNanos;
+    }
+
+    synchronized List<String> tail() {
+        return List.copyOf(tail);
+    }
+
+    // False when the output is still open, e.g. held by a process the command left running in the background
+    boolean awaitEnd(Duration timeout) throws InterruptedException {
+        return pumpThread.join(timeout);
+    }
+
+    IOException failure() {
+        return failure;
+    }
+}
@@ -0,0 +1,76 @@
+package core;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Tears down a process and everything it forked. A signal to Infer alone leaves its analysis workers running, so
+// every process in the tree is asked to terminate, given a grace period to exit, and killed if still alive after it.
+// While guarded, the tree is also torn down when the JVM shuts down, e.g. on Ctrl-C or when CI cancels the build.
+final class ProcessTree implements AutoCloseable {
+
+    static final Duration GRACE_PERIOD = Duration.ofSeconds(5);
+
+    private static final long EXIT_POLL_MILLIS = 50L;
+
+    private final Thread shutdownHook;
+    private volatile boolean tornDown;
+
+    private ProcessTree(Process process) {
+        this.shutdownHook = new Thread(
+                () -> {
+                    tornDown = true;
+                    destroy(process, GRACE_PERIOD);
+                },
+                "infer-process-tree-shutdown");
+    }
+
+    static ProcessTree guard(Process process) {
+        ProcessTree processTree = new ProcessTree(process);
+        Runtime.getRuntime().addShutdownHook(processTree.shutdownHook);
+        return processTree;
+    }
+
+    // Set before the tree is torn down on shutdown, so the exit code this leaves behind is not taken for Infer's own
+    boolean tornDown() {
+        return tornDown;
+    }
+
+    static void destroy(Process process, Duration gracePeriod) {
+        // The tree is listed before the parent dies and re-parents its children, and the parent goes first so it
+        // cannot react to a terminated child by starting another
+        List<ProcessHandle> descendants = process.descendants().toList();
+        process.destroy();
+        descendants.forEach(ProcessHandle::destroy);
+
+        long deadlineNanos = System.nanoTime() + gracePeriod.toNanos();
+
+        try {
+            while (isAlive(process, descendants) && System.nanoTime() < deadlineNanos) {
+                TimeUnit.MILLISECONDS.sleep(EXIT_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            // Killed straight away below, the interrupt is kept for the caller
+            Thread.currentThread().interrupt();
+        }
+
+        if (process.isAlive()) {
+            process.destroyForcibly();
+        }
+
+        descendants.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+    }
+
+    private static boolean isAlive(Process process, List<ProcessHandle> descendants) {
+        return process.isAlive() || descendants.stream().anyMatch(ProcessHandle::isAlive);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is shutting down and the hook is already tearing the tree down
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.codehaus.plexus.logging.Logger;
+
+// Samples the resident memory and CPU time of every process in Infer's tree from /proc while it runs. It warns once
+// the tree comes close to the memory ceiling, so an OOM kill that follows is not a bare exit code, and keeps the peak
+// and average usage for the run's resource report. The OOM kill counter of the build's cgroup is read before and after
+// the run, as a SIGKILL from a cancelled CI job ends Infer with the same exit code as the OOM killer. Outside Linux
+// there is no /proc and nothing is sampled.
+final class ProcessTreeMonitor implements AutoCloseable {
+
+    static final String USAGE_FILE_NAME = "plugin-resource-usage.json";
+
+    private static final Path PROC_DIR = Path.of("/proc");
+    private static final Duration SAMPLE_INTERVAL = Duration.ofSeconds(1);
+    // USER_HZ, which the kernel reports CPU times in, is 100 on every architecture the JDK runs on
+    private static final long CLOCK_TICKS_PER_SECOND = 100L;
+    private static final double MEMORY_CEILING_RATIO = 0.9;
+    private static final String V2_MEMORY_EVENTS_FILE = "memory.events";
+    private static final String V1_OOM_CONTROL_FILE = "memory.oom_control";
+    private static final String OOM_KILL_KEY = "oom_kill";
+    private static final String RSS_STATUS_KEY = "VmRSS:";
+    private static final int UTIME_STAT_INDEX = 11;
+    private static final int STIME_STAT_INDEX = 12;
+    private static final long BYTES_PER_KILOBYTE = 1024L;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ProcessHandle root;
+    private final long memoryCeilingBytes;
+    private final Path cgroupRoot;
+    private final Path procSelfCgroup;
+    private final long startOomKills;
+    private final Logger logger;
+    private final long startNanos = System.nanoTime();
+    private final ScheduledExecutorService sampler;
+
+    // Kept per process, so the CPU time of workers that already exited still counts
+    private final Map<Long, Long> cpuMillisByPid = new HashMap<>();
+    private int samples;
+    private long rssTotalBytes;
+    private long peakRssBytes;
+    private int peakProcesses;
+    private boolean warned;
+
+    private ProcessTreeMonitor(
+            ProcessHandle root,
+            long memoryCeilingBytes,
+            long startOomKills,
+            Path cgroupRoot,
+            Path procSelfCgroup,
+            Logger logger) {
+        this.root = root;
+        this.memoryCeilingBytes = memoryCeilingBytes;
+        this.startOomKills = startOomKills;
+        this.cgroupRoot = cgroupRoot;
+        this.procSelfCgroup = procSelfCgroup;
+        this.logger = logger;
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "infer-resource-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // startOomKills is read with oomKills before the process starts, so a kill in its first moments still counts
+    static ProcessTreeMonitor start(
+            Process process,
+            long memoryCeilingBytes,
+            long startOomKills,
+            Path cgroupRoot,
+            Path procSelfCgroup,
+            Logger logger) {
+        var monitor = new ProcessTreeMonitor(
+                process.toHandle(), memoryCeilingBytes, startOomKills, cgroupRoot, procSelfCgroup, logger);
+
+        if (monitor.root != null && Files.isDirectory(PROC_DIR.resolve(String.valueOf(monitor.root.pid())))) {
+            monitor.sampler.scheduleAtFixedRate(
+                    monitor::sample, SAMPLE_INTERVAL.toMillis(), SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        return monitor;
+    }
+
+    private synchronized void sample() {
+        List<ProcessHandle> processTree =
+                Stream.concat(Stream.of(root), root.descendants()).toList();
+        long treeRssBytes = 0L;
+        int liveProcesses = 0;
+
+        for (ProcessHandle processHandle : processTree) {
+            Path procDir = PROC_DIR.resolve(String.valueOf(processHandle.pid()));
+
+            try {
+                treeRssBytes += rssBytesOf(procDir);
+                cpuMillisByPid.put(processHandle.pid(), cpuMillisOf(procDir));
+                liveProcesses++;
+            } catch (IOException | RuntimeException e) {
+                // Exited between listing the tree and reading it
+            }
+        }
+
+        if (liveProcesses == 0) {
+            return;
+        }
+
+        samples++;
+        rssTotalBytes += treeRssBytes;
+        peakRssBytes = Math.max(peakRssBytes, treeRssBytes);
+        peakProcesses = Math.max(peakProcesses, liveProcesses);
+
+        if (!warned && memoryCeilingBytes > 0 && treeRssBytes >= memoryCeilingBytes * MEMORY_CEILING_RATIO) {
+            warned = true;
+            logger.warn("Infer's " + liveProcesses + " processes use " + treeRssBytes / BYTES_PER_MEGABYTE
+                    + " MB of the " + memoryCeilingBytes / BYTES_PER_MEGABYTE + " MB memory limit and are likely to"
+                    + " be killed for running out of memory. Lower inferJobs or raise the limit.");
+        }
+    }
+
+    private static long rssBytesOf(Path procDir) throws IOException {
+        for (String statusLine : Files.readAllLines(procDir.resolve("status"), StandardCharsets.UTF_8)) {
+            if (statusLine.startsWith(RSS_STATUS_KEY)) {
+                String rssKilobytes =
+                        statusLine.substring(RSS_STATUS_KEY.length()).strip().split("\\s+")[0];
+                return Long.parseLong(rssKilobytes) * BYTES_PER_KILOBYTE;
+            }
+        }
+
+        // Kernel threads and zombies have no resident set
+        return 0L;
+    }
+
+    private static long cpuMillisOf(Path procDir) throws IOException {
+        String stat = Files.readString(procDir.resolve("stat"), StandardCharsets.UTF_8);
+        // The command name in parentheses may itself hold spaces, so fields are counted from its closing one
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        long ticks = Long.parseLong(fields[UTIME_STAT_INDEX]) + Long.parseLong(fields[STIME_STAT_INDEX]);
+        return ticks * 1000L / CLOCK_TICKS_PER_SECOND;
+    }
+
+    // The processes of the build's cgroup the OOM killer ended, read from its innermost cgroup that counts them. That
+    // count includes the cgroups below it, where Infer runs. -1 when no cgroup counts them.
+    static long oomKills(Path cgroupRoot, Path procSelfCgroup, Logger logger) {
+        try {
+            for (Path dir : InferJobs.cgroupDirs(cgroupRoot, procSelfCgroup, InferJobs.V2_HIERARCHY)) {
+                if (Files.isReadable(dir.resolve(V2_MEMORY_EVENTS_FILE))) {
+                    return oomKillsIn(dir.resolve(V2_MEMORY_EVENTS_FILE));
+                }
+            }
+
+            for (Path dir : InferJobs.cgroupDirs(cgroupRoot, procSelfCgroup, InferJobs.V1_MEMORY_CONTROLLER)) {
+                if (Files.isReadable(dir.resolve(V1_OOM_CONTROL_FILE))) {
+                    return oomKillsIn(dir.resolve(V1_OOM_CONTROL_FILE));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not read the OOM kill count of this build's cgroup: " + e);
+        }
+
+        return -1L;
+    }
+
+    // Kernels before 4.13 have no oom_kill line in the v1 memory.oom_control
+    private static long oomKillsIn(Path eventsFile) throws IOException {
+        for (String eventLine : Files.readAllLines(eventsFile, StandardCharsets.UTF_8)) {
+            String[] keyAndCount = eventLine.strip().split("\\s+");
+
+            if (keyAndCount.length == 2 && keyAndCount[0].equals(OOM_KILL_KEY)) {
+                return Long.parseLong(keyAndCount[1]);
+            }
+        }
+
+        return -1L;
+    }
+
+    synchronized ResourceUsage usage() {
+        long endOomKills = oomKills(cgroupRoot, procSelfCgroup, logger);
+
+        return new ResourceUsage(
+                samples,
+                (System.nanoTime() - startNanos) / 1_000_000,
+                cpuMillisByPid.values().stream().mapToLong(Long::longValue).sum(),
+                peakRssBytes,
+                samples == 0 ? 0L : rssTotalBytes / samples,
+                peakProcesses,
+                memoryCeilingBytes,
+                startOomKills < 0 || endOomKills < 0 ? 0L : endOomKills - startOomKills);
+    }
+
+    // Every attempt of a run is kept, so the usage of one that was killed survives the retry that follows it
+    static void writeUsage(List<ResourceUsage> attempts, Path usageFile) throws IOException {
+        Path pendingUsageFile = usageFile.resolveSibling(usageFile.getFileName() + ".tmp");
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(pendingUsageFile.toFile(), attempts);
+        Files.move(pendingUsageFile, usageFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+
+    record ResourceUsage(
+            int samples,
+            long wallMillis,
+            long cpuMillis,
+            long peakRssBytes,
+            long averageRssBytes,
+            int peakProcesses,
+            long memoryCeilingBytes,
+            long oomKills) {
+
+        // Only evidence of the memory limit counts, as a SIGKILL from elsewhere leaves the same exit code behind
+        boolean hitMemoryCeiling() {
+            return oomKills > 0
+                    || (memoryCeilingBytes > 0 && peakRssBytes >= memoryCeilingBytes * MEMORY_CEILING_RATIO);
+        }
+
+        String summary() {
+            return "peak " + peakRssBytes / BYTES_PER_MEGABYTE + " MB and average "
+                    + averageRssBytes / BYTES_PER_MEGABYTE + " MB resident over " + peakProcesses + " processes at"
+                    + " most, " + cpuMillis + " ms of CPU in " + wallMillis + " ms";
+        }
+    }
+}
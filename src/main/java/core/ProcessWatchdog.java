@@ -0,0 +1,99 @@
+package core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+// Waits for a process while checking that it stays alive. It counts as making progress while it writes output or any
+// process in its tree uses CPU, so a long silent analysis is not mistaken for a hung one. The whole tree is killed once
+// it makes no progress for the stall timeout, or runs past the overall timeout. A zero duration turns either check off.
+final class ProcessWatchdog {
+
+    private static final long MAX_POLL_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final long MIN_POLL_NANOS = Duration.ofMillis(10).toNanos();
+    private static final long POLLS_PER_TIMEOUT = 4;
+    private static final long CPU_TIME_UNKNOWN = -1L;
+
+    enum Outcome {
+        EXITED,
+        STALLED,
+        TIMED_OUT
+    }
+
+    private final Process process;
+    private final ProcessOutputPump outputPump;
+    private final long stallTimeoutNanos;
+    private final long timeoutNanos;
+
+    ProcessWatchdog(Process process, ProcessOutputPump outputPump, Duration stallTimeout, Duration timeout) {
+        this.process = process;
+        this.outputPump = outputPump;
+        this.stallTimeoutNanos = stallTimeout.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    Outcome await() throws InterruptedException {
+        long pollNanos = pollNanos();
+        long startNanos = System.nanoTime();
+        long lastProgressNanos = startNanos;
+        long lastCpuNanos = CPU_TIME_UNKNOWN;
+
+        while (!process.waitFor(pollNanos, NANOSECONDS)) {
+            long nowNanos = System.nanoTime();
+
+            if (timeoutNanos > 0 && nowNanos - startNanos >= timeoutNanos) {
+                killProcessTree();
+                return Outcome.TIMED_OUT;
+            }
+
+            long cpuNanos = processTreeCpuNanos();
+
+            if (cpuNanos > lastCpuNanos) {
+                lastCpuNanos = cpuNanos;
+                lastProgressNanos = nowNanos;
+            }
+
+            lastProgressNanos = Math.max(lastProgressNanos, outputPump.lastOutputNanos());
+
+            if (stallTimeoutNanos > 0 && nowNanos - lastProgressNanos >= stallTimeoutNanos) {
+                killProcessTree();
+                return Outcome.STALLED;
+            }
+        }
+
+        return Outcome.EXITED;
+    }
+
+    private long pollNanos() {
+        long pollNanos = MAX_POLL_NANOS;
+
+        for (long checkNanos : new long[] {stallTimeoutNanos, timeoutNanos}) {
+            if (checkNanos > 0) {
+                pollNanos = Math.min(pollNanos, checkNanos / POLLS_PER_TIMEOUT);
+            }
+        }
+
+        return Math.max(pollNanos, MIN_POLL_NANOS);
+    }
+
+    // Infer forks its analysis workers, so the CPU time of the whole tree is summed
+    private long processTreeCpuNanos() {
+        ProcessHandle processHandle = process.toHandle();
+
+        if (processHandle == null) {
+            return CPU_TIME_UNKNOWN;
+        }
+
+        return Stream.concat(Stream.of(processHandle), processHandle.descendants())
+                .map(handle -> handle.info().totalCpuDuration())
+                .flatMap(cpuDuration -> cpuDuration.stream())
+                .mapToLong(Duration::toNanos)
+                .reduce(Long::sum)
+                .orElse(CPU_TIME_UNKNOWN);
+    }
+
+    void killProcessTree() {
+        ProcessTree.destroy(process, ProcessTree.GRACE_PERIOD);
+    }
+}
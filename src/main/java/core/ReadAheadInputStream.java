@@ -0,0 +1,110 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Reads the wrapped stream on a virtual thread into a bounded queue of chunks, so the producer (e.g. the network)
+// keeps making progress while the consumer is busy decompressing and writing files
+class ReadAheadInputStream extends InputStream {
+
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final InputStream source;
+    private final BlockingQueue<byte[]> chunks;
+    private final Thread reader;
+
+    private volatile IOException readFailure;
+    private byte[] currentChunk = new byte[0];
+    private int currentChunkPosition;
+    private boolean endOfStream;
+
+    ReadAheadInputStream(InputStream source, int chunkSize, int maxChunksAhead) {
+        this.source = source;
+        this.chunks = new ArrayBlockingQueue<>(maxChunksAhead);
+        this.reader = Thread.ofVirtual().name("infer-read-ahead").start(() -> readAhead(chunkSize));
+    }
+
+    private void readAhead(int chunkSize) {
+        try {
+            while (true) {
+                byte[] buffer = new byte[chunkSize];
+                int filled = source.readNBytes(buffer, 0, chunkSize);
+
+                if (filled > 0) {
+                    chunks.put(filled == chunkSize ? buffer : Arrays.copyOf(buffer, filled));
+                }
+                if (filled < chunkSize) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            readFailure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        try {
+            chunks.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fillCurrentChunk()) {
+            return -1;
+        }
+
+        int read = Math.min(length, currentChunk.length - currentChunkPosition);
+        System.arraycopy(currentChunk, currentChunkPosition, buffer, offset, read);
+        currentChunkPosition += read;
+        return read;
+    }
+
+    private boolean fillCurrentChunk() throws IOException {
+        while (currentChunkPosition == currentChunk.length) {
+            if (endOfStream) {
+                return false;
+            }
+
+            try {
+                currentChunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for read-ahead data");
+            }
+            currentChunkPosition = 0;
+
+            if (currentChunk == END_OF_STREAM) {
+                endOfStream = true;
+                if (readFailure != null) {
+                    throw readFailure;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.interrupt();
+        source.close();
+    }
+}
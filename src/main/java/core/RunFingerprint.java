@@ -0,0 +1,270 @@
+package core;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Everything an Infer run depends on: a digest of the analysis settings and ordered compile classpath, and the
+// SHA-256 of every source file, stored with the exit code of the run. Sizes and mtimes are kept alongside the source
+// hashes so the next build only re-reads the sources whose stat changed.
+final class RunFingerprint {
+
+    static final String FILE_NAME = "infer-run.fingerprint";
+
+    private static final String HEADER = "# infer-maven-plugin run fingerprint v1";
+    private static final String SETTINGS_DIGEST_KEY = "settings-sha256";
+    private static final String EXIT_CODE_KEY = "exit-code";
+    private static final String SOURCE_TYPE = "S";
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final String settingsDigest;
+    private final List<SourceHash> sourceHashes;
+    private final int exitCode;
+
+    RunFingerprint(String settingsDigest, List<SourceHash> sourceHashes, int exitCode) {
+        this.settingsDigest = settingsDigest;
+        this.sourceHashes = List.copyOf(sourceHashes);
+        this.exitCode = exitCode;
+    }
+
+    int exitCode() {
+        return exitCode;
+    }
+
+    List<SourceHash> sourceHashes() {
+        return sourceHashes;
+    }
+
+    RunFingerprint withExitCode(int runExitCode) {
+        return new RunFingerprint(settingsDigest, sourceHashes, runExitCode);
+    }
+
+    // Stats are only a shortcut for hashing, so two fingerprints match on content alone
+    boolean sameInputsAs(RunFingerprint other) {
+        if (!settingsDigest.equals(other.settingsDigest) || sourceHashes.size() != other.sourceHashes.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < sourceHashes.size(); i++) {
+            SourceHash sourceHash = sourceHashes.get(i);
+            SourceHash otherSourceHash = other.sourceHashes.get(i);
+
+            if (!sourceHash.path().equals(otherSourceHash.path())
+                    || !sourceHash.sha256().equals(otherSourceHash.sha256())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Empty when the settings differ or a source was removed, as a reactive run can only build on the previous capture
+    Optional<List<String>> changedSourcesSince(RunFingerprint previous) {
+        if (!settingsDigest.equals(previous.settingsDigest)) {
+            return Optional.empty();
+        }
+
+        Map<String, String> previousHashes = new HashMap<>();
+        previous.sourceHashes.forEach(sourceHash -> previousHashes.put(sourceHash.path(), sourceHash.sha256()));
+
+        List<String> changedSources = new ArrayList<>();
+
+        for (SourceHash sourceHash : sourceHashes) {
+            if (!sourceHash.sha256().equals(previousHashes.remove(sourceHash.path()))) {
+                changedSources.add(sourceHash.path());
+            }
+        }
+
+        return previousHashes.isEmpty() ? Optional.of(changedSources) : Optional.empty();
+    }
+
+    static String settingsDigestOf(List<String> settings) {
+        MessageDigest settingsDigest = newSha256Digest();
+
+        for (String setting : settings) {
+            settingsDigest.update(setting.getBytes(StandardCharsets.UTF_8));
+            settingsDigest.update((byte) '\n');
+        }
+
+        return HexFormat.of().formatHex(settingsDigest.digest());
+    }
+
+    static List<SourceHash> hashSources(List<Path> sourceFiles, RunFingerprint previous, int threads)
+            throws IOException {
+        Map<String, SourceHash> previousHashes = new HashMap<>();
+
+        if (previous != null) {
+            previous.sourceHashes.forEach(sourceHash -> previousHashes.put(sourceHash.path(), sourceHash));
+        }
+
+        List<Path> sortedSourceFiles = sourceFiles.stream()
+                .sorted(Comparator.comparing(Path::toString))
+                .toList();
+        List<Future<SourceHash>> hashes = new ArrayList<>(sortedSourceFiles.size());
+
+        try (ExecutorService hasherPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "infer-source-hasher");
+            thread.setDaemon(true);
+            return thread;
+        })) {
+            for (Path sourceFile : sortedSourceFiles) {
+                hashes.add(hasherPool.submit(() -> hashSource(sourceFile, previousHashes.get(sourceFile.toString()))));
+            }
+
+            List<SourceHash> sourceHashes = new ArrayList<>(hashes.size());
+
+            for (Future<SourceHash> hash : hashes) {
+                sourceHashes.add(awaitHash(hash, hashes));
+            }
+
+            return sourceHashes;
+        }
+    }
+
+    private static SourceHash hashSource(Path sourceFile, SourceHash previousHash) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(sourceFile, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+
+        if (previousHash != null
+                && previousHash.size() == size
+                && previousHash.lastModifiedMillis() == lastModifiedMillis) {
+            return previousHash;
+        }
+
+        MessageDigest sourceDigest = newSha256Digest();
+
+        try (var digestInputStream = new DigestInputStream(Files.newInputStream(sourceFile), sourceDigest)) {
+            digestInputStream.transferTo(OutputStream.nullOutputStream());
+        }
+
+        return new SourceHash(
+                sourceFile.toString(), size, lastModifiedMillis, HexFormat.of().formatHex(sourceDigest.digest()));
+    }
+
+    private static SourceHash awaitHash(Future<SourceHash> hash, List<Future<SourceHash>> allHashes)
+            throws IOException {
+        try {
+            return hash.get();
+        } catch (ExecutionException e) {
+            allHashes.forEach(pendingHash -> pendingHash.cancel(true));
+
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to hash the Java sources", e.getCause());
+        } catch (InterruptedException e) {
+            allHashes.forEach(pendingHash -> pendingHash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing the Java sources");
+        }
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is required on every Java platform", e);
+        }
+    }
+
+    static RunFingerprint read(Path fingerprintFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(fingerprintFile, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                throw new IOException("Unrecognised Infer run fingerprint: " + fingerprintFile);
+            }
+
+            String[] settingsLine = splitLine(reader.readLine(), 2, fingerprintFile);
+            String[] exitCodeLine = splitLine(reader.readLine(), 2, fingerprintFile);
+
+            if (!SETTINGS_DIGEST_KEY.equals(settingsLine[0]) || !EXIT_CODE_KEY.equals(exitCodeLine[0])) {
+                throw new IOException("Malformed Infer run fingerprint: " + fingerprintFile);
+            }
+
+            List<SourceHash> sourceHashes = new ArrayList<>();
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = splitLine(line, 5, fingerprintFile);
+
+                if (!SOURCE_TYPE.equals(fields[0])) {
+                    throw new IOException("Malformed Infer run fingerprint entry in " + fingerprintFile + ": " + line);
+                }
+
+                sourceHashes.add(
+                        new SourceHash(fields[4], Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]));
+            }
+
+            return new RunFingerprint(settingsLine[1], sourceHashes, Integer.parseInt(exitCodeLine[1]));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed Infer run fingerprint: " + fingerprintFile, e);
+        }
+    }
+
+    private static String[] splitLine(String line, int fieldCount, Path fingerprintFile) throws IOException {
+        String[] fields = line == null ? new String[0] : line.split(FIELD_SEPARATOR, fieldCount);
+
+        if (fields.length != fieldCount) {
+            throw new IOException("Malformed Infer run fingerprint line in " + fingerprintFile + ": " + line);
+        }
+
+        return fields;
+    }
+
+    void write(Path fingerprintFile) throws IOException {
+        // Written aside and renamed, so an interrupted build never leaves a half written fingerprint behind
+        Path pendingFingerprintFile = fingerprintFile.resolveSibling(fingerprintFile.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(pendingFingerprintFile, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write(SETTINGS_DIGEST_KEY + FIELD_SEPARATOR + settingsDigest);
+            writer.newLine();
+            writer.write(EXIT_CODE_KEY + FIELD_SEPARATOR + exitCode);
+            writer.newLine();
+
+            for (SourceHash sourceHash : sourceHashes) {
+                writer.write(SOURCE_TYPE
+                        + FIELD_SEPARATOR
+                        + sourceHash.size()
+                        + FIELD_SEPARATOR
+                        + sourceHash.lastModifiedMillis()
+                        + FIELD_SEPARATOR
+                        + sourceHash.sha256()
+                        + FIELD_SEPARATOR
+                        + sourceHash.path());
+                writer.newLine();
+            }
+        }
+
+        Files.move(
+                pendingFingerprintFile,
+                fingerprintFile,
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    record SourceHash(String path, long size, long lastModifiedMillis, String sha256) {}
+}
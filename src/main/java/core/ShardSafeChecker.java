@@ -0,0 +1,44 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Infer checkers whose issues only depend on the procedure or class they are reported in, so analysing each shard
+// of the sources on its own finds the same issues as analysing them together. Interprocedural checkers such as
+// pulse, biabduction or bufferoverrun miss issues across shards and must never be added here.
+public enum ShardSafeChecker {
+    LIVENESS("liveness", "--liveness"),
+    INEFFICIENT_KEYSET_ITERATOR("inefficient-keyset-iterator", "--inefficient-keyset-iterator"),
+    FRAGMENT_RETAINS_VIEW("fragment-retains-view", "--fragment-retains-view");
+
+    public static final List<ShardSafeChecker> DEFAULTS = List.of(LIVENESS, INEFFICIENT_KEYSET_ITERATOR);
+
+    private final String id;
+    private final String option;
+
+    ShardSafeChecker(String id, String option) {
+        this.id = id;
+        this.option = option;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    String option() {
+        return option;
+    }
+
+    public static Optional<ShardSafeChecker> fromId(String id) {
+        return Arrays.stream(values())
+                .filter(checker -> checker.id.equals(id.toLowerCase(Locale.ROOT)))
+                .findFirst();
+    }
+
+    public static String supportedIds() {
+        return Arrays.stream(values()).map(ShardSafeChecker::id).collect(Collectors.joining(", "));
+    }
+}
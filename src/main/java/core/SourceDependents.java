@@ -0,0 +1,91 @@
+package core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Finds the sources whose analysis can depend on a set of changed sources. A Java source can only reach another one
+// through the names of the types that one declares, so every source naming such a type, directly or through another
+// dependent, is a dependent. Names in comments and strings count as well, which only ever adds dependents.
+final class SourceDependents {
+
+    private static final String IDENTIFIER = "\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*";
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile(IDENTIFIER);
+    private static final Pattern TYPE_DECLARATION_PATTERN =
+            Pattern.compile("\\b(?:class|interface|enum|record)\\s+(" + IDENTIFIER + ")");
+    private static final String JAVA_SUFFIX = ".java";
+
+    private SourceDependents() {}
+
+    // Returns the sources depending on the changed ones, without the changed ones themselves
+    static Set<Path> of(List<Path> javaSourceFiles, Collection<Path> changedSources) throws IOException {
+        Map<Path, Set<String>> declaredTypes = new HashMap<>();
+        Map<String, List<Path>> sourcesByName = new HashMap<>();
+
+        for (Path javaSourceFile : javaSourceFiles) {
+            // Decoded leniently, as a source in another encoding still names its types in ASCII
+            String source = new String(Files.readAllBytes(javaSourceFile), StandardCharsets.UTF_8);
+            declaredTypes.put(javaSourceFile, declaredTypesOf(javaSourceFile, source));
+
+            Set<String> names = new HashSet<>();
+            Matcher identifier = IDENTIFIER_PATTERN.matcher(source);
+
+            while (identifier.find()) {
+                names.add(identifier.group());
+            }
+
+            names.forEach(name -> sourcesByName
+                    .computeIfAbsent(name, n -> new ArrayList<>())
+                    .add(javaSourceFile));
+        }
+
+        Set<Path> reached = new HashSet<>(changedSources);
+        Set<Path> dependents = new LinkedHashSet<>();
+        Queue<Path> pending = new ArrayDeque<>(changedSources);
+
+        while (!pending.isEmpty()) {
+            Path source = pending.remove();
+
+            for (String typeName : declaredTypes.getOrDefault(source, Set.of())) {
+                for (Path dependent : sourcesByName.getOrDefault(typeName, List.of())) {
+                    if (reached.add(dependent)) {
+                        dependents.add(dependent);
+                        pending.add(dependent);
+                    }
+                }
+            }
+        }
+
+        return dependents;
+    }
+
+    private static Set<String> declaredTypesOf(Path javaSourceFile, String source) {
+        Set<String> typeNames = new HashSet<>();
+        String fileName = javaSourceFile.getFileName().toString();
+
+        if (fileName.endsWith(JAVA_SUFFIX)) {
+            typeNames.add(fileName.substring(0, fileName.length() - JAVA_SUFFIX.length()));
+        }
+
+        Matcher declaration = TYPE_DECLARATION_PATTERN.matcher(source);
+
+        while (declaration.find()) {
+            typeNames.add(declaration.group(1));
+        }
+
+        return typeNames;
+    }
+}
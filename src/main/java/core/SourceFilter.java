@@ -0,0 +1,86 @@
+package core;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+
+// Ant-style include and exclude patterns, compiled once into glob matchers. A source is checked relative to the
+// project dir and relative to its source root, so both target/generated-sources/** and com/example/internal/** work.
+final class SourceFilter {
+
+    private static final String GLOB_SYNTAX = "glob:";
+    private static final String ANY_DIRS = "**/";
+    private static final String ANY_DIRS_OR_NONE = "{**/,}";
+    private static final String ANY_PATH = "**";
+    private static final String SEPARATOR = "/";
+
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final List<PathMatcher> excludedDirs;
+
+    private SourceFilter(List<PathMatcher> includes, List<PathMatcher> excludes, List<PathMatcher> excludedDirs) {
+        this.includes = includes;
+        this.excludes = excludes;
+        this.excludedDirs = excludedDirs;
+    }
+
+    static SourceFilter of(List<String> includePatterns, List<String> excludePatterns) {
+        List<String> normalisedExcludes = normalise(excludePatterns);
+
+        // An exclude ending in /** drops the whole dir, so the walk can skip it instead of matching every file in it
+        List<PathMatcher> excludedDirs = normalisedExcludes.stream()
+                .filter(pattern -> pattern.endsWith(SEPARATOR + ANY_PATH))
+                .map(pattern -> pattern.substring(0, pattern.length() - ANY_PATH.length() - 1))
+                .map(SourceFilter::compile)
+                .toList();
+
+        return new SourceFilter(
+                normalise(includePatterns).stream().map(SourceFilter::compile).toList(),
+                normalisedExcludes.stream().map(SourceFilter::compile).toList(),
+                excludedDirs);
+    }
+
+    private static List<String> normalise(List<String> patterns) {
+        if (patterns == null) {
+            return List.of();
+        }
+
+        return patterns.stream()
+                .map(String::strip)
+                .filter(pattern -> !pattern.isEmpty())
+                .map(pattern -> pattern.replace('\\', '/'))
+                .map(pattern -> pattern.endsWith(SEPARATOR) ? pattern + ANY_PATH : pattern)
+                .toList();
+    }
+
+    private static PathMatcher compile(String antPattern) {
+        // Ant lets **/ match no dirs at all, which a plain glob does not
+        return FileSystems.getDefault().getPathMatcher(GLOB_SYNTAX + antPattern.replace(ANY_DIRS, ANY_DIRS_OR_NONE));
+    }
+
+    boolean isEmpty() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    boolean accepts(Path relativeToProject, Path relativeToRoot) {
+        boolean included =
+                includes.isEmpty() || matchesAny(includes, relativeToProject) || matchesAny(includes, relativeToRoot);
+
+        return included && !matchesAny(excludes, relativeToProject) && !matchesAny(excludes, relativeToRoot);
+    }
+
+    boolean excludesDir(Path relativeToProject, Path relativeToRoot) {
+        return matchesAny(excludedDirs, relativeToProject) || matchesAny(excludedDirs, relativeToRoot);
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package mojo;
+
+import core.InferParams;
+import core.InstallParams;
+import core.ShardSafeChecker;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+// Parameters shared by every goal that runs an Infer analysis on top of installing Infer
+public abstract class AbstractInferAnalysisMojo extends AbstractInferInstallMojo {
+
+    @Parameter(property = "failOnIssue", defaultValue = "true")
+    private boolean failOnIssue;
+
+    @Parameter(property = "enableJavaCheckers", defaultValue = "true")
+    private boolean enableJavaCheckers;
+
+    @Parameter(property = "resultsDir", defaultValue = "${project.build.directory}/infer-out")
+    private String resultsDir;
+
+    @Parameter(property = "incrementalAnalysis", defaultValue = "false")
+    private boolean incrementalAnalysis;
+
+    @Parameter(property = "baseRevision")
+    private String baseRevision;
+
+    @Parameter(property = "baseReportCacheDir", defaultValue = "${user.home}/.m2/infer-base-reports")
+    private String baseReportCacheDir;
+
+    @Parameter(property = "sourceIncludes")
+    private List<String> sourceIncludes;
+
+    @Parameter(property = "sourceExcludes")
+    private List<String> sourceExcludes;
+
+    @Parameter(property = "stallTimeoutMinutes", defaultValue = "15")
+    private long stallTimeoutMinutes;
+
+    @Parameter(property = "analysisTimeoutMinutes", defaultValue = "0")
+    private long analysisTimeoutMinutes;
+
+    @Parameter(property = "verboseOutput", defaultValue = "false")
+    private boolean verboseOutput;
+
+    @Parameter(property = "inferJobs", defaultValue = "0")
+    private int inferJobs;
+
+    @Parameter(property = "inferWorkerMemoryMegabytes", defaultValue = "1536")
+    private long inferWorkerMemoryMegabytes;
+
+    @Parameter(property = "captureShards", defaultValue = "1")
+    private int captureShards;
+
+    @Parameter(property = "independentShards", defaultValue = "0")
+    private int independentShards;
+
+    @Parameter(property = "shardSafeCheckers")
+    private List<String> shardSafeCheckers;
+
+    protected InferParams inferParams(InstallParams installParams) throws MojoExecutionException {
+        List<ShardSafeChecker> checkers = new ArrayList<>();
+
+        for (String shardSafeChecker : shardSafeCheckers == null ? List.<String>of() : shardSafeCheckers) {
+            checkers.add(ShardSafeChecker.fromId(shardSafeChecker)
+                    .orElseThrow(() -> new MojoExecutionException("Unsupported shard-safe checker: " + shardSafeChecker
+                            + ". Supported checkers: " + ShardSafeChecker.supportedIds())));
+        }
+
+        return new InferParams(
+                project,
+                failOnIssue,
+                enableJavaCheckers,
+                resultsDir,
+                installParams.installDir(),
+                incrementalAnalysis,
+                baseRevision,
+                Path.of(baseReportCacheDir),
+                sourceIncludes,
+                sourceExcludes,
+                Duration.ofMinutes(stallTimeoutMinutes),
+                Duration.ofMinutes(analysisTimeoutMinutes),
+                verboseOutput,
+                inferJobs,
+                inferWorkerMemoryMegabytes,
+                captureShards,
+                independentShards,
+                checkers.isEmpty() ? ShardSafeChecker.DEFAULTS : checkers);
+    }
+}
@@ -0,0 +1,88 @@
+package mojo;
+
+import core.ExtractionProfile;
+import core.InferSource;
+import core.InferSources;
+import core.InstallParams;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+// Parameters shared by every goal that installs Infer, so they all resolve to the same install
+public abstract class AbstractInferInstallMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    protected MavenProject project;
+
+    @Parameter(defaultValue = "${session}", required = true, readonly = true)
+    protected MavenSession session;
+
+    @Parameter(property = "installDir", defaultValue = "${user.home}/.m2/infer")
+    private File installDir;
+
+    @Parameter(property = "inferVersion", defaultValue = "v1.2.0")
+    private String inferVersion;
+
+    @Parameter(property = "installCacheMaxSizeMb", defaultValue = "0")
+    private long installCacheMaxSizeMb;
+
+    @Parameter(property = "inferSources")
+    private List<String> inferSources;
+
+    @Parameter(property = "downloadSegments", defaultValue = "4")
+    private int downloadSegments;
+
+    @Parameter(property = "minSegmentSize", defaultValue = "8388608")
+    private long minSegmentSize;
+
+    @Parameter(property = "streamingInstall", defaultValue = "false")
+    private boolean streamingInstall;
+
+    @Parameter(property = "xzDecompressionThreads", defaultValue = "0")
+    private int xzDecompressionThreads;
+
+    @Parameter(property = "verifyInstallation", defaultValue = "false")
+    private boolean verifyInstallation;
+
+    @Parameter(property = "extractionProfile", defaultValue = "full")
+    private String extractionProfile;
+
+    protected InstallParams installParams() throws MojoExecutionException {
+        ExtractionProfile profile = ExtractionProfile.fromId(extractionProfile)
+                .orElseThrow(() -> new MojoExecutionException("Unsupported extraction profile: " + extractionProfile
+                        + ". Supported profiles: " + ExtractionProfile.supportedIds()));
+
+        List<InferSource> sources = new ArrayList<>();
+
+        for (String inferSource : inferSources == null ? List.<String>of() : inferSources) {
+            sources.add(InferSource.parse(inferSource)
+                    .orElseThrow(() -> new MojoExecutionException("Unsupported Infer source: " + inferSource
+                            + ". Supported sources: " + InferSource.SUPPORTED_FORMATS)));
+        }
+
+        if (sources.isEmpty()) {
+            sources.add(InferSource.GITHUB_RELEASES);
+        }
+
+        return new InstallParams(
+                installDir.toPath(),
+                inferVersion,
+                downloadSegments,
+                minSegmentSize,
+                streamingInstall,
+                xzDecompressionThreads,
+                verifyInstallation,
+                profile,
+                installCacheMaxSizeMb,
+                new InferSources(
+                        sources,
+                        session.isOffline(),
+                        session.getRepositorySession(),
+                        project.getRemoteProjectRepositories()));
+    }
+}
@@ -0,0 +1,43 @@
+package mojo;
+
+import core.InferInstaller;
+import core.InferParams;
+import core.InferRunner;
+import core.InstallParams;
+import java.nio.file.Path;
+import javax.inject.Inject;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+// Analyses every module of the reactor in a single Infer run, so calls across modules are analysed with the callee's
+// summaries and Infer starts once rather than once per module. Runs after the reactor is compiled, e.g.
+// mvn compile io.github.dominikzig:infer-maven-plugin:aggregate
+@Mojo(name = "aggregate", aggregator = true, requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class InferAggregateMojo extends AbstractInferAnalysisMojo {
+
+    private final InferInstaller installer;
+
+    private final InferRunner runner;
+
+    @Inject
+    public InferAggregateMojo(InferInstaller installer, InferRunner runner) {
+        this.installer = installer;
+        this.runner = runner;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        InstallParams installParams = installParams();
+        InferParams inferParams = inferParams(installParams);
+
+        Path inferExe = installer.tryInstallInfer(installParams);
+
+        try {
+            runner.runInferOnReactor(inferParams, session.getProjects(), inferExe);
+        } finally {
+            installer.releaseInfer(installParams, inferExe);
+        }
+    }
+}
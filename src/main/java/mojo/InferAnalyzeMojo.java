@@ -0,0 +1,59 @@
+package mojo;
+
+import core.InferInstaller;
+import core.InferParams;
+import core.InferRunner;
+import core.InstallParams;
+import java.nio.file.Path;
+import javax.inject.Inject;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+// Analyses what the capture goal captured, by default right before the tests, so with backgroundAnalysis Infer runs
+// alongside them and the join goal waits for the result in verify. Bound to verify instead, it only analyses once the
+// tests passed. It can be run again with other checkers, e.g.
+// mvn io.github.dominikzig:infer-maven-plugin:analyze -DenableJavaCheckers=false, without compiling again.
+@Mojo(
+        name = "analyze",
+        defaultPhase = LifecyclePhase.PROCESS_TEST_CLASSES,
+        requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class InferAnalyzeMojo extends AbstractInferAnalysisMojo {
+
+    @Parameter(property = "backgroundAnalysis", defaultValue = "false")
+    private boolean backgroundAnalysis;
+
+    private final InferInstaller installer;
+
+    private final InferRunner runner;
+
+    @Inject
+    public InferAnalyzeMojo(InferInstaller installer, InferRunner runner) {
+        this.installer = installer;
+        this.runner = runner;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        InstallParams installParams = installParams();
+        InferParams inferParams = inferParams(installParams);
+
+        Path inferExe = installer.tryInstallInfer(installParams);
+
+        if (backgroundAnalysis) {
+            // Infer outlives this goal, so the install is released once the analysis ends
+            runner.startBackgroundAnalysis(
+                    inferParams, inferExe, () -> installer.releaseInfer(installParams, inferExe));
+            return;
+        }
+
+        try {
+            runner.analyzeCapture(inferParams, inferExe);
+        } finally {
+            installer.releaseInfer(installParams, inferExe);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package mojo;
+
+import core.InferInstaller;
+import core.InferParams;
+import core.InferRunner;
+import core.InstallParams;
+import java.nio.file.Path;
+import javax.inject.Inject;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+// Captures the sources into Infer's results dir during compile without analysing them, leaving the analysis to the
+// analyze goal in a later phase
+@Mojo(
+        name = "capture",
+        defaultPhase = LifecyclePhase.COMPILE,
+        requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class InferCaptureMojo extends AbstractInferAnalysisMojo {
+
+    private final InferInstaller installer;
+
+    private final InferRunner runner;
+
+    @Inject
+    public InferCaptureMojo(InferInstaller installer, InferRunner runner) {
+        this.installer = installer;
+        this.runner = runner;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        InstallParams installParams = installParams();
+        InferParams inferParams = inferParams(installParams);
+
+        Path inferExe = installer.tryInstallInfer(installParams);
+
+        try {
+            runner.captureProject(inferParams, inferExe);
+        } finally {
+            installer.releaseInfer(installParams, inferExe);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mojo;
+
+import core.InferInstaller;
+import core.InstallParams;
+import javax.inject.Inject;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+// Installs Infer without analysing anything, e.g. to bake it into a container image ahead of the builds that use it.
+// Needs no project, so it can run as mvn io.github.dominikzig:infer-maven-plugin:install from any dir.
+@Mojo(name = "install", requiresProject = false)
+public class InferInstallMojo extends AbstractInferInstallMojo {
+
+    private final InferInstaller installer;
+
+    @Inject
+    public InferInstallMojo(InferInstaller installer) {
+        this.installer = installer;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        InstallParams installParams = installParams();
+
+        // An install that is already present and intact returns without any network I/O
+        installer.releaseInfer(installParams, installer.tryInstallInfer(installParams));
+    }
+}
@@ -0,0 +1,33 @@
+package mojo;
+
+import core.InferParams;
+import core.InferRunner;
+import javax.inject.Inject;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+// Waits for the analysis the analyze goal started with backgroundAnalysis, and fails the build on its issues as the
+// analyze goal would have. Infer is not installed again, the analysis names the executable it ran.
+@Mojo(
+        name = "join",
+        defaultPhase = LifecyclePhase.VERIFY,
+        requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class InferJoinMojo extends AbstractInferAnalysisMojo {
+
+    private final InferRunner runner;
+
+    @Inject
+    public InferJoinMojo(InferRunner runner) {
+        this.runner = runner;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        InferParams inferParams = inferParams(installParams());
+
+        runner.joinBackgroundAnalysis(inferParams);
+    }
+}
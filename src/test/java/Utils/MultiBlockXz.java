@@ -0,0 +1,22 @@
+package Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+public final class MultiBlockXz {
+
+    private MultiBlockXz() {}
+
+    public static byte[] compress(byte[] content, int blockSize) throws IOException {
+        var byteArrayOutputStream = new ByteArrayOutputStream();
+        try (var xzOutputStream = new XZOutputStream(byteArrayOutputStream, new LZMA2Options(1))) {
+            for (int offset = 0; offset < content.length; offset += blockSize) {
+                xzOutputStream.write(content, offset, Math.min(blockSize, content.length - offset));
+                xzOutputStream.endBlock();
+            }
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+}
@@ -0,0 +1,67 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CaptureShardsTest {
+
+    @DisplayName(
+            """
+        Given sources in packages of 3, 2, 2 and 1 files\s
+        When splitting them into two shards\s
+        Then keeps every package within one shard and balances the shards
+       """)
+    @Test
+    void ofKeepsPackagesTogether() {
+        List<Path> sources = List.of(
+                Path.of("src/a/A1.java"),
+                Path.of("src/a/A2.java"),
+                Path.of("src/a/A3.java"),
+                Path.of("src/b/B1.java"),
+                Path.of("src/b/B2.java"),
+                Path.of("src/c/C1.java"),
+                Path.of("src/c/C2.java"),
+                Path.of("src/d/D1.java"));
+
+        List<List<Path>> shards = CaptureShards.of(sources, 2);
+
+        assertThat(shards)
+                .containsExactly(
+                        List.of(
+                                Path.of("src/a/A1.java"),
+                                Path.of("src/a/A2.java"),
+                                Path.of("src/a/A3.java"),
+                                Path.of("src/d/D1.java")),
+                        List.of(
+                                Path.of("src/b/B1.java"),
+                                Path.of("src/b/B2.java"),
+                                Path.of("src/c/C1.java"),
+                                Path.of("src/c/C2.java")))
+                .inOrder();
+        assertThat(CaptureShards.of(sources, 8)).hasSize(4);
+    }
+
+    @DisplayName(
+            """
+        Given a module with few sources per job\s
+        When deriving the shard count\s
+        Then does not start a shard for fewer than the minimum sources
+       """)
+    @Test
+    void shardCountForCapsByJobsPackagesAndSources() {
+        List<Path> sources = new ArrayList<>();
+
+        for (int i = 0; i < 3 * CaptureShards.MIN_SOURCES_PER_SHARD; i++) {
+            sources.add(Path.of("src/p" + i % 10, "S" + i + ".java"));
+        }
+
+        assertThat(CaptureShards.shardCountFor(sources, 8)).isEqualTo(3);
+        assertThat(CaptureShards.shardCountFor(sources, 2)).isEqualTo(2);
+        assertThat(CaptureShards.shardCountFor(sources.subList(0, 10), 8)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,59 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ExtractionProfileTest {
+
+    @DisplayName(
+            """
+        Given the java-only profile\s
+        When filtering tarball entries\s
+        Then skips the clang plugin and C-family tooling but keeps the rest
+       """)
+    @Test
+    void javaOnlyExcludesClangEntries() {
+        assertThat(ExtractionProfile.JAVA_ONLY.includes("infer-root/bin/infer")).isTrue();
+        assertThat(ExtractionProfile.JAVA_ONLY.includes("infer-root/lib/infer/infer/lib/java/models.jar"))
+                .isTrue();
+        assertThat(ExtractionProfile.JAVA_ONLY.includes("infer-root/lib/infer/facebook-clang-plugins"))
+                .isFalse();
+        assertThat(ExtractionProfile.JAVA_ONLY.includes("infer-root/lib/infer/facebook-clang-plugins/clang/bin/clang"))
+                .isFalse();
+        assertThat(ExtractionProfile.JAVA_ONLY.includes("infer-root/lib/infer/facebook-clang-plugins-notes"))
+                .isTrue();
+        assertThat(ExtractionProfile.FULL.includes("infer-root/lib/infer/facebook-clang-plugins/clang/bin/clang"))
+                .isTrue();
+    }
+
+    @DisplayName(
+            """
+        Given an installed profile\s
+        When checking whether it covers a requested profile\s
+        Then a full install covers everything and a java-only install covers only java-only
+       """)
+    @Test
+    void covers() {
+        assertThat(ExtractionProfile.FULL.covers(ExtractionProfile.JAVA_ONLY)).isTrue();
+        assertThat(ExtractionProfile.FULL.covers(ExtractionProfile.FULL)).isTrue();
+        assertThat(ExtractionProfile.JAVA_ONLY.covers(ExtractionProfile.JAVA_ONLY))
+                .isTrue();
+        assertThat(ExtractionProfile.JAVA_ONLY.covers(ExtractionProfile.FULL)).isFalse();
+    }
+
+    @DisplayName(
+            """
+        Given a profile id from the plugin configuration\s
+        When looking up the profile\s
+        Then matches ids case-insensitively and rejects unknown ids
+       """)
+    @Test
+    void fromId() {
+        assertThat(ExtractionProfile.fromId("java-only")).hasValue(ExtractionProfile.JAVA_ONLY);
+        assertThat(ExtractionProfile.fromId("FULL")).hasValue(ExtractionProfile.FULL);
+        assertThat(ExtractionProfile.fromId("cpp-only")).isEmpty();
+        assertThat(ExtractionProfile.supportedIds()).isEqualTo("full, java-only");
+    }
+}
@@ -0,0 +1,41 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GitWorktreeTest {
+
+    @DisplayName(
+            """
+        Given a git command which finishes\s
+        When running it\s
+        Then returns its output
+       """)
+    @Test
+    void gitReturnsOutput(@TempDir Path tmp) throws Exception {
+        assertThat(GitWorktree.git(tmp, Duration.ofMinutes(1), "--version")).startsWith("git version");
+    }
+
+    @DisplayName(
+            """
+        Given a git command which waits for input that never comes\s
+        When running it with a stall timeout\s
+        Then kills it once it made no progress for the stall timeout
+       """)
+    @Test
+    void gitStalledIsKilled(@TempDir Path tmp) throws Exception {
+        GitWorktree.git(tmp, Duration.ofMinutes(1), "init", "-q");
+
+        var exception = assertThrows(
+                IOException.class, () -> GitWorktree.git(tmp, Duration.ofMillis(500), "cat-file", "--batch"));
+
+        assertThat(exception).hasMessageThat().contains("wrote no output and used no CPU");
+    }
+}
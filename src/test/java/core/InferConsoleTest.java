@@ -0,0 +1,79 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.codehaus.plexus.logging.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InferConsoleTest {
+
+    @Mock
+    private Logger logger;
+
+    @DisplayName(
+            """
+        Given Infer output with progress lines, an error and the closing issue summary\s
+        When passing it through the console\s
+        Then logs only the error and the summary, and writes every line to the console log
+       """)
+    @Test
+    void acceptKeepsProgressOutOfConsole(@TempDir Path tempDir) throws Exception {
+        Path consoleLogFile = tempDir.resolve(InferConsole.CONSOLE_LOG_FILE_NAME);
+
+        try (var console = new InferConsole(logger, false, consoleLogFile)) {
+            console.accept("Capturing in javac mode...");
+            console.accept("[12/40] Analyzing Hello.java");
+            console.accept("");
+            console.accept("ERROR: could not load class");
+            console.accept("Found 1 issue");
+            console.accept("  Hello.java:3: error: NULL_DEREFERENCE");
+        }
+
+        verify(logger, never()).info("Capturing in javac mode...");
+        verify(logger, never()).info("[12/40] Analyzing Hello.java");
+        verify(logger).error("ERROR: could not load class");
+        verify(logger).info("Found 1 issue");
+        verify(logger).info("  Hello.java:3: error: NULL_DEREFERENCE");
+        verify(logger, never()).error("  Hello.java:3: error: NULL_DEREFERENCE");
+        assertThat(Files.readAllLines(consoleLogFile))
+                .containsExactly(
+                        "Capturing in javac mode...",
+                        "[12/40] Analyzing Hello.java",
+                        "",
+                        "ERROR: could not load class",
+                        "Found 1 issue",
+                        "  Hello.java:3: error: NULL_DEREFERENCE")
+                .inOrder();
+    }
+
+    @DisplayName(
+            """
+        Given verbose output\s
+        When passing Infer output through the console\s
+        Then logs every non-blank line
+       """)
+    @Test
+    void acceptPassesEverythingThroughWhenVerbose(@TempDir Path tempDir) throws Exception {
+        try (var console = new InferConsole(logger, true, tempDir.resolve(InferConsole.CONSOLE_LOG_FILE_NAME))) {
+            console.accept("[12/40] Analyzing Hello.java");
+            console.accept("   ");
+            console.accept("ERROR: could not load class");
+        }
+
+        verify(logger).info("[12/40] Analyzing Hello.java");
+        verify(logger).info("ERROR: could not load class");
+        verify(logger, never()).info("   ");
+        verify(logger, never()).error(anyString());
+    }
+}
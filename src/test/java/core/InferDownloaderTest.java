@@ -0,0 +1,373 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.verify;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InferDownloaderTest {
+
+    private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private static final String TARBALL_PATH = "/infer.tar.xz";
+
+    @Mock
+    private Logger logger;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private InferDownloader downloader;
+
+    @BeforeEach
+    void setUp() {
+        downloader = new InferDownloader(logger, new HttpClientFactory());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @DisplayName(
+            """
+        Given a server advertising byte ranges\s
+        When downloading with multiple segments\s
+        Then issues one range request per segment\s
+        And the downloaded file matches the served bytes
+       """)
+    @Test
+    void downloadSegmentedWithRangeSupport(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(10_000);
+        URI uri = startServer(content, true, true);
+        Path target = tmp.resolve("infer.tar.xz");
+
+        downloader.download(uri, target, 4, 1_000);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(requests.getFirst()).isEqualTo("HEAD");
+        assertThat(requests.stream().filter(r -> r.startsWith("GET bytes=")).toList())
+                .containsExactly(
+                        "GET bytes=0-2499", "GET bytes=2500-4999", "GET bytes=5000-7499", "GET bytes=7500-9999");
+    }
+
+    @DisplayName(
+            """
+        Given a server advertising byte ranges\s
+        And a file smaller than the requested segments allow\s
+        When downloading\s
+        Then limits the segment count by the minimum segment size
+       """)
+    @Test
+    void downloadSegmentCountLimitedByMinSegmentSize(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(3_000);
+        URI uri = startServer(content, true, true);
+        Path target = tmp.resolve("infer.tar.xz");
+
+        downloader.download(uri, target, 8, 1_000);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(requests.stream().filter(r -> r.startsWith("GET bytes=")).count())
+                .isEqualTo(3);
+    }
+
+    @DisplayName(
+            """
+        Given a server NOT advertising byte ranges\s
+        When downloading with multiple segments\s
+        Then falls back to a single stream
+       """)
+    @Test
+    void downloadFallsBackToSingleStreamWithoutAcceptRanges(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(10_000);
+        URI uri = startServer(content, false, true);
+        Path target = tmp.resolve("infer.tar.xz");
+
+        downloader.download(uri, target, 4, 1_000);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(requests).containsExactly("HEAD", "GET").inOrder();
+    }
+
+    @DisplayName(
+            """
+        Given a server advertising byte ranges but ignoring Range headers\s
+        When downloading with multiple segments\s
+        Then warns and retries with a single stream
+       """)
+    @Test
+    void downloadFallsBackToSingleStreamWhenRangeIgnored(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(10_000);
+        URI uri = startServer(content, true, false);
+        Path target = tmp.resolve("infer.tar.xz");
+
+        downloader.download(uri, target, 4, 1_000);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(requests.getLast()).isEqualTo("GET");
+        verify(logger).warn("Server ignored a range request for " + uri + ". Retrying with a single stream.");
+    }
+
+    @DisplayName(
+            """
+        Given a single segment requested\s
+        When downloading\s
+        Then does not probe for range support
+       """)
+    @Test
+    void downloadSingleSegmentSkipsProbe(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(10_000);
+        URI uri = startServer(content, true, true);
+        Path target = tmp.resolve("infer.tar.xz");
+
+        downloader.download(uri, target, 1, 1_000);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(requests).containsExactly("GET");
+    }
+
+    @DisplayName(
+            """
+        Given a missing file on the server\s
+        When downloading\s
+        Then throws MojoExecutionException with the HTTP status
+       """)
+    @Test
+    void downloadNotFoundThrowsMojoExecutionException(@TempDir Path tmp) throws Exception {
+        URI uri = startServer(randomBytes(10), true, true).resolve("/missing.tar.xz");
+
+        var mojoExecutionException = assertThrows(
+                MojoExecutionException.class, () -> downloader.download(uri, tmp.resolve("infer.tar.xz"), 4, 1));
+
+        assertThat(mojoExecutionException)
+                .hasMessageThat()
+                .isEqualTo("Failed to download Infer from " + uri + ". HTTP status 404");
+        verify(logger).error("Failed to download Infer from " + uri + ". HTTP status 404");
+    }
+
+    @DisplayName(
+            """
+        Given a server advertising byte ranges\s
+        And one segment that stalls after its first bytes\s
+        When another segment ends early\s
+        Then aborts the stalled segment and throws IOException without waiting for it
+       """)
+    @Test
+    void downloadSegmentedAbortsStalledSegmentsWhenOneFails(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(10_000);
+        CountDownLatch stalledSegmentReleased = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                if (exchange.getRequestMethod().equals("HEAD")) {
+                    serve(exchange, content, true, true);
+                    return;
+                }
+
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                exchange.getResponseHeaders()
+                        .add("Content-Range", range.replace("bytes=", "bytes ") + "/" + content.length);
+                exchange.sendResponseHeaders(206, 5_000);
+                OutputStream body = exchange.getResponseBody();
+
+                if (range.equals("bytes=0-4999")) {
+                    body.write(content, 0, 100);
+                    body.flush();
+                    stalledSegmentReleased.await(30, TimeUnit.SECONDS);
+                } else {
+                    body.write(content, 5_000, 100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        URI uri = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + server.getAddress().getPort() + TARBALL_PATH);
+
+        try {
+            assertTimeoutPreemptively(
+                    Duration.ofSeconds(10),
+                    () -> assertThrows(
+                            IOException.class, () -> downloader.download(uri, tmp.resolve("infer.tar.xz"), 2, 1)));
+        } finally {
+            stalledSegmentReleased.countDown();
+        }
+    }
+
+    @DisplayName(
+            """
+        Given a server advertising byte ranges\s
+        And a proxy answering one segment with a different byte range than requested\s
+        When downloading with multiple segments\s
+        Then throws IOException naming both ranges instead of writing those bytes at the segment's offset
+       """)
+    @Test
+    void downloadSegmentedRejectsMismatchedContentRange(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(10_000);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                if (exchange.getRequestMethod().equals("HEAD")
+                        || !exchange.getRequestHeaders().getFirst("Range").equals("bytes=5000-9999")) {
+                    serve(exchange, content, true, true);
+                    return;
+                }
+
+                exchange.getResponseHeaders().add("Content-Range", "bytes 0-4999/10000");
+                exchange.sendResponseHeaders(206, 5_000);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(content, 0, 5_000);
+                }
+            }
+        });
+        server.start();
+        URI uri = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + server.getAddress().getPort() + TARBALL_PATH);
+
+        var ioException =
+                assertThrows(IOException.class, () -> downloader.download(uri, tmp.resolve("infer.tar.xz"), 2, 1));
+
+        assertThat(ioException)
+                .hasMessageThat()
+                .isEqualTo("Segment 5000-9999 of " + uri
+                        + " was answered with Content-Range bytes 0-4999/10000 instead of bytes 5000-9999/10000");
+    }
+
+    @DisplayName(
+            """
+        Given a server advertising byte ranges\s
+        And one segment that stalls after its first bytes\s
+        When another segment is answered with the whole file instead of its range\s
+        Then aborts the stalled segment and retries with a single stream without waiting for it
+       """)
+    @Test
+    void downloadSegmentedAbortsStalledSegmentsWhenRangeIgnored(@TempDir Path tmp) throws Exception {
+        byte[] content = randomBytes(10_000);
+        CountDownLatch stalledSegmentReleased = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                String range = exchange.getRequestHeaders().getFirst("Range");
+
+                if (!"bytes=0-4999".equals(range)) {
+                    serve(exchange, content, true, false);
+                    return;
+                }
+
+                exchange.getResponseHeaders().add("Content-Range", "bytes 0-4999/10000");
+                exchange.sendResponseHeaders(206, 5_000);
+                OutputStream body = exchange.getResponseBody();
+                body.write(content, 0, 100);
+                body.flush();
+                stalledSegmentReleased.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        URI uri = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + server.getAddress().getPort() + TARBALL_PATH);
+        Path target = tmp.resolve("infer.tar.xz");
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> downloader.download(uri, target, 2, 1));
+        } finally {
+            stalledSegmentReleased.countDown();
+        }
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        verify(logger).warn("Server ignored a range request for " + uri + ". Retrying with a single stream.");
+    }
+
+    private URI startServer(byte[] content, boolean advertiseRanges, boolean honourRanges) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                serve(exchange, content, advertiseRanges, honourRanges);
+            }
+        });
+        server.start();
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + server.getAddress().getPort() + TARBALL_PATH);
+    }
+
+    private void serve(HttpExchange exchange, byte[] content, boolean advertiseRanges, boolean honourRanges)
+            throws IOException {
+        String method = exchange.getRequestMethod();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        requests.add(range == null ? method : method + " " + range);
+
+        if (!exchange.getRequestURI().getPath().equals(TARBALL_PATH)) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        if (advertiseRanges) {
+            exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        }
+
+        if (method.equals("HEAD")) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        Matcher matcher = range == null ? null : RANGE_PATTERN.matcher(range);
+        if (honourRanges && matcher != null && matcher.matches()) {
+            int start = Integer.parseInt(matcher.group(1));
+            int end = Integer.parseInt(matcher.group(2));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            exchange.sendResponseHeaders(206, end - start + 1L);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(content, start, end - start + 1);
+            }
+            return;
+        }
+
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(content);
+        }
+    }
+
+    private byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -3,20 +3,26 @@ package core;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import Utils.MultiBlockXz;
 import Utils.TarContent;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
@@ -26,13 +32,23 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
 import java.util.EnumSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarConstants;
@@ -41,6 +57,10 @@ import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.logging.Logger;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -48,6 +68,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -57,10 +78,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class InferInstallerTest {
 
-    private static final String ROOT_DIR =
+    private static final String INFER_VERSION = "v1.2.0";
+
+    private static final String ROOT_PREFIX =
             System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")
-                    ? "infer-linux-x86_64-v1.2.0"
-                    : "infer-osx-arm64-v1.2.0";
+                    ? "infer-linux-x86_64-"
+                    : "infer-osx-arm64-";
+
+    private static final String ROOT_DIR = ROOT_PREFIX + INFER_VERSION;
 
     @Mock
     private Logger logger;
@@ -71,11 +96,21 @@ class InferInstallerTest {
     @Mock
     private HttpClient httpClient;
 
+    @Mock
+    private RepositorySystem repositorySystem;
+
+    @Mock
+    private RepositorySystemSession repositorySession;
+
     private InferInstaller installer;
 
     @BeforeEach
     void setUp() {
-        installer = new InferInstaller(logger, httpClientFactory);
+        installer = new InferInstaller(
+                logger,
+                new InferDownloader(logger, httpClientFactory),
+                new InstallCache(logger),
+                new InferArtifactResolver(logger, repositorySystem));
     }
 
     @DisplayName(
@@ -98,7 +133,7 @@ class InferInstallerTest {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
-        Path inferExe = installer.tryInstallInfer(dummyHome.resolve("Downloads"));
+        Path inferExe = installer.tryInstallInfer(installParams(dummyHome.resolve("Downloads")));
 
         Path expectedInferPath =
                 dummyHome.resolve("Downloads").resolve(rootDir).resolve("bin").resolve("infer");
@@ -125,7 +160,7 @@ class InferInstallerTest {
         Files.createDirectories(existingInferExePath.getParent());
         Files.createFile(existingInferExePath);
 
-        Path inferExe = installer.tryInstallInfer(dummyHome.resolve("Downloads"));
+        Path inferExe = installer.tryInstallInfer(installParams(dummyHome.resolve("Downloads")));
 
         assertThat(inferExe).isEqualTo(existingInferExePath);
         assertThat(Files.exists(inferExe)).isTrue();
@@ -155,7 +190,7 @@ class InferInstallerTest {
                 .thenReturn(badHttpResponse);
 
         var mojoExecutionException =
-                assertThrows(MojoExecutionException.class, () -> installer.tryInstallInfer(dummyHome));
+                assertThrows(MojoExecutionException.class, () -> installer.tryInstallInfer(installParams(dummyHome)));
         assertThat(mojoExecutionException.getMessage()).isEqualTo("Error occurred when attempting to install Infer");
         assertThat(mojoExecutionException).hasCauseThat().isInstanceOf(MojoExecutionException.class);
         String expectedInferPath =
@@ -194,7 +229,7 @@ class InferInstallerTest {
         assertThat(Thread.currentThread().isInterrupted()).isFalse();
 
         var mojoExecutionException =
-                assertThrows(MojoExecutionException.class, () -> installer.tryInstallInfer(dummyHome));
+                assertThrows(MojoExecutionException.class, () -> installer.tryInstallInfer(installParams(dummyHome)));
 
         assertThat(mojoExecutionException.getMessage()).isEqualTo("Error occurred when attempting to install Infer");
         assertThat(mojoExecutionException).hasCauseThat().isInstanceOf(InterruptedException.class);
@@ -230,7 +265,7 @@ class InferInstallerTest {
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
         var mojoExecutionException =
-                assertThrows(MojoExecutionException.class, () -> installer.tryInstallInfer(dummyHome));
+                assertThrows(MojoExecutionException.class, () -> installer.tryInstallInfer(installParams(dummyHome)));
 
         assertThat(mojoExecutionException.getMessage()).isEqualTo("Error occurred when attempting to install Infer");
         assertThat(mojoExecutionException).hasCauseThat().isInstanceOf(MojoExecutionException.class);
@@ -271,7 +306,7 @@ class InferInstallerTest {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
-        Path inferExe = installer.tryInstallInfer(dummyHome.resolve("Downloads"));
+        Path inferExe = installer.tryInstallInfer(installParams(dummyHome.resolve("Downloads")));
         // no exception => no POSIX permission changes attempted (file mode didn't set exec bits)
 
         Path expectedInferPath =
@@ -305,13 +340,15 @@ class InferInstallerTest {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
-        Path inferExe = installer.tryInstallInfer(dummyHome.resolve("Downloads"));
+        Path inferExe = installer.tryInstallInfer(installParams(dummyHome.resolve("Downloads")));
 
         Path downloads = dummyHome.resolve("Downloads");
         Path hardLinkPath = downloads.resolve(rootDir).resolve("bin").resolve("hardlink.txt");
         assertThat(Files.exists(inferExe)).isTrue();
         assertThat(Files.exists(hardLinkPath)).isTrue();
         assertThat(Files.readString(hardLinkPath)).isEqualTo("orig");
+        assertThat(Files.isSameFile(hardLinkPath, hardLinkPath.resolveSibling("original.txt")))
+                .isTrue();
 
         // Should not warn about missing target in this scenario
         verify(logger, never()).warn("Hard link target does not exist yet: " + rootDir + "/bin/original.txt");
@@ -339,7 +376,7 @@ class InferInstallerTest {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
-        Path inferExe = installer.tryInstallInfer(dummyHome);
+        Path inferExe = installer.tryInstallInfer(installParams(dummyHome));
         assertThat(Files.exists(inferExe)).isTrue();
 
         // Verify specific warn on missing hard link target
@@ -366,7 +403,8 @@ class InferInstallerTest {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
-        var mojoFailureException = assertThrows(MojoFailureException.class, () -> installer.tryInstallInfer(dummyHome));
+        var mojoFailureException =
+                assertThrows(MojoFailureException.class, () -> installer.tryInstallInfer(installParams(dummyHome)));
 
         assertThat(mojoFailureException)
                 .hasMessageThat()
@@ -417,23 +455,21 @@ class InferInstallerTest {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
-        Path expectedSymlinkTarget = dummyHome
-                .resolve("Downloads")
-                .resolve(rootDir)
-                .resolve("some")
-                .resolve("symlink")
-                .normalize();
+        // Entries are extracted into a staging dir inside the install dir before being moved into place
+        Path installDir = dummyHome.resolve("Downloads");
+        ArgumentMatcher<Path> expectedSymlinkTarget = link ->
+                link != null && link.startsWith(installDir) && link.endsWith(Path.of(rootDir, "some", "symlink"));
         Path expectedLinkTarget = Path.of("target-symlink");
 
         try (MockedStatic<Files> files = mockStatic(Files.class, CALLS_REAL_METHODS)) {
             // Stub to no-op and return the target path
-            files.when(() -> Files.createSymbolicLink(eq(expectedSymlinkTarget), eq(expectedLinkTarget)))
-                    .thenAnswer(inv -> expectedSymlinkTarget);
+            files.when(() -> Files.createSymbolicLink(argThat(expectedSymlinkTarget), eq(expectedLinkTarget)))
+                    .thenAnswer(inv -> inv.getArgument(0));
 
-            Path inferExe = installer.tryInstallInfer(dummyHome.resolve("Downloads"));
+            Path inferExe = installer.tryInstallInfer(installParams(installDir));
 
             // Verify symlink creation was attempted with the expected paths
-            files.verify(() -> Files.createSymbolicLink(eq(expectedSymlinkTarget), eq(expectedLinkTarget)));
+            files.verify(() -> Files.createSymbolicLink(argThat(expectedSymlinkTarget), eq(expectedLinkTarget)));
 
             // Installation still succeeds and returns the expected infer path
             Path expectedInferPath = dummyHome
@@ -467,7 +503,7 @@ class InferInstallerTest {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
 
-        Path inferExe = installer.tryInstallInfer(dummyHome);
+        Path inferExe = installer.tryInstallInfer(installParams(dummyHome));
         assertThat(Files.exists(inferExe)).isTrue();
 
         var infoLogCaptor = ArgumentCaptor.forClass(String.class);
@@ -521,7 +557,7 @@ class InferInstallerTest {
             });
 
             var mojoFailureException =
-                    assertThrows(MojoFailureException.class, () -> installer.tryInstallInfer(dummyHome));
+                    assertThrows(MojoFailureException.class, () -> installer.tryInstallInfer(installParams(dummyHome)));
 
             assertThat(mojoFailureException.getMessage()).contains("Failed to cleanup tmp dir used to download Infer:");
             assertThat(mojoFailureException).hasCauseThat().isInstanceOf(IOException.class);
@@ -570,7 +606,7 @@ class InferInstallerTest {
         // Let Files static methods call real methods except for the two POSIX methods we verify
         try (MockedStatic<Files> filesMock = mockStatic(Files.class, CALLS_REAL_METHODS)) {
             // We don't stub getPosixFilePermissions/setPosixFilePermissions; we just want to verify they're not called
-            Path inferExe = installer.tryInstallInfer(dummyHome);
+            Path inferExe = installer.tryInstallInfer(installParams(dummyHome));
             assertThat(Files.exists(inferExe)).isTrue();
 
             // Verify POSIX permission APIs were NOT called
@@ -612,14 +648,18 @@ class InferInstallerTest {
 
             filesMock.when(() -> Files.getPosixFilePermissions(any(Path.class))).thenReturn(EnumSet.copyOf(baseline));
 
-            Path inferExe = installer.tryInstallInfer(dummyHome);
+            Path inferExe = installer.tryInstallInfer(installParams(dummyHome));
             assertThat(Files.exists(inferExe)).isTrue();
 
+            // The executable is extracted into a staging dir first, so match it by its path inside the Infer root
+            Path inferExeInRoot = dummyHome.relativize(inferExe);
+            ArgumentMatcher<Path> extractedInferExe = path -> path != null && path.endsWith(inferExeInRoot);
+
             // Verify getPosixFilePermissions was called for the extracted file
-            filesMock.verify(() -> Files.getPosixFilePermissions(inferExe));
+            filesMock.verify(() -> Files.getPosixFilePermissions(argThat(extractedInferExe)));
 
             // Verify setPosixFilePermissions was called and the set contains all exec bits
-            filesMock.verify(() -> Files.setPosixFilePermissions(eq(inferExe), permsCaptor.capture()));
+            filesMock.verify(() -> Files.setPosixFilePermissions(argThat(extractedInferExe), permsCaptor.capture()));
 
             Set<PosixFilePermission> finalPerms = permsCaptor.getValue();
             assertThat(finalPerms)
@@ -653,7 +693,8 @@ class InferInstallerTest {
                 .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytesWithoutInferExe));
 
         var mojoExecutionException = assertThrows(
-                MojoExecutionException.class, () -> installer.tryInstallInfer(dummyHome.resolve("Downloads")));
+                MojoExecutionException.class,
+                () -> installer.tryInstallInfer(installParams(dummyHome.resolve("Downloads"))));
 
         assertThat(mojoExecutionException.getMessage()).isEqualTo("Error occurred when attempting to install Infer");
         assertThat(mojoExecutionException).hasCauseThat().isInstanceOf(MojoExecutionException.class);
@@ -674,6 +715,637 @@ class InferInstallerTest {
         assertTmpDirCleanup();
     }
 
+    @DisplayName(
+            """
+        Given file available to download\s
+        And streaming install enabled\s
+        When plugin tries to install Infer\s
+        Then extracts Infer straight from the HTTP response without a tmp download dir\s
+        And logs the SHA-256 digest of the streamed tarball
+       """)
+    @Test
+    void tryInstallInferStreamingSuccessful(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] tarBytes = createTarXz("streamed".getBytes(StandardCharsets.UTF_8), ROOT_DIR);
+        HttpResponse<InputStream> streamingResponse = streamingInferUrlHttpResponse(tarBytes);
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(streamingResponse);
+
+        try (MockedStatic<Files> filesMock = mockStatic(Files.class, CALLS_REAL_METHODS)) {
+            Path inferExe = installer.tryInstallInfer(streamingInstallParams(dummyHome.resolve("Downloads")));
+
+            assertThat(inferExe)
+                    .isEqualTo(dummyHome
+                            .resolve("Downloads")
+                            .resolve(ROOT_DIR)
+                            .resolve("bin")
+                            .resolve("infer"));
+            assertThat(Files.readString(inferExe)).isEqualTo("streamed");
+            filesMock.verify(() -> Files.createTempDirectory(any(String.class)), never());
+        }
+
+        String expectedDigest =
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(tarBytes));
+        var debugLogCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger, atLeastOnce()).debug(debugLogCaptor.capture());
+        assertThat(debugLogCaptor.getAllValues()).contains("SHA-256 of the Infer tarball: " + expectedDigest);
+        assertThat(debugLogCaptor.getAllValues().stream()
+                        .anyMatch(s -> s.startsWith("Successfully downloaded to tmp dir:")))
+                .isFalse();
+    }
+
+    @DisplayName(
+            """
+        Given file is NOT available to download\s
+        And streaming install enabled\s
+        When plugin tries to install Infer\s
+        Then throws MojoExecutionException with fail to download message
+       """)
+    @Test
+    void tryInstallInferStreamingNon200HttpStatusThrowsMojoExecutionException(@TempDir Path dummyHome)
+            throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+
+        HttpResponse<InputStream> badHttpResponse = mock(HttpResponse.class);
+        when(badHttpResponse.statusCode()).thenReturn(404);
+        when(badHttpResponse.body()).thenReturn(InputStream.nullInputStream());
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(badHttpResponse);
+
+        var mojoExecutionException = assertThrows(
+                MojoExecutionException.class, () -> installer.tryInstallInfer(streamingInstallParams(dummyHome)));
+
+        assertThat(mojoExecutionException.getMessage()).isEqualTo("Error occurred when attempting to install Infer");
+        assertThat(mojoExecutionException).hasCauseThat().isInstanceOf(MojoExecutionException.class);
+        assertThat(mojoExecutionException).hasCauseThat().hasMessageThat().endsWith(". HTTP status 404");
+        assertThat(Files.exists(dummyHome.resolve(ROOT_DIR))).isFalse();
+    }
+
+    @DisplayName(
+            """
+        Given file available to download\s
+        And the tarball is compressed into multiple XZ blocks\s
+        When plugin tries to install Infer with several decompression threads\s
+        Then decodes the blocks in parallel and extracts every entry\s
+        And logs the SHA-256 digest of the downloaded tarball
+       """)
+    @Test
+    void tryInstallInferMultiBlockTarballDecompressedInParallel(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] largeContent = "0123456789abcdef".repeat(16 * 1024).getBytes(StandardCharsets.UTF_8);
+        byte[] tarBytes = MultiBlockXz.compress(
+                buildTar(ROOT_DIR, (root, tar) -> {
+                    TarArchiveEntry large = createFile(largeContent, root + "lib/large.bin");
+                    tar.putArchiveEntry(large);
+                    tar.write(largeContent);
+                    tar.closeArchiveEntry();
+
+                    byte[] inferContent = "parallel".getBytes(StandardCharsets.UTF_8);
+                    TarArchiveEntry infer = createFile(inferContent, root + "bin/infer");
+                    tar.putArchiveEntry(infer);
+                    tar.write(inferContent);
+                    tar.closeArchiveEntry();
+                }),
+                32 * 1024);
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
+
+        Path installDir = dummyHome.resolve("Downloads");
+        Path inferExe = installer.tryInstallInfer(new InstallParams(
+                installDir,
+                INFER_VERSION,
+                4,
+                8L * 1024 * 1024,
+                false,
+                4,
+                false,
+                ExtractionProfile.FULL,
+                0,
+                InferSources.githubReleases()));
+
+        assertThat(Files.readString(inferExe)).isEqualTo("parallel");
+        assertThat(Files.readAllBytes(
+                        installDir.resolve(ROOT_DIR).resolve("lib").resolve("large.bin")))
+                .isEqualTo(largeContent);
+
+        String expectedDigest =
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(tarBytes));
+        var debugLogCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger, atLeastOnce()).debug(debugLogCaptor.capture());
+        assertThat(debugLogCaptor.getAllValues().stream()
+                        .anyMatch(s -> s.matches("Decompressing \\d+ XZ blocks on 4 threads")))
+                .isTrue();
+        assertThat(debugLogCaptor.getAllValues()).contains("SHA-256 of the Infer tarball: " + expectedDigest);
+        assertTmpDirCleanup();
+    }
+
+    @DisplayName(
+            """
+        Given file available to download\s
+        And two modules of a parallel build installing into the same dir\s
+        When both try to install Infer at the same time\s
+        Then downloads Infer once and hands the same executable to both
+       """)
+    @Test
+    void tryInstallInferConcurrentCallersShareOneInstall(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] tarBytes = createTarXz("shared".getBytes(StandardCharsets.UTF_8), ROOT_DIR);
+        Path installDir = dummyHome.resolve("Downloads");
+        InstallParams singleStreamParams = new InstallParams(
+                installDir,
+                INFER_VERSION,
+                1,
+                8L * 1024 * 1024,
+                false,
+                0,
+                false,
+                ExtractionProfile.FULL,
+                0,
+                InferSources.githubReleases());
+        var secondCallerWaiting = new CountDownLatch(1);
+
+        lenient()
+                .doAnswer(inv -> {
+                    secondCallerWaiting.countDown();
+                    return null;
+                })
+                .when(logger)
+                .info("Waiting for the Infer installation already in progress in: " + installDir);
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> {
+                    // Hold the download until the other caller has joined the in-flight install
+                    assertThat(secondCallerWaiting.await(30, TimeUnit.SECONDS)).isTrue();
+                    return successfulInferUrlHttpResponse(inv, tarBytes);
+                });
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(2)) {
+            Future<Path> first = callers.submit(() -> installer.tryInstallInfer(singleStreamParams));
+            Future<Path> second = callers.submit(() -> installer.tryInstallInfer(singleStreamParams));
+
+            Path expectedInferPath = installDir.resolve(ROOT_DIR).resolve("bin").resolve("infer");
+            assertThat(first.get(30, TimeUnit.SECONDS)).isEqualTo(expectedInferPath);
+            assertThat(second.get(30, TimeUnit.SECONDS)).isEqualTo(expectedInferPath);
+            assertThat(Files.readString(expectedInferPath)).isEqualTo("shared");
+        }
+
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @DisplayName(
+            """
+        Given file available to download\s
+        And a previous build was killed while installing Infer\s
+        When plugin tries to install Infer\s
+        Then removes the leftover staging dir and the incomplete Infer root\s
+        And moves a complete installation into place
+       """)
+    @Test
+    void tryInstallInferReplacesIncompleteInstallation(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] tarBytes = createTarXz("complete".getBytes(StandardCharsets.UTF_8), ROOT_DIR);
+        Path installDir = dummyHome.resolve("Downloads");
+        Path staleStagingFile =
+                installDir.resolve(".infer-staging-123").resolve(ROOT_DIR).resolve("partial");
+        Path incompleteRootFile = installDir.resolve(ROOT_DIR).resolve("lib").resolve("partial");
+        Files.createDirectories(staleStagingFile.getParent());
+        Files.writeString(staleStagingFile, "partial");
+        Files.createDirectories(incompleteRootFile.getParent());
+        Files.writeString(incompleteRootFile, "partial");
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
+
+        Path inferExe = installer.tryInstallInfer(installParams(installDir));
+
+        assertThat(Files.readString(inferExe)).isEqualTo("complete");
+        assertThat(Files.exists(incompleteRootFile)).isFalse();
+        try (Stream<Path> installDirEntries = Files.list(installDir)) {
+            assertThat(installDirEntries.map(entry -> entry.getFileName().toString()))
+                    .containsExactly(ROOT_DIR, ".infer-install.lock");
+        }
+        verify(logger).warn("Replacing incomplete Infer installation in: " + installDir.resolve(ROOT_DIR));
+        assertTmpDirCleanup();
+    }
+
+    @DisplayName(
+            """
+        Given Infer was installed by the plugin\s
+        When plugin tries to install Infer again\s
+        Then the install manifest lists the extracted files and the tarball digest\s
+        And reuses the installation without downloading
+       """)
+    @Test
+    void tryInstallInferWritesManifestAndReusesInstallation(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] tarBytes = createTarXz("manifest".getBytes(StandardCharsets.UTF_8), ROOT_DIR);
+        Path installDir = dummyHome.resolve("Downloads");
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
+
+        Path inferExe = installer.tryInstallInfer(installParams(installDir));
+        Path reusedInferExe = installer.tryInstallInfer(installParams(installDir));
+
+        var manifest = InstallManifest.read(installDir.resolve(ROOT_DIR).resolve(InstallManifest.FILE_NAME));
+        assertThat(manifest.tarballDigest())
+                .isEqualTo(HexFormat.of()
+                        .formatHex(MessageDigest.getInstance("SHA-256").digest(tarBytes)));
+        assertThat(manifest.entries())
+                .containsExactly(InstallManifest.Entry.file(ROOT_DIR + "/bin/infer", 8, crc32Of("manifest")));
+        assertThat(reusedInferExe).isEqualTo(inferExe);
+        verify(logger).info("Infer executable already exists in: " + inferExe + ". Using this for Infer analysis.");
+        verify(httpClient, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @DisplayName(
+            """
+        Given Infer was installed by the plugin\s
+        And one of its files was truncated afterwards\s
+        When plugin tries to install Infer again\s
+        Then notices the damage from the manifest and reinstalls Infer
+       """)
+    @Test
+    void tryInstallInferReinstallsDamagedInstallation(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] tarBytes = createTarXz("original".getBytes(StandardCharsets.UTF_8), ROOT_DIR);
+        Path installDir = dummyHome.resolve("Downloads");
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
+
+        Path inferExe = installer.tryInstallInfer(installParams(installDir));
+        Files.writeString(inferExe, "trunc");
+
+        installer.tryInstallInfer(installParams(installDir));
+
+        assertThat(Files.readString(inferExe)).isEqualTo("original");
+        verify(logger, atLeastOnce())
+                .warn("Infer installation in " + installDir.resolve(ROOT_DIR) + " is damaged, " + ROOT_DIR
+                        + "/bin/infer is missing or changed. Reinstalling Infer.");
+        verify(httpClient, times(4)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @DisplayName(
+            """
+        Given Infer was installed with installation verification enabled\s
+        And a hard linked file was corrupted without changing its size\s
+        When plugin tries to install Infer again with verification enabled\s
+        Then re-extracts only the corrupt files from the cached tarball without downloading
+       """)
+    @Test
+    void tryInstallInferVerificationRepairsFromCachedTarball(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] tarBytes = createTarXzWithHardLinkExistingTarget("original".getBytes(StandardCharsets.UTF_8), ROOT_DIR);
+        Path installDir = dummyHome.resolve("Downloads");
+        InstallParams verifyingParams = new InstallParams(
+                installDir,
+                INFER_VERSION,
+                4,
+                8L * 1024 * 1024,
+                false,
+                0,
+                true,
+                ExtractionProfile.FULL,
+                0,
+                InferSources.githubReleases());
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
+
+        Path inferExe = installer.tryInstallInfer(verifyingParams);
+        Path original = inferExe.resolveSibling("original.txt");
+        Path hardLink = inferExe.resolveSibling("hardlink.txt");
+        Files.writeString(original, "corrupt!");
+
+        Path verifiedInferExe = installer.tryInstallInfer(verifyingParams);
+
+        assertThat(verifiedInferExe).isEqualTo(inferExe);
+        assertThat(Files.readString(original)).isEqualTo("original");
+        assertThat(Files.readString(hardLink)).isEqualTo("original");
+        assertThat(Files.exists(installDir.resolve(ROOT_DIR).resolve(".infer-tarball.tar.xz")))
+                .isTrue();
+        // The tarball's hard link is a real link, so corrupting the original corrupts both names
+        verify(logger)
+                .info("Re-extracting 2 Infer files from the cached tarball: "
+                        + installDir.resolve(ROOT_DIR).resolve(".infer-tarball.tar.xz"));
+        verify(httpClient, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @DisplayName(
+            """
+        Given file available to download\s
+        And the tarball contains the clang plugin\s
+        When plugin installs Infer with the java-only profile and later with the full profile\s
+        Then the first install skips the clang plugin entries\s
+        And the second extracts only those entries into the existing installation
+       """)
+    @Test
+    void tryInstallInferJavaOnlyProfileThenFullProfileExtractsIncrementally(@TempDir Path dummyHome) throws Exception {
+        System.setProperty("user.home", dummyHome.toString());
+        byte[] clangContent = "clang".getBytes(StandardCharsets.UTF_8);
+        byte[] inferContent = "infer".getBytes(StandardCharsets.UTF_8);
+        byte[] tarBytes = buildTarXz(ROOT_DIR, (root, tar) -> {
+            TarArchiveEntry clang = createFile(clangContent, root + "lib/infer/facebook-clang-plugins/clang/bin/clang");
+            tar.putArchiveEntry(clang);
+            tar.write(clangContent);
+            tar.closeArchiveEntry();
+
+            TarArchiveEntry infer = createFile(inferContent, root + "bin/infer");
+            tar.putArchiveEntry(infer);
+            tar.write(inferContent);
+            tar.closeArchiveEntry();
+        });
+        Path installDir = dummyHome.resolve("Downloads");
+        Path inferRoot = installDir.resolve(ROOT_DIR);
+        Path clang = inferRoot.resolve("lib/infer/facebook-clang-plugins/clang/bin/clang");
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
+
+        Path inferExe = installer.tryInstallInfer(new InstallParams(
+                installDir,
+                INFER_VERSION,
+                4,
+                8L * 1024 * 1024,
+                false,
+                0,
+                false,
+                ExtractionProfile.JAVA_ONLY,
+                0,
+                InferSources.githubReleases()));
+
+        assertThat(Files.readString(inferExe)).isEqualTo("infer");
+        assertThat(Files.exists(inferRoot.resolve("lib/infer"))).isFalse();
+        assertThat(InstallManifest.read(inferRoot.resolve(InstallManifest.FILE_NAME))
+                        .profile())
+                .isEqualTo(ExtractionProfile.JAVA_ONLY);
+
+        installer.tryInstallInfer(installParams(installDir));
+
+        assertThat(Files.readString(clang)).isEqualTo("clang");
+        var manifest = InstallManifest.read(inferRoot.resolve(InstallManifest.FILE_NAME));
+        assertThat(manifest.profile()).isEqualTo(ExtractionProfile.FULL);
+        assertThat(manifest.entries().stream().map(InstallManifest.Entry::path))
+                .containsExactly(
+                        ROOT_DIR + "/bin/infer", ROOT_DIR + "/lib/infer/facebook-clang-plugins/clang/bin/clang");
+        verify(logger)
+                .info(
+                        "Infer installation in " + inferRoot
+                                + " was extracted with the java-only profile. Extracting the entries the full profile also needs.");
+        verify(logger, never()).warn(ArgumentMatchers.startsWith("Replacing incomplete Infer installation"));
+        assertTmpDirCleanup();
+    }
+
+    @DisplayName(
+            """
+        Given Infer v1.2.0 is already installed\s
+        When plugin tries to install Infer v1.1.0\s
+        Then downloads the v1.1.0 release\s
+        And installs it next to v1.2.0\s
+        And records when each install was last used
+       """)
+    @Test
+    void tryInstallInferInstallsVersionsSideBySide(@TempDir Path dummyHome) throws Exception {
+        Path installDir = dummyHome.resolve(".m2").resolve("infer");
+        Path existingInferExe = installDir.resolve(ROOT_DIR).resolve("bin").resolve("infer");
+        Files.createDirectories(existingInferExe.getParent());
+        Files.createFile(existingInferExe);
+        String olderRootDir = ROOT_PREFIX + "v1.1.0";
+        byte[] tarBytes = createTarXz("older".getBytes(StandardCharsets.UTF_8), olderRootDir);
+        var requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+
+        when(httpClientFactory.getHttpClient()).thenReturn(httpClient);
+        when(httpClient.send(requestCaptor.capture(), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(inv -> successfulInferUrlHttpResponse(inv, tarBytes));
+
+        Path currentInferExe = installer.tryInstallInfer(installParams(installDir));
+        Path olderInferExe = installer.tryInstallInfer(new InstallParams(
+                installDir,
+                "v1.1.0",
+                4,
+                8L * 1024 * 1024,
+                false,
+                0,
+                false,
+                ExtractionProfile.FULL,
+                0,
+                InferSources.githubReleases()));
+
+        assertThat(currentInferExe).isEqualTo(existingInferExe);
+        assertThat(olderInferExe)
+                .isEqualTo(installDir.resolve(olderRootDir).resolve("bin").resolve("infer"));
+        assertThat(Files.readString(olderInferExe)).isEqualTo("older");
+        assertThat(requestCaptor.getAllValues().getFirst().uri().toString())
+                .isEqualTo("https://github.com/facebook/infer/releases/download/v1.1.0/" + olderRootDir + ".tar.xz");
+        assertThat(Files.exists(installDir.resolve(ROOT_DIR).resolve(InstallCache.LAST_USED_FILE_NAME)))
+                .isTrue();
+        assertThat(Files.exists(installDir.resolve(olderRootDir).resolve(InstallCache.LAST_USED_FILE_NAME)))
+                .isTrue();
+        assertTmpDirCleanup();
+    }
+
+    @DisplayName(
+            """
+        Given an Infer version that is not a release tag\s
+        When plugin tries to install Infer\s
+        Then throws MojoExecutionException with invalid version message
+       """)
+    @Test
+    void tryInstallInferRejectsInvalidVersion(@TempDir Path dummyHome) {
+        var mojoExecutionException = assertThrows(
+                MojoExecutionException.class,
+                () -> installer.tryInstallInfer(new InstallParams(
+                        dummyHome,
+                        "../v1.2.0",
+                        4,
+                        8L * 1024 * 1024,
+                        false,
+                        0,
+                        false,
+                        ExtractionProfile.FULL,
+                        0,
+                        InferSources.githubReleases())));
+
+        assertThat(mojoExecutionException).hasMessageThat().isEqualTo("Invalid Infer version: ../v1.2.0");
+        verify(logger).error("The Infer version is not a release tag such as v1.2.0: ../v1.2.0");
+    }
+
+    @DisplayName(
+            """
+        Given Infer v1.1.0 is installed\s
+        When plugin tries to install Infer v1.2.0\s
+        Then links the files whose bytes and exec bits did not change to the v1.1.0 install\s
+        And writes the changed files, including one that only differs after its first chunk
+       """)
+    @Test
+    void tryInstallInferLinksUnchangedFilesFromPreviousVersion(@TempDir Path dummyHome) throws Exception {
+        Path installDir = dummyHome.resolve("install");
+        String previousRootDir = ROOT_PREFIX + "v1.1.0";
+        byte[] largeModel = new byte[200 * 1024];
+        new Random(7).nextBytes(largeModel);
+        byte[] changedLargeModel = largeModel.clone();
+        changedLargeModel[150 * 1024] ^= 1;
+        byte[] previousTarBytes = buildTarXz(previousRootDir, (root, tar) -> {
+            putFile(tar, root + "bin/infer", "infer-1.1", 493);
+            putFile(tar, root + "lib/models.jar", largeModel, 420);
+            putFile(tar, root + "lib/tweaked.jar", largeModel, 420);
+            putFile(tar, root + "lib/now-executable", "same", 420);
+        });
+        byte[] tarBytes = buildTarXz(ROOT_DIR, (root, tar) -> {
+            putFile(tar, root + "bin/infer", "infer-1.2", 493);
+            putFile(tar, root + "lib/models.jar", largeModel, 420);
+            putFile(tar, root + "lib/tweaked.jar", changedLargeModel, 420);
+            putFile(tar, root + "lib/now-executable", "same", 493);
+        });
+        var previousSource = Files.write(dummyHome.resolve("previous.tar.xz"), previousTarBytes);
+        var source = Files.write(dummyHome.resolve("current.tar.xz"), tarBytes);
+
+        installer.tryInstallInfer(new InstallParams(
+                installDir,
+                "v1.1.0",
+                4,
+                8L * 1024 * 1024,
+                false,
+                0,
+                false,
+                ExtractionProfile.FULL,
+                0,
+                new InferSources(List.of(new InferSource.LocalFile(previousSource)), false, null, List.of())));
+        Path inferExe = installer.tryInstallInfer(installParams(
+                installDir, new InferSources(List.of(new InferSource.LocalFile(source)), false, null, List.of())));
+
+        Path previousLib = installDir.resolve(previousRootDir).resolve("lib");
+        Path lib = installDir.resolve(ROOT_DIR).resolve("lib");
+        assertThat(Files.readString(inferExe)).isEqualTo("infer-1.2");
+        assertThat(Files.isSameFile(lib.resolve("models.jar"), previousLib.resolve("models.jar")))
+                .isTrue();
+        assertThat(Files.isSameFile(lib.resolve("tweaked.jar"), previousLib.resolve("tweaked.jar")))
+                .isFalse();
+        assertThat(Files.readAllBytes(lib.resolve("tweaked.jar"))).isEqualTo(changedLargeModel);
+        assertThat(Files.readAllBytes(previousLib.resolve("tweaked.jar"))).isEqualTo(largeModel);
+        assertThat(Files.isSameFile(lib.resolve("now-executable"), previousLib.resolve("now-executable")))
+                .isFalse();
+        assertThat(Files.isExecutable(lib.resolve("now-executable"))).isTrue();
+        assertThat(Files.isExecutable(previousLib.resolve("now-executable"))).isFalse();
+        assertThat(InstallManifest.read(installDir.resolve(ROOT_DIR).resolve(InstallManifest.FILE_NAME))
+                        .findDamagedEntries(installDir, 1))
+                .isEmpty();
+        verify(logger)
+                .info("Linked 1 unchanged files (0 MB) from the Infer installation in: "
+                        + installDir.resolve(previousRootDir));
+    }
+
+    @DisplayName(
+            """
+        Given Maven is offline\s
+        And the Infer tarball is in a local mirror dir\s
+        When plugin tries to install Infer from the mirror dir, then a Maven artifact, then GitHub\s
+        Then installs Infer from the mirror dir\s
+        And never creates an HTTP client
+       """)
+    @Test
+    void tryInstallInferFromLocalFileWhileOffline(@TempDir Path dummyHome) throws Exception {
+        Path mirrorDir = Files.createDirectories(dummyHome.resolve("mirror"));
+        Path mirroredTarball = mirrorDir.resolve(ROOT_DIR + ".tar.xz");
+        Files.write(mirroredTarball, createTarXz("mirrored".getBytes(StandardCharsets.UTF_8), ROOT_DIR));
+        Path installDir = dummyHome.resolve("install");
+        var inferSources = new InferSources(
+                List.of(
+                        new InferSource.LocalFile(mirrorDir),
+                        new InferSource.MavenArtifact("com.facebook.infer", "infer"),
+                        InferSource.GITHUB_RELEASES),
+                true,
+                repositorySession,
+                List.of());
+
+        Path inferExe = installer.tryInstallInfer(installParams(installDir, inferSources));
+
+        assertThat(Files.readString(inferExe)).isEqualTo("mirrored");
+        assertThat(Files.exists(mirroredTarball)).isTrue();
+        verify(logger).info("Using the Infer tarball from: " + mirroredTarball);
+        verifyNoInteractions(httpClientFactory, repositorySystem);
+    }
+
+    @DisplayName(
+            """
+        Given the Infer tarball is missing from the local mirror dir\s
+        And the Infer tarball is in the Maven local repo\s
+        When plugin tries to install Infer\s
+        Then fails over to the Maven artifact\s
+        And resolves it with the platform classifier and the version without the v prefix
+       """)
+    @Test
+    void tryInstallInferFailsOverToMavenArtifact(@TempDir Path dummyHome) throws Exception {
+        Path localRepoTarball = dummyHome.resolve("repository").resolve("infer.tar.xz");
+        Files.createDirectories(localRepoTarball.getParent());
+        Files.write(localRepoTarball, createTarXz("from-m2".getBytes(StandardCharsets.UTF_8), ROOT_DIR));
+        Path emptyMirrorDir = Files.createDirectories(dummyHome.resolve("mirror"));
+        var inferSources = new InferSources(
+                List.of(
+                        new InferSource.LocalFile(emptyMirrorDir),
+                        new InferSource.MavenArtifact("com.facebook.infer", "infer")),
+                true,
+                repositorySession,
+                List.of());
+        var artifactRequestCaptor = ArgumentCaptor.forClass(ArtifactRequest.class);
+
+        when(repositorySystem.resolveArtifact(eq(repositorySession), artifactRequestCaptor.capture()))
+                .thenAnswer(inv -> {
+                    ArtifactRequest artifactRequest = inv.getArgument(1);
+                    return new ArtifactResult(artifactRequest)
+                            .setArtifact(artifactRequest.getArtifact().setFile(localRepoTarball.toFile()));
+                });
+
+        Path inferExe = installer.tryInstallInfer(installParams(dummyHome.resolve("install"), inferSources));
+
+        assertThat(Files.readString(inferExe)).isEqualTo("from-m2");
+        assertThat(artifactRequestCaptor.getValue().getArtifact().toString())
+                .isEqualTo("com.facebook.infer:infer:tar.xz:"
+                        + ROOT_PREFIX.substring("infer-".length(), ROOT_PREFIX.length() - 1) + ":1.2.0");
+        verify(logger)
+                .warn(
+                        ArgumentMatchers.eq("Could not install Infer from " + emptyMirrorDir.toUri()
+                                + ". Trying the next source: mvn:com.facebook.infer:infer"),
+                        any(IOException.class));
+        verifyNoInteractions(httpClientFactory);
+    }
+
+    @DisplayName(
+            """
+        Given Maven is offline\s
+        And only HTTP sources are configured\s
+        When plugin tries to install Infer\s
+        Then throws MojoExecutionException without trying the network
+       """)
+    @Test
+    void tryInstallInferOfflineWithoutOfflineSource(@TempDir Path dummyHome) {
+        var inferSources = new InferSources(List.of(InferSource.GITHUB_RELEASES), true, repositorySession, List.of());
+
+        var mojoExecutionException = assertThrows(
+                MojoExecutionException.class,
+                () -> installer.tryInstallInfer(installParams(dummyHome.resolve("install"), inferSources)));
+
+        assertThat(mojoExecutionException)
+                .hasMessageThat()
+                .isEqualTo("Error occurred when attempting to install Infer");
+        assertThat(mojoExecutionException)
+                .hasCauseThat()
+                .hasMessageThat()
+                .isEqualTo("No Infer source available offline. Configure a file:// or mvn: source in inferSources.");
+        verifyNoInteractions(httpClientFactory);
+    }
+
     @Nested
     class UnsupportedOsTest {
 
@@ -687,11 +1359,15 @@ class InferInstallerTest {
         @Test
         void tryInstallInferUnsupportedOs(@TempDir Path dummyHome) {
             System.setProperty("os.name", "Windows 10");
-            InferInstaller installerWithWindowSet = new InferInstaller(logger, httpClientFactory);
+            InferInstaller installerWithWindowSet = new InferInstaller(
+                    logger,
+                    new InferDownloader(logger, httpClientFactory),
+                    new InstallCache(logger),
+                    new InferArtifactResolver(logger, repositorySystem));
 
             var mojoExecutionException = assertThrows(
                     MojoExecutionException.class,
-                    () -> installerWithWindowSet.tryInstallInfer(dummyHome.resolve("Downloads")));
+                    () -> installerWithWindowSet.tryInstallInfer(installParams(dummyHome.resolve("Downloads"))));
 
             assertThat(mojoExecutionException).hasMessageThat().isEqualTo("Unsupported Operating System: windows 10");
 
@@ -733,6 +1409,53 @@ class InferInstallerTest {
 
         HttpResponse<Path> response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(200);
+        // headers are only read by the range probe, which falls back to a single stream without Accept-Ranges
+        lenient().when(response.headers()).thenReturn(HttpHeaders.of(Map.of(), (k, v) -> true));
+        return response;
+    }
+
+    private long crc32Of(String content) {
+        var crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private InstallParams installParams(Path installDir) {
+        return installParams(installDir, InferSources.githubReleases());
+    }
+
+    private InstallParams installParams(Path installDir, InferSources inferSources) {
+        return new InstallParams(
+                installDir,
+                INFER_VERSION,
+                4,
+                8L * 1024 * 1024,
+                false,
+                0,
+                false,
+                ExtractionProfile.FULL,
+                0,
+                inferSources);
+    }
+
+    private InstallParams streamingInstallParams(Path installDir) {
+        return new InstallParams(
+                installDir,
+                INFER_VERSION,
+                4,
+                8L * 1024 * 1024,
+                true,
+                0,
+                false,
+                ExtractionProfile.FULL,
+                0,
+                InferSources.githubReleases());
+    }
+
+    private HttpResponse<InputStream> streamingInferUrlHttpResponse(byte[] tarBytes) {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn(new ByteArrayInputStream(tarBytes));
         return response;
     }
 
@@ -855,6 +1578,29 @@ class InferInstallerTest {
         });
     }
 
+    private void putFile(TarArchiveOutputStream tar, String name, String content, int mode) throws IOException {
+        putFile(tar, name, content.getBytes(StandardCharsets.UTF_8), mode);
+    }
+
+    private void putFile(TarArchiveOutputStream tar, String name, byte[] content, int mode) throws IOException {
+        TarArchiveEntry fileEntry = new TarArchiveEntry(name);
+        fileEntry.setMode(mode);
+        fileEntry.setSize(content.length);
+        tar.putArchiveEntry(fileEntry);
+        tar.write(content);
+        tar.closeArchiveEntry();
+    }
+
+    private byte[] buildTar(String rootDirName, TarContent content) throws IOException {
+        var byteArrayOutputStream = new ByteArrayOutputStream();
+        try (var tar = new TarArchiveOutputStream(byteArrayOutputStream)) {
+            String root = createRoot(rootDirName, tar);
+            content.write(root, tar);
+            tar.finish();
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
     private byte[] buildTarXz(String rootDirName, TarContent content) throws IOException {
         var byteArrayOutputStream = new ByteArrayOutputStream();
         try (var xzCompressorOutputStream = new XZCompressorOutputStream(byteArrayOutputStream);
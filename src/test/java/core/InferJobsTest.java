@@ -0,0 +1,120 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InferJobsTest {
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    @DisplayName(
+            """
+        Given a cgroup v2 CPU quota of 2.5 CPUs and a 4 GB memory limit\s
+        When deriving the Infer job count with 1 GB reserved and 1 GB per worker\s
+        Then uses the whole CPUs of the quota and stays within the memory left
+       """)
+    @Test
+    void jobsForCgroupV2Limits(@TempDir Path cgroupRoot) throws Exception {
+        Files.writeString(cgroupRoot.resolve("cpu.max"), "250000 100000\n");
+        Files.writeString(cgroupRoot.resolve("memory.max"), 4096L * MEGABYTE + "\n");
+
+        InferJobs.ResourceLimits limits = InferJobs.detectLimits(cgroupRoot, cgroupRoot.resolve("no-proc-self-cgroup"));
+
+        assertThat(limits.cpus()).isEqualTo(Math.min(2, Runtime.getRuntime().availableProcessors()));
+        assertThat(limits.cpuQuota()).isTrue();
+        assertThat(limits.memoryBytes()).isEqualTo(4096L * MEGABYTE);
+        assertThat(limits.memoryLimit()).isTrue();
+        assertThat(InferJobs.jobsFor(
+                        new InferJobs.ResourceLimits(8, 4096L * MEGABYTE, true, true),
+                        1024L * MEGABYTE,
+                        1024L * MEGABYTE))
+                .isEqualTo(3);
+        assertThat(InferJobs.jobsFor(
+                        new InferJobs.ResourceLimits(8, 1024L * MEGABYTE, true, true),
+                        2048L * MEGABYTE,
+                        1024L * MEGABYTE))
+                .isEqualTo(1);
+    }
+
+    @DisplayName(
+            """
+        Given cgroup v1 controllers without a CPU quota or memory limit\s
+        When reading the limits\s
+        Then falls back to the processor count and physical memory
+       """)
+    @Test
+    void detectLimitsWithoutCgroupV1Limits(@TempDir Path cgroupRoot) throws Exception {
+        Files.createDirectories(cgroupRoot.resolve("cpu"));
+        Files.createDirectories(cgroupRoot.resolve("memory"));
+        Files.writeString(cgroupRoot.resolve("cpu/cpu.cfs_quota_us"), "-1\n");
+        Files.writeString(cgroupRoot.resolve("cpu/cpu.cfs_period_us"), "100000\n");
+        Files.writeString(cgroupRoot.resolve("memory/memory.limit_in_bytes"), "9223372036854771712\n");
+
+        InferJobs.ResourceLimits limits = InferJobs.detectLimits(cgroupRoot, cgroupRoot.resolve("no-proc-self-cgroup"));
+
+        assertThat(limits.cpus()).isEqualTo(Runtime.getRuntime().availableProcessors());
+        assertThat(limits.cpuQuota()).isFalse();
+        assertThat(limits.memoryLimit()).isFalse();
+        assertThat(limits.memoryBytes()).isGreaterThan(0L);
+    }
+
+    @DisplayName(
+            """
+        Given a build in a nested cgroup v2 slice, not at the root of the mount\s
+        And a memory limit on the slice and a CPU quota and tighter memory limit on the build's own cgroup\s
+        When reading the limits\s
+        Then finds the build's cgroup through /proc/self/cgroup and applies the tightest limit of every level
+       """)
+    @Test
+    void detectLimitsWalksUpFromTheBuildsCgroupV2(@TempDir Path tmp) throws Exception {
+        Path cgroupRoot = Files.createDirectories(tmp.resolve("sys/fs/cgroup"));
+        Path slice = Files.createDirectories(cgroupRoot.resolve("ci.slice"));
+        Path scope = Files.createDirectories(slice.resolve("build-42.scope"));
+        Files.writeString(slice.resolve("cpu.max"), "max 100000\n");
+        Files.writeString(slice.resolve("memory.max"), 8192L * MEGABYTE + "\n");
+        Files.writeString(scope.resolve("cpu.max"), "100000 100000\n");
+        Files.writeString(scope.resolve("memory.max"), 2048L * MEGABYTE + "\n");
+        Path procSelfCgroup = Files.writeString(tmp.resolve("cgroup"), "0::/ci.slice/build-42.scope\n");
+
+        InferJobs.ResourceLimits limits = InferJobs.detectLimits(cgroupRoot, procSelfCgroup);
+
+        assertThat(limits.cpus()).isEqualTo(1);
+        assertThat(limits.cpuQuota()).isTrue();
+        assertThat(limits.memoryBytes()).isEqualTo(2048L * MEGABYTE);
+        assertThat(limits.memoryLimit()).isTrue();
+    }
+
+    @DisplayName(
+            """
+        Given a build in a cgroup v1 container without a cgroup namespace\s
+        And the container's limits set on its own cgroup under each controller\s
+        When reading the limits\s
+        Then reads them from the container's cgroup named in /proc/self/cgroup instead of the host's root
+       """)
+    @Test
+    void detectLimitsReadsTheBuildsCgroupV1(@TempDir Path tmp) throws Exception {
+        Path cgroupRoot = Files.createDirectories(tmp.resolve("sys/fs/cgroup"));
+        Path cpuCgroup = Files.createDirectories(cgroupRoot.resolve("cpu/docker/abc"));
+        Path memoryCgroup = Files.createDirectories(cgroupRoot.resolve("memory/docker/abc"));
+        Files.writeString(cgroupRoot.resolve("cpu/cpu.cfs_quota_us"), "-1\n");
+        Files.writeString(cgroupRoot.resolve("cpu/cpu.cfs_period_us"), "100000\n");
+        Files.writeString(cgroupRoot.resolve("memory/memory.limit_in_bytes"), "9223372036854771712\n");
+        Files.writeString(cpuCgroup.resolve("cpu.cfs_quota_us"), "100000\n");
+        Files.writeString(cpuCgroup.resolve("cpu.cfs_period_us"), "100000\n");
+        Files.writeString(memoryCgroup.resolve("memory.limit_in_bytes"), 3072L * MEGABYTE + "\n");
+        Path procSelfCgroup = Files.writeString(
+                tmp.resolve("cgroup"), "12:pids:/docker/abc\n4:cpu,cpuacct:/docker/abc\n9:memory:/docker/abc\n");
+
+        InferJobs.ResourceLimits limits = InferJobs.detectLimits(cgroupRoot, procSelfCgroup);
+
+        assertThat(limits.cpus()).isEqualTo(1);
+        assertThat(limits.cpuQuota()).isTrue();
+        assertThat(limits.memoryBytes()).isEqualTo(3072L * MEGABYTE);
+        assertThat(limits.memoryLimit()).isTrue();
+    }
+}
@@ -8,7 +8,6 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.atLeastOnce;
-import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.mockStatic;
@@ -18,12 +17,15 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import Utils.DummyJavaProject;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -101,9 +103,11 @@ class InferRunnerTest {
         assertThat(Files.exists(argfile)).isTrue();
         assertThat(Files.readAllLines(argfile))
                 .containsExactly(dummyJavaProject.helloJava().toString());
-        assertThat(Files.exists(targetDir.resolve("classes"))).isTrue();
+        assertThat(Files.exists(targetDir.resolve("infer-classes"))).isTrue();
+        assertThat(Files.exists(targetDir.resolve("classes"))).isFalse();
 
-        verify(logger).info("infer: ok");
+        assertThat(Files.readAllLines(resultsDir.resolve("plugin-console.log"))).contains("infer: ok");
+        verify(logger, never()).info("infer: ok");
         verify(logger).info("Infer analysis completed. Results in: " + resultsDir);
         var debugLogCaptor = ArgumentCaptor.forClass(String.class);
         verify(logger, atLeastOnce()).debug(debugLogCaptor.capture());
@@ -113,6 +117,10 @@ class InferRunnerTest {
         assertThat(debugLogMessages.stream().anyMatch(s -> s.contains("-classpath")))
                 .isTrue();
         assertThat(debugLogMessages.stream().anyMatch(s -> s.contains("-g"))).isTrue();
+        assertThat(debugLogMessages.stream().anyMatch(s -> s.contains("-d " + targetDir.resolve("infer-classes"))))
+                .isTrue();
+        assertThat(debugLogMessages.stream().anyMatch(s -> s.matches("Running: .* --jobs [1-9][0-9]* .*")))
+                .isTrue();
 
         assertThat(debugLogMessages.stream().anyMatch(s -> s.contains("--bufferoverrun")))
                 .isTrue();
@@ -139,6 +147,7 @@ class InferRunnerTest {
         Path resultsDir = projectRoot.resolve("infer-results");
 
         when(project.getCompileSourceRoots()).thenReturn(List.of(srcMainJava.toString()));
+        when(project.getBasedir()).thenReturn(projectRoot.toFile());
 
         InferParams inferParams = new InferParams(project, true, true, resultsDir.toString(), null);
 
@@ -204,8 +213,8 @@ class InferRunnerTest {
         assertThat(Files.exists(argfile)).isTrue(); // argfile should exist with our Hello.java path inside
         List<String> lines = Files.readAllLines(argfile);
         assertThat(lines).containsExactly(dummyJavaProject.helloJava().toString());
-        assertThat(Files.exists(targetDir.resolve("classes")))
-                .isTrue(); // javacArgBuilder should have created the classes directory
+        assertThat(Files.exists(targetDir.resolve("infer-classes")))
+                .isTrue(); // javacArgBuilder should have created the capture classes directory
 
         var errorLogCaptor = ArgumentCaptor.forClass(String.class);
         var errorExCaptor = ArgumentCaptor.forClass(Throwable.class);
@@ -267,6 +276,257 @@ class InferRunnerTest {
                         "Infer analysis completed with issues found, causing the build to fail. Check Infer results for more info.");
     }
 
+    @DisplayName(
+            """
+        Given a previous Infer run that found issues with failOnIssue true\s
+        And unchanged sources, classpath and settings\s
+        When running Infer again\s
+        Then skips Infer and fails the build with the stored verdict\s
+        And runs Infer again once a source changes
+       """)
+    @Test
+    void runInferOnProjectReplaysUnchangedRun(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(project, true, true, resultsDir.toString(), null);
+
+        Path dummyInferExecutable = createDummyInferExecutable(tmp, 2, "infer: issues");
+        assertThrows(MojoFailureException.class, () -> runner.runInferOnProject(inferParams, dummyInferExecutable));
+        Files.writeString(resultsDir.resolve("report.json"), "[]");
+
+        // Any further Infer run now errors, so only a skipped run can still report the issues
+        createDummyInferExecutable(tmp, 3, "infer: unexpected");
+
+        var replayedFailure = assertThrows(
+                MojoFailureException.class, () -> runner.runInferOnProject(inferParams, dummyInferExecutable));
+
+        assertThat(replayedFailure)
+                .hasCauseThat()
+                .hasMessageThat()
+                .isEqualTo("Infer analysis completed with issues found. Results in: " + resultsDir);
+        verify(logger)
+                .info("Sources, classpath and Infer settings are unchanged since the last analysis. Reusing its"
+                        + " results in: " + resultsDir);
+
+        Files.writeString(dummyJavaProject.helloJava(), "class Hello { void changed() {} }", StandardCharsets.UTF_8);
+
+        assertThrows(MojoExecutionException.class, () -> runner.runInferOnProject(inferParams, dummyInferExecutable));
+    }
+
+    @DisplayName(
+            """
+        Given incremental analysis after a full run that reported issues in two files\s
+        When one of the files changes and its issue is fixed\s
+        Then runs Infer in reactive mode with only that file in the changed files index\s
+        And merges the previous issues of the other file into the report\s
+        And indexes the file calling into the changed one as well\s
+        And drops the previous issue of the caller that the reactive run no longer reports\s
+        And fails on the merged issues
+       """)
+    @Test
+    void runInferOnProjectIncrementalAnalysis(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+        Files.writeString(dummyJavaProject.helloJava().resolveSibling("Other.java"), "package example; class Other {}");
+        Files.writeString(
+                dummyJavaProject.helloJava().resolveSibling("Caller.java"),
+                "package example; class Caller { int call() { return new Hello().toString().length(); } }");
+
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(
+                project,
+                true,
+                true,
+                resultsDir.toString(),
+                null,
+                true,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                false,
+                0,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
+
+        Path argsFile = tmp.resolve("infer-args");
+        Path nextReport = tmp.resolve("next-report.json");
+        Path reportingInferExecutable = createReportingInferExecutable(tmp, argsFile, nextReport, resultsDir);
+        Files.writeString(
+                nextReport,
+                """
+                [{"hash": "hello-issue", "file": "src/main/java/example/Hello.java", "procedure": "Hello.run()"},
+                 {"hash": "other-issue", "file": "src/main/java/example/Other.java", "procedure": "Other.run()"},
+                 {"hash": "stale-issue", "file": "src/main/java/example/Caller.java", "procedure": "Caller.call()"}]
+                """);
+
+        assertThrows(MojoFailureException.class, () -> runner.runInferOnProject(inferParams, reportingInferExecutable));
+        assertThat(Files.readString(argsFile)).doesNotContain("--reactive");
+
+        Files.writeString(dummyJavaProject.helloJava(), "package example; class Hello { void fixed() {} }");
+        // The callee is fixed, so the reactive run reports nothing for the caller either
+        Files.writeString(nextReport, "[]");
+
+        var failure = assertThrows(
+                MojoFailureException.class, () -> runner.runInferOnProject(inferParams, reportingInferExecutable));
+
+        assertThat(failure).hasMessageThat().isEqualTo("Infer analysis completed with issues");
+        Path changedFilesIndex = targetDir.resolve("infer-changed-files.txt");
+        assertThat(Files.readString(argsFile))
+                .contains("--reactive --changed-files-index " + changedFilesIndex + " --bufferoverrun");
+        assertThat(Files.readAllLines(changedFilesIndex))
+                .containsExactly("src/main/java/example/Hello.java", "src/main/java/example/Caller.java")
+                .inOrder();
+        String mergedReport = Files.readString(resultsDir.resolve("report.json"));
+        assertThat(mergedReport).contains("other-issue");
+        assertThat(mergedReport).doesNotContain("stale-issue");
+        assertThat(mergedReport).doesNotContain("hello-issue");
+    }
+
+    @DisplayName(
+            """
+        Given a git working tree with changes since its base revision\s
+        When running Infer against the base revision\s
+        Then analyses the base revision in a worktree and caches its report by commit\s
+        And fails only on introduced issues\s
+        And reuses the cached base report on the next build\s
+        And analyses the base again once the classpath changed
+       """)
+    @Test
+    void runInferOnProjectAgainstBaseRevision(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+        Path projectRoot = dummyJavaProject.projectRoot();
+        git(projectRoot, "init", "-q");
+        git(projectRoot, "add", ".");
+        git(projectRoot, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-qm", "base");
+        Files.writeString(dummyJavaProject.helloJava(), "package example; class Hello { void changed() {} }");
+
+        Path targetDir = projectRoot.resolve("target");
+        Path resultsDir = projectRoot.resolve("infer-results");
+        Path baseReportCacheDir = tmp.resolve("base-reports");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(projectRoot.toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(
+                project,
+                true,
+                true,
+                resultsDir.toString(),
+                null,
+                false,
+                "HEAD",
+                baseReportCacheDir,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                false,
+                0,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
+
+        Path invocationLog = tmp.resolve("infer-invocations");
+        Path introduced = Files.writeString(tmp.resolve("introduced.json"), "[{\"hash\": \"new-issue\"}]");
+        Path diffingInferExecutable = tmp.resolve("diffing-infer.sh");
+        Files.writeString(
+                diffingInferExecutable,
+                """
+                #!/usr/bin/env sh
+                echo "$(pwd) $@" >> '%s'
+                if [ "$1" = reportdiff ]; then
+                  mkdir -p "$7/differential"
+                  cp '%s' "$7/differential/introduced.json"
+                  echo '[]' > "$7/differential/fixed.json"
+                  echo '[]' > "$7/differential/preserved.json"
+                  exit 0
+                fi
+                while [ "$1" != --results-dir ]; do shift; done
+                mkdir -p "$2"
+                echo '[{"hash": "old-issue"}]' > "$2/report.json"
+                exit 2
+                """
+                        .formatted(invocationLog, introduced));
+        Files.setPosixFilePermissions(diffingInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        var failure = assertThrows(
+                MojoFailureException.class, () -> runner.runInferOnProject(inferParams, diffingInferExecutable));
+
+        assertThat(failure).hasCauseThat().hasMessageThat().contains("1 introduced since HEAD");
+        assertThat(Files.readAllLines(invocationLog).stream()
+                        .filter(invocation -> invocation.startsWith(targetDir.resolve("infer-base-worktree") + " "))
+                        .count())
+                .isEqualTo(1);
+        assertThat(Files.exists(targetDir.resolve("infer-base-worktree"))).isFalse();
+        try (var cachedReports = Files.list(baseReportCacheDir)) {
+            List<String> cachedReportNames =
+                    cachedReports.map(Path::getFileName).map(Path::toString).toList();
+            assertThat(cachedReportNames).hasSize(1);
+            assertThat(cachedReportNames.getFirst()).startsWith(git(projectRoot, "rev-parse", "HEAD") + "-");
+        }
+
+        Files.writeString(introduced, "[]");
+
+        assertDoesNotThrow(() -> runner.runInferOnProject(inferParams, diffingInferExecutable));
+        assertThat(Files.readAllLines(invocationLog).stream()
+                        .filter(invocation -> invocation.contains("infer-base-worktree"))
+                        .count())
+                .isEqualTo(1);
+
+        Path dependency = Files.writeString(tmp.resolve("dependency.jar"), "jar");
+        when(project.getCompileClasspathElements()).thenReturn(List.of(dependency.toString()));
+
+        assertDoesNotThrow(() -> runner.runInferOnProject(inferParams, diffingInferExecutable));
+        assertThat(Files.readAllLines(invocationLog).stream()
+                        .filter(invocation -> invocation.startsWith(targetDir.resolve("infer-base-worktree") + " "))
+                        .count())
+                .isEqualTo(2);
+        try (var cachedReports = Files.list(baseReportCacheDir)) {
+            assertThat(cachedReports.map(Path::toString).filter(name -> name.endsWith(".tmp")))
+                    .isEmpty();
+        }
+    }
+
     @DisplayName(
             """
         Given a valid Java sources\s
@@ -305,7 +565,7 @@ class InferRunnerTest {
         assertThat(Files.exists(argfile)).isTrue();
         assertThat(Files.readAllLines(argfile))
                 .containsExactly(dummyJavaProject.helloJava().toString());
-        assertThat(Files.exists(targetDir.resolve("classes"))).isTrue();
+        assertThat(Files.exists(targetDir.resolve("infer-classes"))).isTrue();
     }
 
     @DisplayName(
@@ -377,16 +637,16 @@ class InferRunnerTest {
         Files.createDirectories(srcMainJava);
 
         when(project.getCompileSourceRoots()).thenReturn(List.of(srcMainJava.toString()));
+        when(project.getBasedir()).thenReturn(projectRoot.toFile());
 
         InferParams inferParams = new InferParams(
                 project, false, true, projectRoot.resolve("infer-results").toString(), null);
 
-        // Mock Files.isDirectory and Files.find to throw IOException on discovery
+        // Mock Files.isDirectory and the listing of the root, which happens on the calling thread, to throw
+        // IOException on discovery
         try (MockedStatic<Files> filesMock = mockStatic(Files.class, CALLS_REAL_METHODS)) {
             filesMock.when(() -> Files.isDirectory(srcMainJava)).thenReturn(true);
-            filesMock
-                    .when(() -> Files.find(eq(srcMainJava), eq(Integer.MAX_VALUE), any()))
-                    .thenThrow(new IOException("disk error"));
+            filesMock.when(() -> Files.newDirectoryStream(srcMainJava)).thenThrow(new IOException("disk error"));
 
             var mojoExecutionException = assertThrows(
                     MojoExecutionException.class, () -> runner.runInferOnProject(inferParams, Path.of("infer")));
@@ -429,6 +689,7 @@ class InferRunnerTest {
 
         when(project.getCompileSourceRoots())
                 .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
 
         // Trigger DependencyResolutionRequiredException when building classpath
         when(project.getCompileClasspathElements()).thenThrow(new DependencyResolutionRequiredException(null));
@@ -572,7 +833,25 @@ class InferRunnerTest {
         when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
         when(logger.isDebugEnabled()).thenReturn(false);
 
-        InferParams inferParams = new InferParams(project, false, true, resultsDir.toString(), null);
+        InferParams inferParams = new InferParams(
+                project,
+                false,
+                true,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                Duration.ZERO,
+                Duration.ofMillis(200),
+                false,
+                0,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
 
         // Dummy infer path (won't actually run due to construction mocking)
         Path dummyInferExecutable =
@@ -599,7 +878,9 @@ class InferRunnerTest {
                     .hasMessageThat()
                     .isEqualTo("Infer analysis errored with timeout running command: " + dummyInferExecutable);
 
-            verify(mockProcess, times(1)).destroyForcibly(); // Ensure process was destroyed forcibly on timeout
+            // Asked to terminate first, and not killed as the mocked process is gone within the grace period
+            verify(mockProcess, times(1)).destroy();
+            verify(mockProcess, never()).destroyForcibly();
 
             var errorLogCaptor = ArgumentCaptor.forClass(String.class);
             var errorExCaptor = ArgumentCaptor.forClass(Throwable.class);
@@ -637,7 +918,25 @@ class InferRunnerTest {
         when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
         when(logger.isDebugEnabled()).thenReturn(false);
 
-        InferParams inferParams = new InferParams(project, false, true, resultsDir.toString(), null);
+        InferParams inferParams = new InferParams(
+                project,
+                false,
+                true,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                true,
+                0,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
 
         // Dummy infer path (won't actually run due to construction mocking)
         Path dummyInferExecutable =
@@ -678,11 +977,163 @@ class InferRunnerTest {
         }
     }
 
+    @DisplayName(
+            """
+        Given an Infer process that hangs without output or CPU use\s
+        When running Infer with a short stall timeout\s
+        Then kills the process well before it would have finished\s
+        And throws MojoExecutionException naming the stall
+       """)
+    @Test
+    void runInferOnProjectProcessStalled(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(
+                project,
+                false,
+                true,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                Duration.ofMillis(500),
+                Duration.ZERO,
+                false,
+                0,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
+
+        Path hangingInferExecutable = tmp.resolve("hanging-infer.sh");
+        Files.writeString(hangingInferExecutable, "#!/usr/bin/env sh\necho 'infer: started'\nsleep 60\necho never\n");
+        Files.setPosixFilePermissions(hangingInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+        long startNanos = System.nanoTime();
+
+        var mojoExecutionException = assertThrows(
+                MojoExecutionException.class, () -> runner.runInferOnProject(inferParams, hangingInferExecutable));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofSeconds(30));
+        assertThat(mojoExecutionException)
+                .hasCauseThat()
+                .hasMessageThat()
+                .isEqualTo("Infer analysis stalled running command: " + hangingInferExecutable);
+        assertThat(Files.readAllLines(resultsDir.resolve("plugin-console.log"))).containsExactly("infer: started");
+    }
+
+    @DisplayName(
+            """
+        Given an Infer process that the OOM killer ends while running 4 jobs\s
+        When running Infer\s
+        Then retries once with half the jobs\s
+        And writes the resource usage of both attempts into the results dir\s
+        And does not retry once Infer is killed without an OOM kill in the build's cgroup
+       """)
+    @Test
+    void runInferOnProjectRetriesWithFewerJobsAfterOomKill(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+        Path cgroupRoot = Files.createDirectories(tmp.resolve("sys/fs/cgroup/build.scope"))
+                .getParent();
+        Path memoryEvents = Files.writeString(cgroupRoot.resolve("build.scope/memory.events"), "oom_kill 0\n");
+        Path procSelfCgroup = Files.writeString(tmp.resolve("proc-self-cgroup"), "0::/build.scope\n");
+        runner = new InferRunner(logger, cgroupRoot, procSelfCgroup);
+
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(
+                project,
+                false,
+                true,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                false,
+                4,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
+
+        Path killedInferExecutable = tmp.resolve("killed-infer.sh");
+        Files.writeString(
+                killedInferExecutable,
+                """
+                #!/usr/bin/env sh
+                while [ $# -gt 0 ]; do
+                  if [ "$1" = "--jobs" ]; then jobs="$2"; fi
+                  shift
+                done
+                echo "infer: jobs $jobs"
+                if [ "$jobs" -gt 2 ]; then echo "oom_kill 1" > "%s"; exit 137; fi
+                """
+                        .formatted(memoryEvents));
+        Files.setPosixFilePermissions(killedInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        assertDoesNotThrow(() -> runner.runInferOnProject(inferParams, killedInferExecutable));
+
+        verify(logger)
+                .warn(argThat((String s) -> s.startsWith("Infer exited with code 137 after using ")
+                        && s.endsWith("Retrying once with 2 jobs.")));
+        assertThat(Files.readAllLines(resultsDir.resolve("plugin-console.log")))
+                .containsExactly("infer: jobs 4", "infer: jobs 2")
+                .inOrder();
+        List<Long> oomKillsPerAttempt = new ArrayList<>();
+        new ObjectMapper()
+                .readTree(resultsDir.resolve("plugin-resource-usage.json").toFile())
+                .forEach(attempt -> oomKillsPerAttempt.add(attempt.get("oomKills").asLong()));
+        assertThat(oomKillsPerAttempt).containsExactly(1L, 0L).inOrder();
+
+        // A SIGKILL from e.g. a cancelled CI job leaves the same exit code without counting an OOM kill
+        Path sigkilledInferExecutable = tmp.resolve("sigkilled-infer.sh");
+        Files.writeString(sigkilledInferExecutable, "#!/usr/bin/env sh\necho \"infer: killed\"\nexit 137\n");
+        Files.setPosixFilePermissions(sigkilledInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        assertThrows(
+                MojoExecutionException.class, () -> runner.runInferOnProject(inferParams, sigkilledInferExecutable));
+        assertThat(Files.readAllLines(resultsDir.resolve("plugin-console.log"))).containsExactly("infer: killed");
+        verify(logger).warn(argThat((String s) -> s.startsWith("Infer exited with code 137 after using ")));
+    }
+
     @DisplayName(
             """
          Given a valid Java source\s
          And process output containing non-empty, empty, and whitespace-only lines\s
-         When running Infer\s
+         When running Infer with verbose output\s
          Then Process output logs skip blank/whitespace-only lines\s
        """)
     @Test
@@ -703,7 +1154,25 @@ class InferRunnerTest {
         when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
         when(logger.isDebugEnabled()).thenReturn(false);
 
-        InferParams inferParams = new InferParams(project, false, true, resultsDir.toString(), null);
+        InferParams inferParams = new InferParams(
+                project,
+                false,
+                true,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                true,
+                0,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
 
         // Dummy infer path (won't actually run due to construction mocking)
         Path dummyInferExecutable =
@@ -785,9 +1254,10 @@ class InferRunnerTest {
         assertThat(Files.exists(argfile)).isTrue();
         assertThat(Files.readAllLines(argfile))
                 .containsExactly(dummyJavaProject.helloJava().toString());
-        assertThat(Files.exists(targetDir.resolve("classes"))).isTrue();
+        assertThat(Files.exists(targetDir.resolve("infer-classes"))).isTrue();
 
-        verify(logger).info("infer: ok");
+        assertThat(Files.readAllLines(resultsDir.resolve("plugin-console.log"))).contains("infer: ok");
+        verify(logger, never()).info("infer: ok");
         verify(logger).info("Infer analysis completed. Results in: " + resultsDir);
         var debugLogCaptor = ArgumentCaptor.forClass(String.class);
         verify(logger, atLeastOnce()).debug(debugLogCaptor.capture());
@@ -818,6 +1288,462 @@ class InferRunnerTest {
                 .isEqualTo("Directory to store results required to proceed with Infer analysis");
     }
 
+    @DisplayName(
+            """
+        Given sources in two packages and two capture shards\s
+        When running Infer\s
+        Then captures each package concurrently into its own results dir\s
+        And merges both captures into the results dir before a single analysis
+       """)
+    @Test
+    void runInferOnProjectShardedCapture(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+        Path otherJava = dummyJavaProject.srcMainJava().resolve("other").resolve("Other.java");
+        Files.createDirectories(otherJava.getParent());
+        Files.writeString(otherJava, "package other; class Other {}");
+
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(
+                project,
+                false,
+                false,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                false,
+                3,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                2,
+                0,
+                ShardSafeChecker.DEFAULTS);
+
+        Path invocationsFile = tmp.resolve("infer-invocations");
+        Path recordingInferExecutable = tmp.resolve("recording-infer.sh");
+        Files.writeString(recordingInferExecutable, "#!/usr/bin/env sh\necho \"$@\" >> '" + invocationsFile + "'\n");
+        Files.setPosixFilePermissions(recordingInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        assertDoesNotThrow(() -> runner.runInferOnProject(inferParams, recordingInferExecutable));
+
+        Path shardsDir = targetDir.resolve("infer-capture-shards");
+        List<String> invocations = Files.readAllLines(invocationsFile);
+        assertThat(invocations).hasSize(4);
+        List<String> captures = invocations.subList(0, 2).stream().sorted().toList();
+        for (int shard = 0; shard < 2; shard++) {
+            assertThat(captures.get(shard))
+                    .startsWith("capture --results-dir " + shardsDir.resolve("shard-" + shard + "-out") + " -- javac ");
+            assertThat(captures.get(shard))
+                    .endsWith(" -sourcepath " + dummyJavaProject.srcMainJava() + " -implicit:none @"
+                            + shardsDir.resolve("shard-" + shard + ".args"));
+        }
+        assertThat(invocations.get(2))
+                .isEqualTo("capture --results-dir " + resultsDir + " --merge-capture "
+                        + shardsDir.resolve("shard-0-out") + " --merge-capture " + shardsDir.resolve("shard-1-out"));
+        assertThat(invocations.get(3)).isEqualTo("analyze --fail-on-issue --jobs 3 --results-dir " + resultsDir);
+        assertThat(Files.readAllLines(shardsDir.resolve("shard-0.args")))
+                .containsExactly(dummyJavaProject.helloJava().toString());
+        assertThat(Files.readAllLines(shardsDir.resolve("shard-1.args"))).containsExactly(otherJava.toString());
+    }
+
+    @DisplayName(
+            """
+        Given sources in two packages and the independent shard mode with two shards\s
+        When running Infer\s
+        Then analyses each shard separately with only the shard-safe checkers\s
+        And merges the shard reports without duplicate issues\s
+        And fails on the merged issues
+       """)
+    @Test
+    void runInferOnProjectIndependentShards(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+        Path otherJava = dummyJavaProject.srcMainJava().resolve("other").resolve("Other.java");
+        Files.createDirectories(otherJava.getParent());
+        Files.writeString(otherJava, "package other; class Other {}");
+
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(
+                project,
+                true,
+                true,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                false,
+                4,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                2,
+                List.of(ShardSafeChecker.LIVENESS));
+
+        // Reports one issue every shard finds and one named after the shard's results dir
+        Path invocationsFile = tmp.resolve("infer-invocations");
+        Path shardInferExecutable = tmp.resolve("shard-infer.sh");
+        Files.writeString(
+                shardInferExecutable,
+                """
+                #!/usr/bin/env sh
+                echo "$@" >> '%s'
+                while [ $# -gt 0 ]; do
+                  if [ "$1" = "--results-dir" ]; then results="$2"; fi
+                  shift
+                done
+                mkdir -p "$results"
+                printf '[{"hash": "shared", "file": "f"}, {"hash": "%%s", "file": "f"}]' "$(basename "$results")" \\
+                  > "$results/report.json"
+                """
+                        .formatted(invocationsFile));
+        Files.setPosixFilePermissions(shardInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        var failure = assertThrows(
+                MojoFailureException.class, () -> runner.runInferOnProject(inferParams, shardInferExecutable));
+
+        assertThat(failure).hasMessageThat().isEqualTo("Infer analysis completed with issues");
+        Path shardsDir = targetDir.resolve("infer-independent-shards");
+        assertThat(Files.readAllLines(invocationsFile).stream().sorted().toList())
+                .containsExactly(
+                        "--no-default-checkers --liveness --jobs 2 --results-dir " + shardsDir.resolve("shard-0-out")
+                                + " -- javac -d " + shardsDir.resolve("shard-0-classes") + " -sourcepath "
+                                + dummyJavaProject.srcMainJava() + " -implicit:none @"
+                                + shardsDir.resolve("shard-0.args"),
+                        "--no-default-checkers --liveness --jobs 2 --results-dir " + shardsDir.resolve("shard-1-out")
+                                + " -- javac -d " + shardsDir.resolve("shard-1-classes") + " -sourcepath "
+                                + dummyJavaProject.srcMainJava() + " -implicit:none @"
+                                + shardsDir.resolve("shard-1.args"))
+                .inOrder();
+        String mergedReport = Files.readString(resultsDir.resolve("report.json"));
+        assertThat(mergedReport.split("\"shared\"", -1)).hasLength(2);
+        assertThat(mergedReport).contains("\"shard-0-out\"");
+        assertThat(mergedReport).contains("\"shard-1-out\"");
+    }
+
+    @DisplayName(
+            """
+        Given a project captured by the capture goal\s
+        When analysing the capture twice with different checkers\s
+        Then captures without analysing and analyses without capturing again
+       """)
+    @Test
+    void captureProjectThenAnalyzeCapture(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        Path invocationsFile = tmp.resolve("infer-invocations");
+        Path recordingInferExecutable = tmp.resolve("recording-infer.sh");
+        Files.writeString(recordingInferExecutable, "#!/usr/bin/env sh\necho \"$@\" >> '" + invocationsFile + "'\n");
+        Files.setPosixFilePermissions(recordingInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        assertDoesNotThrow(() -> runner.captureProject(analysisParams(resultsDir, true), recordingInferExecutable));
+        assertDoesNotThrow(() -> runner.analyzeCapture(analysisParams(resultsDir, true), recordingInferExecutable));
+        assertDoesNotThrow(() -> runner.analyzeCapture(analysisParams(resultsDir, false), recordingInferExecutable));
+
+        assertThat(Files.readAllLines(invocationsFile))
+                .containsExactly(
+                        "capture --results-dir " + resultsDir + " -- javac -d " + targetDir.resolve("infer-classes")
+                                + " @" + targetDir.resolve("java-sources.args"),
+                        "analyze --bufferoverrun --cost --loop-hoisting --biabduction --fail-on-issue --jobs 2"
+                                + " --results-dir " + resultsDir,
+                        "analyze --fail-on-issue --jobs 2 --results-dir " + resultsDir)
+                .inOrder();
+    }
+
+    @DisplayName(
+            """
+        Given no capture in the results dir\s
+        When analysing the capture\s
+        Then throws MojoExecutionException without running Infer
+       """)
+    @Test
+    void analyzeCaptureWithoutCapture(@TempDir Path tmp) throws Exception {
+        Path targetDir = tmp.resolve("target");
+        Path resultsDir = tmp.resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+
+        when(project.getBuild()).thenReturn(build);
+
+        var exception = assertThrows(
+                MojoExecutionException.class,
+                () -> runner.analyzeCapture(analysisParams(resultsDir, true), tmp.resolve("missing-infer")));
+
+        assertThat(exception).hasMessageThat().isEqualTo("Error analysing Infer capture");
+        assertThat(exception).hasCauseThat().hasMessageThat().isEqualTo("No Infer capture found in: " + resultsDir);
+    }
+
+    @DisplayName(
+            """
+        Given a captured project and a background analysis that finds issues\s
+        When starting the analysis and joining it\s
+        Then starting returns while Infer still runs\s
+        And joining waits for it and fails on its issues
+       """)
+    @Test
+    void startBackgroundAnalysisThenJoin(@TempDir Path tmp) throws Exception {
+        DummyJavaProject dummyJavaProject = createDummyJavaProject(tmp);
+        Path targetDir = dummyJavaProject.projectRoot().resolve("target");
+        Path resultsDir = dummyJavaProject.projectRoot().resolve("infer-results");
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.setOutputDirectory(targetDir.resolve("classes").toString());
+
+        when(project.getCompileSourceRoots())
+                .thenReturn(List.of(dummyJavaProject.srcMainJava().toString()));
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+        when(project.getBuild()).thenReturn(build);
+        when(project.getBasedir()).thenReturn(dummyJavaProject.projectRoot().toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        Path slowInferExecutable = tmp.resolve("slow-infer.sh");
+        Files.writeString(
+                slowInferExecutable,
+                """
+                #!/usr/bin/env sh
+                if [ "$1" = "analyze" ]; then
+                  sleep 1
+                  echo '[{"hash": "h1", "file": "f"}]' > '%s/report.json'
+                  exit 2
+                fi
+                """
+                        .formatted(resultsDir));
+        Files.setPosixFilePermissions(slowInferExecutable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        InferParams inferParams = analysisParams(resultsDir, false);
+        runner.captureProject(inferParams, slowInferExecutable);
+        runner.startBackgroundAnalysis(inferParams, slowInferExecutable, () -> {});
+
+        Path statusFile = resultsDir.resolve(AnalysisStatus.FILE_NAME);
+        assertThat(AnalysisStatus.read(statusFile).state()).isEqualTo(AnalysisStatus.State.RUNNING);
+        assertThat(AnalysisStatus.read(statusFile).inferExe()).isEqualTo(slowInferExecutable.toString());
+
+        var failure = assertThrows(MojoFailureException.class, () -> runner.joinBackgroundAnalysis(inferParams));
+
+        assertThat(failure).hasMessageThat().isEqualTo("Infer analysis completed with issues");
+        AnalysisStatus finishedStatus = AnalysisStatus.read(statusFile);
+        assertThat(finishedStatus.state()).isEqualTo(AnalysisStatus.State.FINISHED);
+        assertThat(finishedStatus.exitCode()).isEqualTo(2);
+        assertThat(finishedStatus.inferPid())
+                .isNotEqualTo(ProcessHandle.current().pid());
+        assertThat(finishedStatus.inferProcess()).isEmpty();
+    }
+
+    @DisplayName(
+            """
+        Given a background analysis started by another build, whose Infer process still runs\s
+        When joining it\s
+        Then waits for that Infer process and the status it records\s
+        And passes when it found no issues
+       """)
+    @Test
+    void joinBackgroundAnalysisOfAnotherBuild(@TempDir Path tmp) throws Exception {
+        Path resultsDir = tmp.resolve("infer-results");
+        Path statusFile = resultsDir.resolve(AnalysisStatus.FILE_NAME);
+
+        when(project.getCompileClasspathElements()).thenReturn(Collections.emptyList());
+
+        Process otherInfer = new ProcessBuilder("sleep", "1").start();
+        AnalysisStatus running = AnalysisStatus.starting(tmp.resolve("infer")).runningAs(otherInfer.toHandle());
+        running.write(statusFile);
+
+        // Stands in for the other build, which records the result once its Infer exits
+        Thread otherBuild = new Thread(() -> {
+            try {
+                otherInfer.waitFor();
+                Files.writeString(resultsDir.resolve(InferReport.FILE_NAME), "[]");
+                running.finished(0).write(statusFile);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        otherBuild.start();
+
+        assertThat(running.inferProcess()).isPresent();
+        assertDoesNotThrow(() -> runner.joinBackgroundAnalysis(analysisParams(resultsDir, true)));
+        assertThat(otherInfer.isAlive()).isFalse();
+        otherBuild.join();
+    }
+
+    @DisplayName(
+            """
+        Given no background analysis was started\s
+        When joining it\s
+        Then throws MojoExecutionException
+       """)
+    @Test
+    void joinBackgroundAnalysisWithoutStart(@TempDir Path tmp) {
+        Path resultsDir = tmp.resolve("infer-results");
+
+        var exception = assertThrows(
+                MojoExecutionException.class, () -> runner.joinBackgroundAnalysis(analysisParams(resultsDir, true)));
+
+        assertThat(exception).hasMessageThat().isEqualTo("Error joining background Infer analysis");
+        assertThat(exception)
+                .hasCauseThat()
+                .hasMessageThat()
+                .isEqualTo("No background Infer analysis found in: " + resultsDir);
+    }
+
+    private InferParams analysisParams(Path resultsDir, boolean enableJavaCheckers) {
+        return new InferParams(
+                project,
+                true,
+                enableJavaCheckers,
+                resultsDir.toString(),
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                List.of(),
+                InferParams.DEFAULT_STALL_TIMEOUT,
+                Duration.ZERO,
+                false,
+                2,
+                InferParams.DEFAULT_WORKER_MEMORY_MEGABYTES,
+                1,
+                0,
+                ShardSafeChecker.DEFAULTS);
+    }
+
+    @DisplayName(
+            """
+        Given a reactor of a parent pom and two modules, one depending on the other\s
+        When running one Infer analysis for the whole reactor\s
+        Then compiles the sources of both modules together without the other module's classes\s
+        And writes each module the issues found in it\s
+        And fails on the issues of the reactor
+       """)
+    @Test
+    void runInferOnReactor(@TempDir Path tmp) throws Exception {
+        Path reactorRoot = tmp.resolve("reactor");
+        Path resultsDir = reactorRoot.resolve("target").resolve("infer-out");
+        MavenProject parent = mock(MavenProject.class);
+        MavenProject moduleA = mockReactorModule(reactorRoot.resolve("module-a"), "A", List.of("/repo/dep.jar"));
+        Path moduleAClasses = reactorRoot.resolve("module-a/target/classes");
+        MavenProject moduleB = mockReactorModule(
+                reactorRoot.resolve("module-b"), "B", List.of(moduleAClasses.toString(), "/repo/dep.jar"));
+
+        Build parentBuild = new Build();
+        parentBuild.setDirectory(reactorRoot.resolve("target").toString());
+        parentBuild.setOutputDirectory(reactorRoot.resolve("target/classes").toString());
+        when(parent.getPackaging()).thenReturn("pom");
+        when(parent.getBuild()).thenReturn(parentBuild);
+        when(parent.getBasedir()).thenReturn(reactorRoot.toFile());
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        InferParams inferParams = new InferParams(parent, true, true, resultsDir.toString(), null);
+
+        Path argsFile = tmp.resolve("infer-args");
+        Path nextReport = tmp.resolve("next-report.json");
+        Files.createDirectories(resultsDir);
+        Path reportingInferExecutable = createReportingInferExecutable(tmp, argsFile, nextReport, resultsDir);
+        Files.writeString(
+                nextReport,
+                """
+                [{"hash": "b-issue", "file": "module-b/src/main/java/example/B.java"}]
+                """);
+
+        var failure = assertThrows(
+                MojoFailureException.class,
+                () -> runner.runInferOnReactor(
+                        inferParams, List.of(parent, moduleA, moduleB), reportingInferExecutable));
+
+        assertThat(failure).hasMessageThat().isEqualTo("Infer analysis completed with issues");
+        assertThat(failure)
+                .hasCauseThat()
+                .hasMessageThat()
+                .isEqualTo("Infer analysis completed with issues found. 1 issues in 1 of 2 modules. Results in: "
+                        + resultsDir);
+        assertThat(Files.readString(argsFile)).contains(" -classpath /repo/dep.jar ");
+        assertThat(Files.readAllLines(reactorRoot.resolve("target/infer-aggregate-sources.args")))
+                .containsExactly(
+                        reactorRoot
+                                .resolve("module-a/src/main/java/example/A.java")
+                                .toString(),
+                        reactorRoot
+                                .resolve("module-b/src/main/java/example/B.java")
+                                .toString())
+                .inOrder();
+        assertThat(Files.readString(reactorRoot.resolve("module-a/target/infer-aggregate-report.json")))
+                .doesNotContain("hash");
+        assertThat(Files.readString(reactorRoot.resolve("module-b/target/infer-aggregate-report.json")))
+                .contains("b-issue");
+        verify(logger)
+                .warn("Infer found 1 issues in module-b. Details in: "
+                        + reactorRoot.resolve("module-b/target/infer-aggregate-report.json"));
+    }
+
+    private MavenProject mockReactorModule(Path moduleDir, String className, List<String> classpathElements)
+            throws Exception {
+        Path srcMainJava = moduleDir.resolve("src/main/java");
+        Files.createDirectories(srcMainJava.resolve("example"));
+        Files.writeString(
+                srcMainJava.resolve("example").resolve(className + ".java"),
+                "package example; class " + className + " {}");
+
+        Build build = new Build();
+        build.setDirectory(moduleDir.resolve("target").toString());
+        build.setOutputDirectory(moduleDir.resolve("target/classes").toString());
+
+        MavenProject module = mock(MavenProject.class);
+        when(module.getPackaging()).thenReturn("jar");
+        when(module.getBuild()).thenReturn(build);
+        when(module.getBasedir()).thenReturn(moduleDir.toFile());
+        when(module.getArtifactId()).thenReturn(moduleDir.getFileName().toString());
+        when(module.getCompileSourceRoots()).thenReturn(List.of(srcMainJava.toString()));
+        when(module.getCompileClasspathElements()).thenReturn(classpathElements);
+        return module;
+    }
+
     private DummyJavaProject createDummyJavaProject(Path tmp) throws IOException {
         Path projectRoot = tmp.resolve("proj");
         Path srcMainJava = projectRoot.resolve("src").resolve("main").resolve("java");
@@ -828,6 +1754,32 @@ class InferRunnerTest {
         return new DummyJavaProject(projectRoot, srcMainJava, helloJava);
     }
 
+    private static String git(Path workingDir, String... args) throws Exception {
+        List<String> gitCommand = new ArrayList<>(List.of("git"));
+        gitCommand.addAll(List.of(args));
+        Process process = new ProcessBuilder(gitCommand)
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).strip();
+        assertThat(process.waitFor()).isEqualTo(0);
+        return output;
+    }
+
+    // Records its arguments and reports the issues in nextReport, exiting like Infer with --fail-on-issue
+    private Path createReportingInferExecutable(Path tempDir, Path argsFile, Path nextReport, Path resultsDir)
+            throws IOException {
+        Path inferExe = tempDir.resolve("reporting-infer.sh");
+        String content = "#!/usr/bin/env sh\n"
+                + "echo \"$@\" > '" + argsFile + "'\n"
+                + "cp '" + nextReport + "' '" + resultsDir.resolve("report.json") + "'\n"
+                + "grep -q hash '" + nextReport + "' && exit 2\n"
+                + "exit 0\n";
+        Files.writeString(inferExe, content, StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(inferExe, PosixFilePermissions.fromString("rwxr-xr-x"));
+        return inferExe;
+    }
+
     private Path createDummyInferExecutable(Path tempDir, int exitCode, String echoLine) throws IOException {
         Path binDir = tempDir.resolve("bin");
         Files.createDirectories(binDir);
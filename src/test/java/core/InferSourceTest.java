@@ -0,0 +1,44 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.net.URI;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class InferSourceTest {
+
+    @DisplayName(
+            """
+        Given file, Maven and HTTP source strings\s
+        When parsing them\s
+        Then returns the matching source with mirror URLs ending in a slash
+       """)
+    @Test
+    void parseSupportedSources() {
+        assertThat(InferSource.parse("file:///opt/infer/mirror"))
+                .hasValue(new InferSource.LocalFile(Path.of("/opt/infer/mirror")));
+        assertThat(InferSource.parse(" mvn:com.facebook.infer:infer "))
+                .hasValue(new InferSource.MavenArtifact("com.facebook.infer", "infer"));
+        assertThat(InferSource.parse("https://mirror.example.com/infer"))
+                .hasValue(new InferSource.HttpMirror(URI.create("https://mirror.example.com/infer/")));
+        assertThat(InferSource.parse("HTTP://mirror.example.com/infer/"))
+                .hasValue(new InferSource.HttpMirror(URI.create("HTTP://mirror.example.com/infer/")));
+    }
+
+    @DisplayName(
+            """
+        Given malformed or unsupported source strings\s
+        When parsing them\s
+        Then returns empty
+       """)
+    @Test
+    void parseRejectsUnsupportedSources() {
+        assertThat(InferSource.parse("ftp://mirror.example.com/infer")).isEmpty();
+        assertThat(InferSource.parse("mvn:com.facebook.infer")).isEmpty();
+        assertThat(InferSource.parse("mvn:com.facebook.infer:infer:1.2.0")).isEmpty();
+        assertThat(InferSource.parse("file:relative/path")).isEmpty();
+        assertThat(InferSource.parse("/opt/infer/mirror")).isEmpty();
+    }
+}
@@ -0,0 +1,234 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.codehaus.plexus.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InstallCacheTest {
+
+    private static final int INSTALL_SIZE_BYTES = 400 * 1024;
+
+    @Mock
+    private Logger logger;
+
+    private InstallCache installCache;
+
+    @BeforeEach
+    void setUp() {
+        installCache = new InstallCache(logger);
+    }
+
+    @DisplayName(
+            """
+        Given three Infer installs that together exceed the disk budget\s
+        When evicting with the most recently installed version as the current one\s
+        Then deletes the least recently used install to get under budget\s
+        And keeps the current install even though it was used least recently
+       """)
+    @Test
+    void evictLeastRecentlyUsed(@TempDir Path installDir) throws Exception {
+        Path current = createInstall(installDir, "infer-linux-x86_64-v1.2.0", Instant.parse("2026-01-01T00:00:00Z"));
+        Path oldest = createInstall(installDir, "infer-linux-x86_64-v1.0.0", Instant.parse("2026-02-01T00:00:00Z"));
+        Path newest = createInstall(installDir, "infer-linux-x86_64-v1.1.0", Instant.parse("2026-03-01T00:00:00Z"));
+
+        installCache.evictLeastRecentlyUsed(installDir, current, 1);
+
+        assertThat(Files.exists(current)).isTrue();
+        assertThat(Files.exists(oldest)).isFalse();
+        assertThat(Files.exists(newest)).isTrue();
+        verify(logger).info("Evicting least recently used Infer installation: " + oldest + " (0 MB)");
+        try (var remaining = Files.list(installDir)) {
+            assertThat(remaining.map(Path::getFileName).map(Path::toString).toList())
+                    .containsExactly(
+                            current.getFileName().toString(),
+                            newest.getFileName().toString());
+        }
+    }
+
+    @DisplayName(
+            """
+        Given three Infer installs which hard link the same files, over the budget only if counted per install\s
+        When evicting\s
+        Then counts the shared files once and deletes nothing
+       """)
+    @Test
+    void evictLeastRecentlyUsedCountsHardLinksOnce(@TempDir Path installDir) throws Exception {
+        Path current = createInstall(installDir, "infer-linux-x86_64-v1.2.0", Instant.parse("2026-03-01T00:00:00Z"));
+        Path older = linkedInstall(installDir, "infer-linux-x86_64-v1.1.0", current);
+        Path oldest = linkedInstall(installDir, "infer-linux-x86_64-v1.0.0", current);
+
+        installCache.evictLeastRecentlyUsed(installDir, current, 1);
+
+        assertThat(Files.exists(current)).isTrue();
+        assertThat(Files.exists(older)).isTrue();
+        assertThat(Files.exists(oldest)).isTrue();
+        verifyNoInteractions(logger);
+    }
+
+    @DisplayName(
+            """
+        Given an Infer install held in use by another build\s
+        And an Infer install marked in use by this build\s
+        When evicting over budget\s
+        Then deletes neither install
+       """)
+    @Test
+    void evictLeastRecentlyUsedSkipsInstallsInUse(@TempDir Path installDir) throws Exception {
+        Path current = createInstall(installDir, "infer-linux-x86_64-v1.2.0", Instant.parse("2026-03-01T00:00:00Z"));
+        Path heldElsewhere =
+                createInstall(installDir, "infer-linux-x86_64-v1.0.0", Instant.parse("2026-01-01T00:00:00Z"));
+        Path heldHere = createInstall(installDir, "infer-linux-x86_64-v1.1.0", Instant.parse("2026-02-01T00:00:00Z"));
+
+        assertThat(installCache.markInUse(heldHere, heldHere.resolve("bin").resolve("infer")))
+                .isTrue();
+
+        try (var otherBuild = FileChannel.open(
+                heldElsewhere.resolve(InstallCache.IN_USE_LOCK_FILE_NAME),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            otherBuild.lock(0L, Long.MAX_VALUE, true);
+
+            installCache.evictLeastRecentlyUsed(installDir, current, 1);
+        }
+
+        assertThat(Files.exists(current)).isTrue();
+        assertThat(Files.exists(heldElsewhere)).isTrue();
+        assertThat(Files.exists(heldHere)).isTrue();
+        verify(logger)
+                .warn("Infer installs in " + installDir
+                        + " still use 1 MB, over the 1 MB budget. The remaining installs are in use.");
+    }
+
+    @DisplayName(
+            """
+        Given an Infer install marked in use by two goals of this build\s
+        When both goals release it and installs over the disk budget are evicted after each release\s
+        Then deletes a newer install rather than it while one goal still holds it\s
+        And deletes it once the last goal has released it
+       """)
+    @Test
+    void releaseInUseLetsEvictionDeleteTheInstallOnceNoGoalHoldsIt(@TempDir Path installDir) throws Exception {
+        Path current = createInstall(installDir, "infer-linux-x86_64-v1.2.0", Instant.parse("2026-03-01T00:00:00Z"));
+        Path unused = createInstall(installDir, "infer-linux-x86_64-v1.1.0", Instant.parse("2026-02-01T00:00:00Z"));
+        Path held = createInstall(installDir, "infer-linux-x86_64-v1.0.0", Instant.parse("2026-01-01T00:00:00Z"));
+        Path heldExe = held.resolve("bin").resolve("infer");
+
+        assertThat(installCache.markInUse(held, heldExe)).isTrue();
+        assertThat(installCache.markInUse(held, heldExe)).isTrue();
+
+        installCache.releaseInUse(held);
+        installCache.evictLeastRecentlyUsed(installDir, current, 1);
+        assertThat(Files.exists(unused)).isFalse();
+        assertThat(Files.exists(held)).isTrue();
+
+        installCache.releaseInUse(held);
+        // Marking it in use made it the most recently used, so the next install has to be used after that
+        createInstall(installDir, "infer-linux-x86_64-v1.1.1", Instant.now().plusSeconds(60));
+        installCache.evictLeastRecentlyUsed(installDir, current, 1);
+        assertThat(Files.exists(held)).isFalse();
+    }
+
+    @DisplayName(
+            """
+        Given an Infer install whose executable has been removed\s
+        When marking it in use\s
+        Then returns false
+       """)
+    @Test
+    void markInUseReturnsFalseWhenExecutableIsGone(@TempDir Path installDir) throws Exception {
+        Path inferRoot = createInstall(installDir, "infer-linux-x86_64-v1.2.0", Instant.now());
+        Path inferExe = inferRoot.resolve("bin").resolve("infer");
+        Files.delete(inferExe);
+
+        assertThat(installCache.markInUse(inferRoot, inferExe)).isFalse();
+    }
+
+    @DisplayName(
+            """
+        Given an Infer install over the disk budget in a parallel reactor build\s
+        When one goal marks it in use while another evicts installs over the budget, many times over\s
+        Then neither goal fails\s
+        And the install is never removed while it is marked in use
+       """)
+    @Test
+    void markInUseRacesEviction(@TempDir Path installDir) throws Exception {
+        Path current = createInstall(installDir, "infer-linux-x86_64-v1.2.0", Instant.now());
+        Path raced = installDir.resolve("infer-linux-x86_64-v1.0.0");
+        Path racedExe = raced.resolve("bin").resolve("infer");
+
+        try (ExecutorService reactor = Executors.newFixedThreadPool(2)) {
+            for (int round = 0; round < 200; round++) {
+                if (!Files.exists(raced)) {
+                    createInstall(installDir, raced.getFileName().toString(), Instant.parse("2026-01-01T00:00:00Z"));
+                }
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<Boolean> goal = reactor.submit(() -> {
+                    start.await();
+
+                    if (!installCache.markInUse(raced, racedExe)) {
+                        return true;
+                    }
+
+                    try {
+                        return Files.exists(racedExe);
+                    } finally {
+                        installCache.releaseInUse(raced);
+                    }
+                });
+                Future<?> eviction = reactor.submit(() -> {
+                    start.await();
+                    installCache.evictLeastRecentlyUsed(installDir, current, 0);
+                    return null;
+                });
+
+                start.countDown();
+
+                assertThat(goal.get()).isTrue();
+                eviction.get();
+            }
+        }
+
+        assertThat(Files.exists(current)).isTrue();
+    }
+
+    private Path linkedInstall(Path installDir, String rootName, Path linkedRoot) throws Exception {
+        Path inferRoot = installDir.resolve(rootName);
+        Path inferExe = inferRoot.resolve("bin").resolve("infer");
+        Files.createDirectories(inferExe.getParent());
+        Files.createLink(inferExe, linkedRoot.resolve("bin").resolve("infer"));
+        return inferRoot;
+    }
+
+    private Path createInstall(Path installDir, String rootName, Instant lastUsed) throws Exception {
+        Path inferRoot = installDir.resolve(rootName);
+        Path inferExe = inferRoot.resolve("bin").resolve("infer");
+        Files.createDirectories(inferExe.getParent());
+        Files.write(inferExe, new byte[INSTALL_SIZE_BYTES]);
+
+        Path lastUsedFile = Files.createFile(inferRoot.resolve(InstallCache.LAST_USED_FILE_NAME));
+        Files.setLastModifiedTime(lastUsedFile, FileTime.from(lastUsed));
+        return inferRoot;
+    }
+}
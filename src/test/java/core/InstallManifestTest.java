@@ -0,0 +1,121 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstallManifestTest {
+
+    @DisplayName(
+            """
+        Given a manifest with file and symlink entries\s
+        When writing and reading it back\s
+        Then returns the same digest and entries
+       """)
+    @Test
+    void writeAndReadRoundTrip(@TempDir Path tmp) throws Exception {
+        var manifest = new InstallManifest(
+                "abc123",
+                ExtractionProfile.JAVA_ONLY,
+                List.of(
+                        InstallManifest.Entry.file("infer/bin/infer", 5, 0xCAFEL),
+                        InstallManifest.Entry.symlink("infer/lib/with space", "../bin/infer")));
+        Path manifestFile = tmp.resolve(InstallManifest.FILE_NAME);
+
+        manifest.write(manifestFile);
+        var readManifest = InstallManifest.read(manifestFile);
+
+        assertThat(readManifest.tarballDigest()).isEqualTo("abc123");
+        assertThat(readManifest.profile()).isEqualTo(ExtractionProfile.JAVA_ONLY);
+        assertThat(readManifest.entries())
+                .containsExactlyElementsIn(manifest.entries())
+                .inOrder();
+    }
+
+    @DisplayName(
+            """
+        Given a file that is not an install manifest\s
+        When reading it\s
+        Then throws IOException
+       """)
+    @Test
+    void readRejectsUnrecognisedFile(@TempDir Path tmp) throws Exception {
+        Path manifestFile = tmp.resolve(InstallManifest.FILE_NAME);
+        Files.writeString(manifestFile, "not a manifest\n");
+
+        var ioException = assertThrows(IOException.class, () -> InstallManifest.read(manifestFile));
+
+        assertThat(ioException).hasMessageThat().isEqualTo("Unrecognised Infer install manifest: " + manifestFile);
+    }
+
+    @DisplayName(
+            """
+        Given an installation with a corrupt file, a missing file and a retargeted symlink\s
+        When looking for damaged entries\s
+        Then returns only those entries\s
+        And the sampled stat check only notices the size and existence changes
+       """)
+    @Test
+    void findDamagedEntries(@TempDir Path installDir) throws Exception {
+        Path bin = Files.createDirectories(installDir.resolve("infer").resolve("bin"));
+        InstallManifest.Entry intact = writeFile(installDir, "infer/bin/intact", "intact");
+        InstallManifest.Entry corrupt = writeFile(installDir, "infer/bin/corrupt", "before");
+        InstallManifest.Entry missing = writeFile(installDir, "infer/bin/missing", "missing");
+        Files.createSymbolicLink(bin.resolve("link"), Path.of("intact"));
+        InstallManifest.Entry intactLink = InstallManifest.Entry.symlink("infer/bin/link", "intact");
+        Files.createSymbolicLink(bin.resolve("moved-link"), Path.of("elsewhere"));
+        InstallManifest.Entry movedLink = InstallManifest.Entry.symlink("infer/bin/moved-link", "intact");
+        var manifest = new InstallManifest(
+                "digest", ExtractionProfile.FULL, List.of(intact, corrupt, missing, intactLink, movedLink));
+
+        Files.writeString(bin.resolve("corrupt"), "after!");
+        Files.delete(bin.resolve("missing"));
+
+        assertThat(manifest.findDamagedEntries(installDir, 2))
+                .containsExactly(corrupt, missing, movedLink)
+                .inOrder();
+        assertThat(manifest.sample(10).stream()
+                        .filter(entry -> !entry.looksIntact(installDir))
+                        .toList())
+                .containsExactly(missing);
+    }
+
+    @DisplayName(
+            """
+        Given a manifest with more entries than the sample size\s
+        When sampling\s
+        Then returns the requested number of distinct entries
+       """)
+    @Test
+    void sampleLimitsEntries() {
+        var manifest = new InstallManifest(
+                "digest",
+                ExtractionProfile.FULL,
+                List.of(
+                        InstallManifest.Entry.file("a", 1, 1),
+                        InstallManifest.Entry.file("b", 1, 1),
+                        InstallManifest.Entry.file("c", 1, 1)));
+
+        assertThat(manifest.sample(2)).hasSize(2);
+        assertThat(manifest.sample(2)).containsNoDuplicates();
+        assertThat(manifest.sample(5)).hasSize(3);
+    }
+
+    private InstallManifest.Entry writeFile(Path installDir, String path, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Files.write(installDir.resolve(path), bytes);
+
+        var crc = new CRC32();
+        crc.update(bytes);
+        return InstallManifest.Entry.file(path, bytes.length, crc.getValue());
+    }
+}
@@ -0,0 +1,76 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JavaSourceWalkerTest {
+
+    @DisplayName(
+            """
+        Given two source roots with nested packages and non-Java files\s
+        When walking both roots\s
+        Then returns every Java source of each root in sorted order
+       """)
+    @Test
+    void walkFindsNestedJavaSources(@TempDir Path projectDir) throws Exception {
+        Path srcMainJava = projectDir.resolve("src/main/java");
+        Path generated = projectDir.resolve("target/generated-sources/annotations");
+        Path deep = createSource(srcMainJava, "com/example/deep/er/Deep.java");
+        Path top = createSource(srcMainJava, "Top.java");
+        Path sibling = createSource(srcMainJava, "com/example/Sibling.java");
+        Path generatedSource = createSource(generated, "com/example/Generated.java");
+        createSource(srcMainJava, "com/example/notes.txt");
+
+        try (var walker = new JavaSourceWalker(projectDir, SourceFilter.of(List.of(), List.of()), 2)) {
+            var mainRoot = walker.walk(srcMainJava);
+            var generatedRoot = walker.walk(generated);
+
+            assertThat(mainRoot.join()).containsExactly(top, sibling, deep).inOrder();
+            assertThat(generatedRoot.join()).containsExactly(generatedSource);
+        }
+    }
+
+    @DisplayName(
+            """
+        Given include and exclude patterns relative to the project and to the source root\s
+        When walking the source roots\s
+        Then returns only included sources that are not excluded\s
+        And matches **/ against no dirs at all like Ant
+       """)
+    @Test
+    void walkAppliesIncludesAndExcludes(@TempDir Path projectDir) throws Exception {
+        Path srcMainJava = projectDir.resolve("src/main/java");
+        Path generated = projectDir.resolve("target/generated-sources/annotations");
+        Path kept = createSource(srcMainJava, "com/example/Kept.java");
+        Path keptTest = createSource(srcMainJava, "KeptTest.java");
+        createSource(srcMainJava, "com/example/legacy/Old.java");
+        createSource(srcMainJava, "other/Elsewhere.java");
+        createSource(generated, "com/example/Generated.java");
+        var sourceFilter = SourceFilter.of(
+                List.of("com/example/**", "**/*Test.java"),
+                List.of("target/generated-sources/**", "com/example/legacy/"));
+
+        assertThat(sourceFilter.excludesDir(Path.of("target/generated-sources"), Path.of("x")))
+                .isTrue();
+
+        try (var walker = new JavaSourceWalker(projectDir, sourceFilter, 2)) {
+            var mainRoot = walker.walk(srcMainJava);
+            var generatedRoot = walker.walk(generated);
+
+            assertThat(mainRoot.join()).containsExactly(keptTest, kept);
+            assertThat(generatedRoot.join()).isEmpty();
+        }
+    }
+
+    private static Path createSource(Path root, String relativePath) throws Exception {
+        Path source = root.resolve(relativePath);
+        Files.createDirectories(source.getParent());
+        return Files.writeString(source, "class Source {}");
+    }
+}
@@ -0,0 +1,93 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import Utils.MultiBlockXz;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelXZInputStreamTest {
+
+    @DisplayName(
+            """
+        Given a multi-block xz file\s
+        When decoding the blocks on several threads\s
+        Then returns the original bytes in order
+       """)
+    @Test
+    void readsBlocksInOrder(@TempDir Path tmp) throws Exception {
+        byte[] content = compressibleBytes(1_000_000);
+        Path xzFile = tmp.resolve("content.xz");
+        Files.write(xzFile, MultiBlockXz.compress(content, 64 * 1024));
+
+        assertThat(ParallelXZInputStream.readIndex(xzFile))
+                .isEqualTo(new ParallelXZInputStream.BlockIndex(16, 64 * 1024));
+
+        try (var parallelXZInputStream = new ParallelXZInputStream(xzFile, 4)) {
+            assertThat(parallelXZInputStream.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @DisplayName(
+            """
+        Given a multi-block xz file with more blocks than the read-ahead window\s
+        When decoding on a single thread\s
+        Then still returns the original bytes
+       """)
+    @Test
+    void readsBlocksWithSingleThread(@TempDir Path tmp) throws Exception {
+        byte[] content = compressibleBytes(300_000);
+        Path xzFile = tmp.resolve("content.xz");
+        Files.write(xzFile, MultiBlockXz.compress(content, 10_000));
+
+        try (var parallelXZInputStream = new ParallelXZInputStream(xzFile, 1)) {
+            assertThat(parallelXZInputStream.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @DisplayName(
+            """
+        Given a multi-block xz file and a read-ahead budget smaller than one block\s
+        When decoding on several threads\s
+        Then decodes one block at a time and still returns the original bytes
+       """)
+    @Test
+    void readsBlocksWithinByteBudget(@TempDir Path tmp) throws Exception {
+        byte[] content = compressibleBytes(300_000);
+        Path xzFile = tmp.resolve("content.xz");
+        Files.write(xzFile, MultiBlockXz.compress(content, 10_000));
+
+        try (var parallelXZInputStream = new ParallelXZInputStream(xzFile, 4, 5_000)) {
+            assertThat(parallelXZInputStream.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @DisplayName(
+            """
+        Given a file which is not xz\s
+        When reading its block index\s
+        Then throws IOException
+       """)
+    @Test
+    void readIndexRejectsNonXzFile(@TempDir Path tmp) throws Exception {
+        Path notXz = tmp.resolve("content.txt");
+        Files.writeString(notXz, "not xz");
+
+        assertThrows(IOException.class, () -> ParallelXZInputStream.readIndex(notXz));
+    }
+
+    private byte[] compressibleBytes(int size) {
+        byte[] bytes = new byte[size];
+        Random random = new Random(7);
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(4));
+        }
+        return bytes;
+    }
+}
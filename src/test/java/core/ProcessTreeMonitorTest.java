@@ -0,0 +1,93 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.codehaus.plexus.logging.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessTreeMonitorTest {
+
+    @Mock
+    private Logger logger;
+
+    @DisplayName(
+            """
+        Given a process tree that runs for a few seconds under a tiny memory ceiling\s
+        When monitoring it\s
+        Then records its resident memory and processes and warns about the ceiling
+       """)
+    @Test
+    void monitorSamplesProcessTree(@TempDir Path tmp) throws Exception {
+        assumeTrue(Files.isDirectory(Path.of("/proc/self")), "needs /proc");
+        Process process = new ProcessBuilder("sh", "-c", "sleep 3 & wait").start();
+
+        ProcessTreeMonitor.ResourceUsage usage;
+
+        try (var monitor = ProcessTreeMonitor.start(process, 1024L, -1L, tmp, tmp.resolve("cgroup"), logger)) {
+            process.waitFor();
+            usage = monitor.usage();
+        }
+
+        assertThat(usage.samples()).isGreaterThan(0);
+        assertThat(usage.peakRssBytes()).isGreaterThan(0L);
+        assertThat(usage.averageRssBytes()).isAtMost(usage.peakRssBytes());
+        assertThat(usage.peakProcesses()).isEqualTo(2);
+        assertThat(usage.oomKills()).isEqualTo(0L);
+        assertThat(usage.hitMemoryCeiling()).isTrue();
+        verify(logger, atLeastOnce()).warn(anyString());
+    }
+
+    @DisplayName(
+            """
+        Given a run that stayed well under its memory ceiling\s
+        When checking whether it hit the ceiling\s
+        Then only an OOM kill counted by its cgroup during the run counts
+       """)
+    @Test
+    void hitMemoryCeilingOnlyNearLimitOrOomKilled() {
+        assertThat(new ProcessTreeMonitor.ResourceUsage(3, 3000L, 100L, 10L, 5L, 1, 1000L, 0L).hitMemoryCeiling())
+                .isFalse();
+        assertThat(new ProcessTreeMonitor.ResourceUsage(3, 3000L, 100L, 10L, 5L, 1, 1000L, 1L).hitMemoryCeiling())
+                .isTrue();
+    }
+
+    @DisplayName(
+            """
+        Given a build in a nested cgroup v2 whose memory.events counts one earlier OOM kill\s
+        When the OOM killer ends another of its processes during the run\s
+        Then counts only the kill during the run
+       """)
+    @Test
+    void monitorCountsOomKillsDuringTheRun(@TempDir Path tmp) throws Exception {
+        Path cgroupRoot = Files.createDirectories(tmp.resolve("sys/fs/cgroup"));
+        Path buildCgroup = Files.createDirectories(cgroupRoot.resolve("build.scope"));
+        Path memoryEvents = Files.writeString(buildCgroup.resolve("memory.events"), "oom 1\noom_kill 1\n");
+        Path procSelfCgroup = Files.writeString(tmp.resolve("cgroup"), "0::/build.scope\n");
+        long startOomKills = ProcessTreeMonitor.oomKills(cgroupRoot, procSelfCgroup, logger);
+        Process process = new ProcessBuilder("true").start();
+
+        ProcessTreeMonitor.ResourceUsage usage;
+
+        try (var monitor =
+                ProcessTreeMonitor.start(process, 0L, startOomKills, cgroupRoot, procSelfCgroup, logger)) {
+            process.waitFor();
+            Files.writeString(memoryEvents, "oom 2\noom_kill 2\n");
+            usage = monitor.usage();
+        }
+
+        assertThat(usage.oomKills()).isEqualTo(1L);
+        assertThat(usage.hitMemoryCeiling()).isTrue();
+    }
+}
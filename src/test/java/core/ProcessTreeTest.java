@@ -0,0 +1,65 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ProcessTreeTest {
+
+    @DisplayName(
+            """
+        Given a process that forked two children\s
+        When destroying its tree\s
+        Then the process and both children exit within the grace period
+       """)
+    @Test
+    void destroyTerminatesForkedChildren() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "sleep 300 & sleep 300 & wait").start();
+        List<ProcessHandle> children = awaitDescendants(process, 2);
+        long startNanos = System.nanoTime();
+
+        ProcessTree.destroy(process, Duration.ofSeconds(10));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofSeconds(10));
+        assertThat(process.isAlive()).isFalse();
+        assertThat(children.stream().noneMatch(ProcessHandle::isAlive)).isTrue();
+    }
+
+    @DisplayName(
+            """
+        Given a process with a child that ignores SIGTERM\s
+        When destroying its tree\s
+        Then kills the child once the grace period is over
+       """)
+    @Test
+    void destroyKillsChildIgnoringTerminationAfterGracePeriod() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "sh -c \"trap '' TERM; sleep 300; :\" & wait").start();
+        List<ProcessHandle> children = awaitDescendants(process, 2);
+        long startNanos = System.nanoTime();
+
+        ProcessTree.destroy(process, Duration.ofMillis(500));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isAtLeast(Duration.ofMillis(500));
+        for (ProcessHandle child : children) {
+            assertThat(child.onExit().get(10, TimeUnit.SECONDS).isAlive()).isFalse();
+        }
+        assertThat(process.isAlive()).isFalse();
+    }
+
+    private static List<ProcessHandle> awaitDescendants(Process process, int count) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        List<ProcessHandle> descendants = process.descendants().toList();
+
+        while (descendants.size() < count && System.nanoTime() < deadlineNanos) {
+            TimeUnit.MILLISECONDS.sleep(20);
+            descendants = process.descendants().toList();
+        }
+
+        assertThat(descendants).hasSize(count);
+        return descendants;
+    }
+}
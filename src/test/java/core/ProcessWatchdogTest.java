@@ -0,0 +1,53 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ProcessWatchdogTest {
+
+    @DisplayName(
+            """
+        Given a process that writes no output but keeps using CPU for longer than the stall timeout\s
+        When waiting for it\s
+        Then lets it run to completion
+       """)
+    @Test
+    void awaitKeepsSilentBusyProcessAlive() throws Exception {
+        Process process = new ProcessBuilder(
+                        "sh", "-c", "end=$(($(date +%s) + 2)); while [ $(date +%s) -lt $end ]; do i=0; done")
+                .redirectErrorStream(true)
+                .start();
+        var outputPump = ProcessOutputPump.start(process.getInputStream(), line -> {});
+
+        var outcome = new ProcessWatchdog(process, outputPump, Duration.ofMillis(500), Duration.ZERO).await();
+
+        assertThat(outcome).isEqualTo(ProcessWatchdog.Outcome.EXITED);
+        assertThat(process.exitValue()).isEqualTo(0);
+    }
+
+    @DisplayName(
+            """
+        Given a process that keeps writing output\s
+        When it runs past the overall timeout\s
+        Then kills it and reports the timeout
+       """)
+    @Test
+    void awaitKillsProcessPastTimeout() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "while true; do echo tick; sleep 0.1; done")
+                .redirectErrorStream(true)
+                .start();
+        var outputPump = ProcessOutputPump.start(process.getInputStream(), line -> {});
+
+        var outcome = new ProcessWatchdog(process, outputPump, Duration.ofMillis(500), Duration.ofSeconds(1)).await();
+
+        assertThat(outcome).isEqualTo(ProcessWatchdog.Outcome.TIMED_OUT);
+        assertThat(process.waitFor(Duration.ofSeconds(10).toMillis(), TimeUnit.MILLISECONDS))
+                .isTrue();
+        assertThat(outputPump.tail()).contains("tick");
+        assertThat(outputPump.awaitEnd(Duration.ofSeconds(10))).isTrue();
+    }
+}
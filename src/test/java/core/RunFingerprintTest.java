@@ -0,0 +1,73 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RunFingerprintTest {
+
+    @DisplayName(
+            """
+        Given a fingerprint of two sources\s
+        When writing and reading it back\s
+        Then returns the same inputs and exit code
+       """)
+    @Test
+    void writeAndReadRoundTrip(@TempDir Path tmp) throws Exception {
+        Path first = Files.writeString(tmp.resolve("A.java"), "class A {}");
+        Path second = Files.writeString(tmp.resolve("with space.java"), "class B {}");
+        var fingerprint = new RunFingerprint(
+                RunFingerprint.settingsDigestOf(List.of("java-checkers=true")),
+                RunFingerprint.hashSources(List.of(second, first), null, 2),
+                InferRunner.INFER_ISSUES_FOUND);
+        Path fingerprintFile = tmp.resolve(RunFingerprint.FILE_NAME);
+
+        fingerprint.write(fingerprintFile);
+        var readFingerprint = RunFingerprint.read(fingerprintFile);
+
+        assertThat(readFingerprint.exitCode()).isEqualTo(InferRunner.INFER_ISSUES_FOUND);
+        assertThat(readFingerprint.sourceHashes())
+                .containsExactlyElementsIn(fingerprint.sourceHashes())
+                .inOrder();
+        assertThat(readFingerprint.sameInputsAs(fingerprint)).isTrue();
+    }
+
+    @DisplayName(
+            """
+        Given a source rewritten with the same content and another with the same size and mtime but new content\s
+        When hashing against the previous fingerprint\s
+        Then re-reads only the source whose stat changed\s
+        And still matches the previous inputs
+       """)
+    @Test
+    void hashSourcesSkipsSourcesWithUnchangedStat(@TempDir Path tmp) throws Exception {
+        Path touched = Files.writeString(tmp.resolve("Touched.java"), "class T {}");
+        Path edited = Files.writeString(tmp.resolve("Edited.java"), "class E {}");
+        FileTime editedMtime = Files.getLastModifiedTime(edited);
+        var previous = new RunFingerprint(
+                RunFingerprint.settingsDigestOf(List.of()),
+                RunFingerprint.hashSources(List.of(touched, edited), null, 1),
+                0);
+
+        Files.setLastModifiedTime(touched, FileTime.from(Instant.parse("2026-01-01T00:00:00Z")));
+        Files.writeString(edited, "class X {}");
+        Files.setLastModifiedTime(edited, editedMtime);
+
+        var current = new RunFingerprint(
+                RunFingerprint.settingsDigestOf(List.of()),
+                RunFingerprint.hashSources(List.of(touched, edited), previous, 1),
+                0);
+
+        // The same-stat edit goes unnoticed, which is the trade-off the stat pre-filter makes
+        assertThat(current.sameInputsAs(previous)).isTrue();
+        assertThat(current.sourceHashes().getLast().lastModifiedMillis())
+                .isEqualTo(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+    }
+}
@@ -0,0 +1,37 @@
+package core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SourceDependentsTest {
+
+    @DisplayName(
+            """
+        Given a changed source, a caller of it, a caller of that caller and an unrelated source\s
+        When finding the dependents of the changed source\s
+        Then returns both callers but not the unrelated source or the changed source itself
+       """)
+    @Test
+    void ofFollowsTypeReferencesTransitively(@TempDir Path tmp) throws Exception {
+        Path callee = Files.writeString(
+                tmp.resolve("Callee.java"), "class Callee { static String find() { return null; } }");
+        Path caller = Files.writeString(
+                tmp.resolve("Caller.java"), "class Caller { Object call() { return Callee.find(); } }");
+        Path indirectCaller = Files.writeString(
+                tmp.resolve("Indirect.java"),
+                "class Indirect { int length() { return new Caller().call().hashCode(); } }");
+        Path unrelated = Files.writeString(tmp.resolve("Unrelated.java"), "class Unrelated { int x; }");
+
+        assertThat(SourceDependents.of(List.of(callee, caller, indirectCaller, unrelated), List.of(callee)))
+                .containsExactly(caller, indirectCaller)
+                .inOrder();
+        assertThat(SourceDependents.of(List.of(callee, caller, indirectCaller, unrelated), List.of(unrelated)))
+                .isEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package core;
+
+import Utils.MultiBlockXz;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Run with: mvn -B -Pbenchmark -Dskip.ut=true test
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class XZDecompressionBenchmark {
+
+    private static final int TAR_ENTRIES = 64;
+    private static final int TAR_ENTRY_SIZE = 1024 * 1024;
+    private static final int XZ_BLOCK_SIZE = 4 * 1024 * 1024;
+
+    @Param({"4", "8"})
+    private int decoderThreads;
+
+    private Path workDir;
+    private Path multiBlockTarXz;
+
+    @Setup(Level.Trial)
+    public void createSyntheticTarball() throws IOException {
+        workDir = Files.createTempDirectory("infer-xz-benchmark-");
+        multiBlockTarXz = workDir.resolve("synthetic.tar.xz");
+        Files.write(multiBlockTarXz, MultiBlockXz.compress(syntheticTar(), XZ_BLOCK_SIZE));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSyntheticTarball() throws IOException {
+        FileUtils.deleteDirectory(workDir.toFile());
+    }
+
+    @Benchmark
+    public long sequentialXZCompressorInputStream() throws IOException {
+        try (var fileInputStream = Files.newInputStream(multiBlockTarXz);
+                var bufferedInputStream = new BufferedInputStream(fileInputStream);
+                var xzCompressorInputStream = new XZCompressorInputStream(bufferedInputStream)) {
+            return readAllEntries(xzCompressorInputStream);
+        }
+    }
+
+    @Benchmark
+    public long parallelXZInputStream() throws IOException {
+        try (var parallelXZInputStream = new ParallelXZInputStream(multiBlockTarXz, decoderThreads)) {
+            return readAllEntries(parallelXZInputStream);
+        }
+    }
+
+    private static long readAllEntries(InputStream decompressedTar) throws IOException {
+        var tarArchiveInputStream = new TarArchiveInputStream(decompressedTar);
+        long totalBytes = 0;
+
+        while (tarArchiveInputStream.getNextEntry() != null) {
+            totalBytes += tarArchiveInputStream.transferTo(OutputStream.nullOutputStream());
+        }
+
+        return totalBytes;
+    }
+
+    private static byte[] syntheticTar() throws IOException {
+        Random random = new Random(11);
+        byte[] entryContent = new byte[TAR_ENTRY_SIZE];
+        var byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (var tar = new TarArchiveOutputStream(byteArrayOutputStream)) {
+            for (int i = 0; i < TAR_ENTRIES; i++) {
+                // Skewed random bytes compress roughly like the binaries and models in the Infer distribution
+                for (int j = 0; j < entryContent.length; j++) {
+                    entryContent[j] = (byte) (random.nextInt(16) * random.nextInt(16));
+                }
+
+                TarArchiveEntry entry = new TarArchiveEntry("infer/lib/file-" + i + ".bin");
+                entry.setSize(entryContent.length);
+                tar.putArchiveEntry(entry);
+                tar.write(entryContent);
+                tar.closeArchiveEntry();
+            }
+            tar.finish();
+        }
+
+        return byteArrayOutputStream.toByteArray();
+    }
+}
@@ -21,13 +21,13 @@ class FbInferMojoIT {
 
     @AfterAll
     static void cleanUp() throws IOException {
-        Path userHomeDownloadsPath = Path.of(System.getProperty("user.home"), "Downloads");
+        Path defaultInstallDir = Path.of(System.getProperty("user.home"), ".m2", "infer");
 
         // Make sure any Infer distributions are cleaned up regardless of OS
         List<String> inferDirs = List.of("infer-linux-x86_64-v1.2.0", "infer-osx-arm64-v1.2.0");
 
         for (String dir : inferDirs) {
-            FileUtils.deleteDirectory(userHomeDownloadsPath.resolve(dir).toFile());
+            FileUtils.deleteDirectory(defaultInstallDir.resolve(dir).toFile());
         }
     }
 
@@ -156,6 +156,27 @@ class FbInferMojoIT {
                 .toFile());
     }
 
+    @MavenTest
+    void successfully_installs_infer_install_goal(MavenExecutionResult result) throws IOException {
+        assertThat(result).isSuccessful();
+        String expectedInferDir =
+                System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")
+                        ? "infer-linux-x86_64-v1.2.0"
+                        : "infer-osx-arm64-v1.2.0";
+        Path installDir = Path.of(System.getProperty("user.home")).resolve("someinstalldir");
+        assertThat(Files.exists(
+                        installDir.resolve(expectedInferDir).resolve("bin").resolve("infer")))
+                .isTrue();
+        assertThat(result.getMavenProjectResult()
+                        .getTargetProjectDirectory()
+                        .resolve("target")
+                        .resolve("infer-out"))
+                .doesNotExist();
+
+        // cleanup manually
+        FileUtils.deleteDirectory(installDir.toFile());
+    }
+
     @MavenTest
     void successfully_runs_infer_custom_results_dir(MavenExecutionResult result) throws IOException {
         Path userHome = Path.of(System.getProperty("user.home"));